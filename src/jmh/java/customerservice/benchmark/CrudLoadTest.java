@@ -0,0 +1,343 @@
+package customerservice.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.bson.types.ObjectId;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import customerservice.CustomerService;
+import customerservice.domain.Customer;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.FormBody;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Load generator driving a CRUD mix at a fixed arrival rate against the service started on the
+ * embedded MongoDB.
+ * <p>
+ * Requests are sent on schedule whether or not the previous ones completed and their latency is
+ * measured from the time they were scheduled, not from the time they were sent: a stalled server
+ * is charged for every request it delayed, there is no coordinated omission.
+ * <p>
+ * Configured with system properties:
+ * <ul>
+ * <li>load.rate: requests per second (500)</li>
+ * <li>load.warmup: seconds of warmup, not measured (10)</li>
+ * <li>load.duration: seconds measured (60)</li>
+ * <li>load.mix: weight of each endpoint (read:60,list:5,create:15,update:15,delete:5)</li>
+ * <li>load.customers: customers created before the run (1000)</li>
+ * </ul>
+ * p50, p99, p99.9 and throughput are printed per endpoint, the full HdrHistogram percentile
+ * distributions are written to {@code target/load/<endpoint>.hgrm}. The bytes allocated by the
+ * server threads during the run are printed too, to compare the runtimes ({@code -Dwebserver.runtime=netty}).
+ * Without MongoDB run it on the log engine ({@code -Dspring.profiles.active=log}). Run with:<br>
+ * {@code mvn -Pdefault,benchmark test-compile exec:exec -Dexec.args="-Dload.rate=1000 -classpath %classpath customerservice.benchmark.CrudLoadTest"}
+ */
+public class CrudLoadTest {
+
+	private static final int PORT = 18080;
+	private static final String BASE_URL = "http://127.0.0.1:" + PORT;
+	private static final MediaType JSON = MediaType.parse("application/json;charset=UTF-8");
+
+	/* Latencies are recorded in microseconds, up to one minute */
+	private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	enum Endpoint {
+		READ, LIST, CREATE, UPDATE, DELETE
+	}
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final OkHttpClient client;
+	private final String authorization;
+
+	private final Endpoint[] mix;
+	private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+	private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+
+	/* Ids of the existing customers, picked at random by reads, updates and deletes */
+	private final List<String> ids = new ArrayList<>();
+
+	private CrudLoadTest(Endpoint[] mix, String token) {
+
+		final Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequests(1024);
+		dispatcher.setMaxRequestsPerHost(1024);
+		this.client = new OkHttpClient.Builder().dispatcher(dispatcher).build();
+		this.authorization = "Bearer " + token;
+		this.mix = mix;
+		for (Endpoint endpoint : Endpoint.values()) {
+			recorders.put(endpoint, new Recorder(HIGHEST_LATENCY_MICROS, 3));
+			errors.put(endpoint, new AtomicLong());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		final int rate = Integer.getInteger("load.rate", 500);
+		final int warmup = Integer.getInteger("load.warmup", 10);
+		final int duration = Integer.getInteger("load.duration", 60);
+		final int customers = Integer.getInteger("load.customers", 1000);
+		final Endpoint[] mix = parseMix(System.getProperty("load.mix", "read:60,list:5,create:15,update:15,delete:5"));
+
+		/* A devtools restart would run the load again in another thread, against a closed context */
+		System.setProperty("spring.devtools.restart.enabled", "false");
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerService.class)
+				.run("--server.port=" + PORT, "--oauth2.rate-limit.enabled=false")) {
+
+			final CrudLoadTest loadTest = new CrudLoadTest(mix, accessToken());
+			loadTest.seed(customers);
+
+			loadTest.run(rate, warmup);
+			loadTest.reset();
+			final Map<Long, Long> allocatedBefore = serverAllocatedBytes();
+			final long elapsedNanos = loadTest.run(rate, duration);
+			loadTest.report(elapsedNanos, allocatedBytesSince(allocatedBefore));
+		}
+	}
+
+	/**
+	 * Send requests at a fixed rate, the n-th request is due at {@code start + n / rate}.
+	 *
+	 * @return The duration of the run including the completion of the last requests
+	 */
+	private long run(int rate, int seconds) throws InterruptedException {
+
+		final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		final long requests = (long) rate * seconds;
+		final long start = System.nanoTime();
+
+		for (long n = 0; n < requests; n++) {
+
+			final long due = start + n * intervalNanos;
+			long now;
+			while ((now = System.nanoTime()) < due) {
+				LockSupport.parkNanos(due - now);
+			}
+			send(mix[ThreadLocalRandom.current().nextInt(mix.length)], due);
+		}
+
+		while (client.dispatcher().runningCallsCount() + client.dispatcher().queuedCallsCount() > 0) {
+			Thread.sleep(10);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private void send(Endpoint endpoint, long due) {
+
+		final String id = endpoint == Endpoint.LIST || endpoint == Endpoint.CREATE ? null : randomId(endpoint);
+		if (endpoint != Endpoint.LIST && endpoint != Endpoint.CREATE && id == null) {
+			send(Endpoint.CREATE, due);
+			return;
+		}
+
+		final Request request;
+		try {
+			request = request(endpoint, id);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		client.newCall(request).enqueue(new Callback() {
+
+			@Override
+			public void onResponse(Call call, Response response) throws IOException {
+				try (Response r = response) {
+					r.body().bytes();
+					recorders.get(endpoint).recordValue(
+							Math.min(HIGHEST_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+					if (!r.isSuccessful()) {
+						errors.get(endpoint).incrementAndGet();
+					} else if (endpoint == Endpoint.CREATE) {
+						addId(r.header("Location"));
+					}
+				}
+			}
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				recorders.get(endpoint).recordValue(
+						Math.min(HIGHEST_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+				errors.get(endpoint).incrementAndGet();
+			}
+		});
+	}
+
+	private Request request(Endpoint endpoint, String id) throws IOException {
+
+		final Request.Builder request = new Request.Builder().header("Authorization", authorization);
+		switch (endpoint) {
+		case READ:
+			return request.url(BASE_URL + "/customers/" + id).get().build();
+		case LIST:
+			return request.url(BASE_URL + "/customers").get().build();
+		case CREATE:
+			return request.url(BASE_URL + "/customers").post(body(SampleCustomers.customer(0))).build();
+		case UPDATE:
+			final Customer customer = Customer.from(SampleCustomers.customer(1))
+					.withId(new ObjectId(id))
+					.build();
+			return request.url(BASE_URL + "/customers/" + id).put(body(customer)).build();
+		default:
+			return request.url(BASE_URL + "/customers/" + id).delete().build();
+		}
+	}
+
+	private RequestBody body(Customer customer) throws IOException {
+		return RequestBody.create(JSON, objectMapper.writeValueAsBytes(customer));
+	}
+
+	private void seed(int customers) throws IOException {
+
+		for (int i = 0; i < customers; i++) {
+			try (Response response = client.newCall(new Request.Builder()
+					.url(BASE_URL + "/customers")
+					.header("Authorization", authorization)
+					.post(body(SampleCustomers.customer(i)))
+					.build()).execute()) {
+				addId(response.header("Location"));
+			}
+		}
+	}
+
+	private void reset() {
+		recorders.values().forEach(Recorder::reset);
+		errors.values().forEach(count -> count.set(0));
+	}
+
+	private void report(long elapsedNanos, long serverAllocatedBytes) throws IOException {
+
+		final File directory = new File("target/load");
+		directory.mkdirs();
+		final double seconds = elapsedNanos / 1e9;
+
+		long requests = 0;
+		System.out.printf("%-8s %10s %10s %10s %10s %10s %8s%n", "endpoint", "requests/s", "p50 ms", "p99 ms",
+				"p99.9 ms", "max ms", "errors");
+
+		for (Endpoint endpoint : Endpoint.values()) {
+
+			final Histogram histogram = recorders.get(endpoint).getIntervalHistogram();
+			System.out.printf("%-8s %10.1f %10.3f %10.3f %10.3f %10.3f %8d%n", endpoint.name().toLowerCase(),
+					histogram.getTotalCount() / seconds,
+					histogram.getValueAtPercentile(50) / 1000.0,
+					histogram.getValueAtPercentile(99) / 1000.0,
+					histogram.getValueAtPercentile(99.9) / 1000.0,
+					histogram.getMaxValue() / 1000.0,
+					errors.get(endpoint).get());
+
+			try (PrintStream out = new PrintStream(new File(directory, endpoint.name().toLowerCase() + ".hgrm"))) {
+				histogram.outputPercentileDistribution(out, 1000.0);
+			}
+			requests += histogram.getTotalCount();
+		}
+
+		System.out.printf("server allocation: %.1f MB/s, %d bytes per request%n",
+				serverAllocatedBytes / seconds / (1024 * 1024), serverAllocatedBytes / Math.max(1, requests));
+	}
+
+	/*
+	 * Bytes allocated so far by each live thread of the JVM but the load generator's (main and
+	 * OkHttp threads). A thread ending during the run is not counted.
+	 */
+	private static Map<Long, Long> serverAllocatedBytes() {
+
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+		final Map<Long, Long> allocated = new HashMap<>();
+		for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+			if (thread != null && !thread.getThreadName().startsWith("OkHttp")
+					&& thread.getThreadId() != Thread.currentThread().getId()) {
+				allocated.put(thread.getThreadId(), threads.getThreadAllocatedBytes(thread.getThreadId()));
+			}
+		}
+		return allocated;
+	}
+
+	private static long allocatedBytesSince(Map<Long, Long> before) {
+
+		long allocated = 0;
+		for (Map.Entry<Long, Long> thread : serverAllocatedBytes().entrySet()) {
+			allocated += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+		}
+		return allocated;
+	}
+
+	private String randomId(Endpoint endpoint) {
+
+		synchronized (ids) {
+			if (ids.isEmpty()) {
+				return null;
+			}
+			final int index = ThreadLocalRandom.current().nextInt(ids.size());
+			if (endpoint != Endpoint.DELETE) {
+				return ids.get(index);
+			}
+			/* Swap remove, the customer won't be picked again */
+			final String id = ids.get(index);
+			ids.set(index, ids.get(ids.size() - 1));
+			ids.remove(ids.size() - 1);
+			return id;
+		}
+	}
+
+	private void addId(String location) {
+		if (location != null) {
+			synchronized (ids) {
+				ids.add(location.substring(location.lastIndexOf('/') + 1));
+			}
+		}
+	}
+
+	private static Endpoint[] parseMix(String mix) {
+
+		final List<Endpoint> weighted = new ArrayList<>();
+		for (String entry : mix.split(",")) {
+			final String[] weight = entry.trim().split(":");
+			final Endpoint endpoint = Endpoint.valueOf(weight[0].trim().toUpperCase());
+			for (int i = Integer.parseInt(weight[1].trim()); i > 0; i--) {
+				weighted.add(endpoint);
+			}
+		}
+		return weighted.toArray(new Endpoint[weighted.size()]);
+	}
+
+	private static String accessToken() throws IOException {
+
+		final Request request = new Request.Builder()
+				.url(BASE_URL + "/oauth/token")
+				.header("Authorization", Credentials.basic("clientId", "clientSecret"))
+				.post(new FormBody.Builder().add("grant_type", "client_credentials").build())
+				.build();
+
+		try (Response response = new OkHttpClient().newCall(request).execute()) {
+			return new ObjectMapper().readTree(response.body().string()).get("access_token").asText();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package customerservice.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import customerservice.CustomerService;
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerRepository;
+
+/**
+ * Decode, encode and round trip throughput of the hand-written customer converters against the
+ * reflective {@code MappingMongoConverter}.
+ * <p>
+ * The documents are stored in and read back from the embedded MongoDB started by the application
+ * context so both converters work on what the driver really hands over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CustomerConverterBenchmark {
+
+	@Param({ "1000" })
+	private int customerCount;
+
+	private ConfigurableApplicationContext context;
+
+	private MongoConverter handWritten;
+	private MongoConverter reflective;
+
+	private List<Document> documents;
+	private List<Customer> customers;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		context = new SpringApplicationBuilder(CustomerService.class).web(WebApplicationType.NONE).run();
+
+		final CustomerRepository repo = context.getBean(CustomerRepository.class);
+		final ReactiveMongoTemplate template = context.getBean(ReactiveMongoTemplate.class);
+
+		repo.deleteAll().block();
+		for (int i = 0; i < customerCount; i++) {
+			repo.save(SampleCustomers.customer(i)).block();
+		}
+
+		documents = template.findAll(Document.class, template.getCollectionName(Customer.class)).collectList().block();
+		customers = repo.findAll().collectList().block();
+
+		handWritten = template.getConverter();
+		reflective = reflectiveConverter();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void decodeHandWritten(Blackhole blackhole) {
+		for (Document document : documents) {
+			blackhole.consume(handWritten.read(Customer.class, document));
+		}
+	}
+
+	@Benchmark
+	public void decodeReflective(Blackhole blackhole) {
+		for (Document document : documents) {
+			blackhole.consume(reflective.read(Customer.class, document));
+		}
+	}
+
+	@Benchmark
+	public void encodeHandWritten(Blackhole blackhole) {
+		for (Customer customer : customers) {
+			final Document document = new Document();
+			handWritten.write(customer, document);
+			blackhole.consume(document);
+		}
+	}
+
+	@Benchmark
+	public void encodeReflective(Blackhole blackhole) {
+		for (Customer customer : customers) {
+			final Document document = new Document();
+			reflective.write(customer, document);
+			blackhole.consume(document);
+		}
+	}
+
+	@Benchmark
+	public void roundTripHandWritten(Blackhole blackhole) {
+		for (Customer customer : customers) {
+			final Document document = new Document();
+			handWritten.write(customer, document);
+			blackhole.consume(handWritten.read(Customer.class, document));
+		}
+	}
+
+	@Benchmark
+	public void roundTripReflective(Blackhole blackhole) {
+		for (Customer customer : customers) {
+			final Document document = new Document();
+			reflective.write(customer, document);
+			blackhole.consume(reflective.read(Customer.class, document));
+		}
+	}
+
+	/**
+	 * A converter set up like the one Spring Boot creates, minus the custom conversions.
+	 */
+	private static MongoConverter reflectiveConverter() {
+
+		final MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+
+		final MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+
+		final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		return converter;
+	}
+}
@@ -0,0 +1,66 @@
+package customerservice.benchmark;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import customerservice.domain.Address;
+import customerservice.domain.Customer;
+import customerservice.domain.enums.PhoneType;
+
+/**
+ * Prints the average retained heap per {@code Customer}.
+ * <p>
+ * Customers are built the way they come out of the database or a JSON payload: every string is a
+ * distinct instance even when the value repeats. Run with a fixed heap to limit noise, e.g.:<br>
+ * {@code mvn -Pdefault,benchmark test-compile exec:exec -Dexec.args="-Xms2g -Xmx2g -classpath %classpath customerservice.benchmark.CustomerFootprint"}
+ */
+public class CustomerFootprint {
+
+	private static final int CUSTOMERS = 1_000_000;
+	private static final String[] COUNTRIES = { "Canada", "France", "Japan", "Shadaloo" };
+	private static final String[] CITIES = { "Montreal", "Paris", "Tokyo", "Shadaloo City", "Quebec", "Lyon" };
+
+	public static void main(String[] args) {
+
+		final long before = usedHeap();
+
+		final Customer[] customers = new Customer[CUSTOMERS];
+		for (int i = 0; i < CUSTOMERS; i++) {
+			customers[i] = customer(i);
+		}
+
+		final long after = usedHeap();
+
+		System.out.printf("%d customers, %d bytes per customer%n", customers.length,
+				(after - before) / customers.length);
+	}
+
+	private static Customer customer(int i) {
+		return Customer.ofType(PERSON)
+				.withFirstName(new String("Ken"))
+				.withLastName("Masters" + i)
+				.withBirthDate(LocalDate.of(1990, Month.MARCH, 16))
+				.withAddress(Address.ofCountry(new String(COUNTRIES[i % COUNTRIES.length]))
+						.withStreetNumber(i)
+						.withStreetName("Bison street " + i)
+						.withCity(new String(CITIES[i % CITIES.length]))
+						.withStateOrProvince(new String("Province"))
+						.withZipcode(String.valueOf(100000 + i))
+						.build())
+				.withPhone(PhoneType.HOME, String.valueOf(5550000000L + i))
+				.withPhone(PhoneType.CELLULAR, String.valueOf(5560000000L + i))
+				.withEmail("customer" + i + "@streetf.com")
+				.build();
+	}
+
+	private static long usedHeap() {
+
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,90 @@
+package customerservice.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import customerservice.domain.Customer;
+
+/**
+ * Jackson encoding and decoding of a single customer and of customer lists, the payloads of
+ * {@code GET /customers/{id}} and {@code GET /customers}.
+ * <p>
+ * The object mapper is set up like the one of the service, without the pretty printing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+	@Param({ "1", "1000", "100000" })
+	private int customerCount;
+
+	private ObjectWriter listWriter;
+	private ObjectReader listReader;
+	private ObjectWriter writer;
+	private ObjectReader reader;
+
+	private Customer customer;
+	private List<Customer> customers;
+	private byte[] customerJson;
+	private byte[] customersJson;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		listWriter = objectMapper.writerFor(new TypeReference<List<Customer>>() {
+		});
+		listReader = objectMapper.readerFor(new TypeReference<List<Customer>>() {
+		});
+		writer = objectMapper.writerFor(Customer.class);
+		reader = objectMapper.readerFor(Customer.class);
+
+		customer = SampleCustomers.customer(0);
+		customers = SampleCustomers.customers(customerCount);
+		customerJson = writer.writeValueAsBytes(customer);
+		customersJson = listWriter.writeValueAsBytes(customers);
+	}
+
+	@Benchmark
+	public byte[] encodeOne() throws IOException {
+		return writer.writeValueAsBytes(customer);
+	}
+
+	@Benchmark
+	public Customer decodeOne() throws IOException {
+		return reader.readValue(customerJson);
+	}
+
+	@Benchmark
+	public byte[] encodeList() throws IOException {
+		return listWriter.writeValueAsBytes(customers);
+	}
+
+	@Benchmark
+	public List<Customer> decodeList() throws IOException {
+		return listReader.readValue(customersJson);
+	}
+}
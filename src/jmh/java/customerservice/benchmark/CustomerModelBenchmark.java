@@ -0,0 +1,60 @@
+package customerservice.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import customerservice.domain.Customer;
+import customerservice.domain.enums.PhoneType;
+
+/**
+ * Cost of building, copying and reading customers, the operations done for every customer going
+ * through the service.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CustomerModelBenchmark {
+
+	private Customer customer;
+	private int i;
+
+	@Setup
+	public void setUp() {
+		customer = SampleCustomers.customer(0);
+	}
+
+	@Benchmark
+	public Customer build() {
+		return SampleCustomers.customer(i++);
+	}
+
+	/**
+	 * What an update does: copy a stored customer and change one field.
+	 */
+	@Benchmark
+	public Customer from() {
+		return Customer.from(customer).withEmail("ken@streetf.com").build();
+	}
+
+	@Benchmark
+	public void getPhones(Blackhole blackhole) {
+		for (Map.Entry<PhoneType, String> phone : customer.getPhones().entrySet()) {
+			blackhole.consume(phone.getValue());
+		}
+	}
+}
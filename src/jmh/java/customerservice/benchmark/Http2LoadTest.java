@@ -0,0 +1,200 @@
+package customerservice.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import customerservice.CustomerService;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.FormBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Compares HTTP/1.1 and HTTP/2 on the {@code tls} profile.
+ * <ul>
+ * <li>Connection setup: average time of a first request on a new connection, over TLS with a full
+ * handshake, over TLS with a resumed session and in clear text.</li>
+ * <li>Throughput: {@code GET /customers} sent by 64 concurrent callers for 10 seconds, HTTP/1.1
+ * opens a connection per concurrent request while h2 multiplexes them over one connection.</li>
+ * </ul>
+ * Run with:<br>
+ * {@code mvn -Pdefault,benchmark test-compile exec:exec -Dexec.args="-classpath %classpath customerservice.benchmark.Http2LoadTest"}
+ * <p>
+ * h2 over TLS needs ALPN, i.e. JDK 9+ (or 8u252+).
+ */
+public class Http2LoadTest {
+
+	private static final int HTTP_PORT = 18080;
+	private static final int HTTPS_PORT = 18443;
+
+	private static final int CONNECTIONS = 500;
+	private static final int CONCURRENCY = 64;
+	private static final long DURATION_SECONDS = 10;
+
+	private static final List<Protocol> HTTP_1_1 = Collections.singletonList(Protocol.HTTP_1_1);
+	private static final List<Protocol> H2 = Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
+	private static final List<Protocol> H2C = Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE);
+
+	public static void main(String[] args) throws Exception {
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerService.class)
+				.profiles("tls")
+				.run("--server.port=" + HTTP_PORT, "--tls.port=" + HTTPS_PORT, "--oauth2.rate-limit.enabled=false")) {
+
+			final String token = accessToken();
+			final String https = "https://127.0.0.1:" + HTTPS_PORT + "/customers";
+			final String http = "http://127.0.0.1:" + HTTP_PORT + "/customers";
+
+			System.out.println("Connection setup (ms per new connection)");
+			final SSLContext shared = trustingSslContext();
+			System.out.printf("  HTTP/1.1 TLS full handshake   %.3f%n", setup(https, HTTP_1_1, token, null));
+			System.out.printf("  HTTP/1.1 TLS resumed session  %.3f%n", setup(https, HTTP_1_1, token, shared));
+			System.out.printf("  h2 TLS full handshake         %.3f%n", setup(https, H2, token, null));
+			System.out.printf("  h2 TLS resumed session        %.3f%n", setup(https, H2, token, shared));
+			System.out.printf("  HTTP/1.1 clear text           %.3f%n", setup(http, HTTP_1_1, token, shared));
+			System.out.printf("  h2c clear text                %.3f%n", setup(http, H2C, token, shared));
+
+			System.out.println("Throughput (requests/s, " + CONCURRENCY + " concurrent callers)");
+			System.out.printf("  HTTP/1.1 TLS                  %.0f%n", throughput(https, HTTP_1_1, token));
+			System.out.printf("  h2 TLS                        %.0f%n", throughput(https, H2, token));
+			System.out.printf("  HTTP/1.1 clear text           %.0f%n", throughput(http, HTTP_1_1, token));
+			System.out.printf("  h2c clear text                %.0f%n", throughput(http, H2C, token));
+		}
+	}
+
+	/**
+	 * A new client, hence a new connection, per request. Without a shared SSL context every
+	 * connection performs a full handshake.
+	 */
+	private static double setup(String url, List<Protocol> protocols, String token, SSLContext shared)
+			throws Exception {
+
+		long total = 0;
+		for (int i = 0; i < CONNECTIONS; i++) {
+			final OkHttpClient client = client(protocols, shared == null ? trustingSslContext() : shared,
+					new ConnectionPool());
+			final long start = System.nanoTime();
+			try (Response response = client.newCall(get(url, token)).execute()) {
+				response.body().bytes();
+			}
+			total += System.nanoTime() - start;
+			client.connectionPool().evictAll();
+		}
+		return total / 1e6 / CONNECTIONS;
+	}
+
+	private static double throughput(String url, List<Protocol> protocols, String token) throws Exception {
+
+		final OkHttpClient client = client(protocols, trustingSslContext(), new ConnectionPool(CONCURRENCY, 1,
+				TimeUnit.MINUTES));
+		final AtomicLong completed = new AtomicLong();
+		final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+		final CountDownLatch done = new CountDownLatch(CONCURRENCY);
+
+		final Callback callback = new Callback() {
+
+			@Override
+			public void onResponse(Call call, Response response) throws IOException {
+				try (Response r = response) {
+					r.body().bytes();
+				}
+				completed.incrementAndGet();
+				next(call);
+			}
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				next(call);
+			}
+
+			private void next(Call call) {
+				if (System.nanoTime() < end) {
+					client.newCall(call.request()).enqueue(this);
+				} else {
+					done.countDown();
+				}
+			}
+		};
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < CONCURRENCY; i++) {
+			client.newCall(get(url, token)).enqueue(callback);
+		}
+		done.await();
+		return completed.get() / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private static OkHttpClient client(List<Protocol> protocols, SSLContext sslContext, ConnectionPool pool)
+			throws GeneralSecurityException, IOException {
+
+		final Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequests(CONCURRENCY);
+		dispatcher.setMaxRequestsPerHost(CONCURRENCY);
+
+		return new OkHttpClient.Builder()
+				.protocols(protocols)
+				.sslSocketFactory(sslContext.getSocketFactory(), trustManager())
+				.hostnameVerifier((hostname, session) -> true)
+				.connectionPool(pool)
+				.dispatcher(dispatcher)
+				.build();
+	}
+
+	private static Request get(String url, String token) {
+		return new Request.Builder().url(url).header("Authorization", "Bearer " + token).build();
+	}
+
+	private static String accessToken() throws IOException {
+
+		final Request request = new Request.Builder()
+				.url("http://127.0.0.1:" + HTTP_PORT + "/oauth/token")
+				.header("Authorization", Credentials.basic("clientId", "clientSecret"))
+				.post(new FormBody.Builder().add("grant_type", "client_credentials").build())
+				.build();
+
+		try (Response response = new OkHttpClient().newCall(request).execute()) {
+			return new ObjectMapper().readTree(response.body().string()).get("access_token").asText();
+		}
+	}
+
+	/* The service certificate is self-signed, trust the service keystore */
+	private static SSLContext trustingSslContext() throws GeneralSecurityException, IOException {
+		final SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(null, new X509TrustManager[] { trustManager() }, null);
+		return sslContext;
+	}
+
+	private static X509TrustManager trustManager() throws GeneralSecurityException, IOException {
+
+		final KeyStore trustStore = KeyStore.getInstance("JKS");
+		try (InputStream in = Http2LoadTest.class.getResourceAsStream("/servicestore.jks")) {
+			trustStore.load(in, "qwerty".toCharArray());
+		}
+		final TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		factory.init(trustStore);
+		return (X509TrustManager) factory.getTrustManagers()[0];
+	}
+}
@@ -0,0 +1,47 @@
+package customerservice.benchmark;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+import customerservice.domain.Address;
+import customerservice.domain.Customer;
+import customerservice.domain.enums.PhoneType;
+
+/**
+ * Customers shared by the benchmarks, fully populated.
+ */
+final class SampleCustomers {
+
+	private SampleCustomers() {
+	}
+
+	static Customer customer(int i) {
+		return Customer.ofType(PERSON)
+				.withFirstName("Ken" + i)
+				.withLastName("Masters")
+				.withBirthDate(LocalDate.of(1990, Month.MARCH, 16))
+				.withAddress(Address.ofCountry("Shadaloo")
+						.withStreetNumber(i)
+						.withStreetName("Bison street")
+						.withCity("Shadaloo City")
+						.withZipcode("123456")
+						.build())
+				.withPhone(PhoneType.HOME, "111111111")
+				.withPhone(PhoneType.CELLULAR, "222222222")
+				.withEmail("kmasters@streetf.com")
+				.build();
+	}
+
+	static List<Customer> customers(int count) {
+
+		final List<Customer> customers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			customers.add(customer(i));
+		}
+		return customers;
+	}
+}
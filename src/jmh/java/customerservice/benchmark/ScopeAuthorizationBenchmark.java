@@ -0,0 +1,89 @@
+package customerservice.benchmark;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.expression.OAuth2MethodSecurityExpressionHandler;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import customerservice.oauth2.ScopeRules;
+import customerservice.oauth2.Scopes;
+import customerservice.oauth2.VerifiedToken;
+import customerservice.restapi.CustomerController;
+
+/**
+ * Cost of a scope check: the precompiled {@link ScopeRules} against the SpEL evaluation of
+ * {@code @PreAuthorize("#oauth2.hasAnyScope(...)")} done by {@code OAuth2MethodSecurityExpressionHandler}
+ * on every call (the expression itself is parsed once, like Spring Security does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ScopeAuthorizationBenchmark {
+
+	private static final String PATH = "/customers/" + ObjectId.get();
+
+	private OAuth2MethodSecurityExpressionHandler expressionHandler;
+	private Expression expression;
+	private MethodInvocation invocation;
+	private OAuth2Authentication authentication;
+
+	private ScopeRules scopeRules;
+	private VerifiedToken verifiedToken;
+
+	@Setup
+	public void setUp() throws Exception {
+
+		final OAuth2Request request = new OAuth2Request(emptyMap(), "clientId", emptyList(), true,
+				new HashSet<>(Arrays.asList("read")), emptySet(), null, emptySet(), emptyMap());
+		authentication = new OAuth2Authentication(request, null);
+
+		expressionHandler = new OAuth2MethodSecurityExpressionHandler();
+		expression = expressionHandler.getExpressionParser()
+				.parseExpression("#oauth2.hasAnyScope('read','write','read-write')");
+		final Method method = CustomerController.class.getMethod("oneCustomer", ObjectId.class, boolean.class);
+		invocation = new SimpleMethodInvocation(null, method, ObjectId.get());
+
+		final Scopes scopes = new Scopes("read", "write", "read-write");
+		scopeRules = ScopeRules.fromHandlers(scopes, CustomerController.class);
+		verifiedToken = new VerifiedToken(authentication, scopes.granted(request.getScope()), Long.MAX_VALUE);
+	}
+
+	@Benchmark
+	public boolean spel() {
+		final EvaluationContext context = expressionHandler.createEvaluationContext(authentication, invocation);
+		return ExpressionUtils.evaluateAsBoolean(expression, context);
+	}
+
+	@Benchmark
+	public boolean precompiled() {
+		return verifiedToken.hasAnyScope(scopeRules.requiredScopes(HttpMethod.GET, PATH));
+	}
+}
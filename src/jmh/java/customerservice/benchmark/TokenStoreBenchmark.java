@@ -0,0 +1,105 @@
+package customerservice.benchmark;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import customerservice.CustomerService;
+import customerservice.oauth2.mongodb.MongoClientDetailsService;
+import customerservice.oauth2.mongodb.MongoTokenStore;
+
+/**
+ * Throughput of the MongoDB backed OAuth2 stores: token issuance (signing and recording the token),
+ * token lookup and client lookup with and without the client cache.
+ * <p>
+ * The stores are taken from the application context started on the embedded MongoDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TokenStoreBenchmark {
+
+	private static final String CLIENT_ID = "clientId";
+
+	private ConfigurableApplicationContext context;
+
+	private MongoClientDetailsService clientDetailsService;
+	private MongoTokenStore tokenStore;
+	private DefaultTokenServices tokenServices;
+
+	private OAuth2Authentication authentication;
+	private String accessToken;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		context = new SpringApplicationBuilder(CustomerService.class).web(WebApplicationType.NONE).run();
+
+		clientDetailsService = context.getBean(MongoClientDetailsService.class);
+		tokenStore = context.getBean(MongoTokenStore.class);
+
+		tokenServices = new DefaultTokenServices();
+		tokenServices.setTokenStore(tokenStore);
+		tokenServices.setTokenEnhancer(context.getBean(JwtAccessTokenConverter.class));
+		tokenServices.setClientDetailsService(clientDetailsService);
+
+		final OAuth2Request request = new OAuth2Request(emptyMap(), CLIENT_ID, emptyList(), true,
+				new HashSet<>(Arrays.asList("read", "write")), emptySet(), null, emptySet(), emptyMap());
+		authentication = new OAuth2Authentication(request, null);
+		accessToken = tokenServices.createAccessToken(authentication).getValue();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public OAuth2AccessToken issueToken() {
+		return tokenServices.createAccessToken(authentication);
+	}
+
+	@Benchmark
+	public OAuth2Authentication readToken() {
+		return tokenStore.readAuthentication(accessToken);
+	}
+
+	@Benchmark
+	public ClientDetails loadClientCached() {
+		return clientDetailsService.loadClientByClientId(CLIENT_ID);
+	}
+
+	@Benchmark
+	public ClientDetails loadClientFromMongo() {
+		return clientDetailsService.findClient(CLIENT_ID).block();
+	}
+}
@@ -0,0 +1,82 @@
+package customerservice.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import customerservice.tracing.Span;
+import customerservice.tracing.Tracer;
+import customerservice.tracing.Tracing;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cost of tracing a request made of a verification and two repository calls: not traced at all,
+ * traced with sampling off (the production default) and sampled, spans being dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+	private Tracer off;
+	private Tracer sampled;
+
+	@Setup
+	public void setUp() {
+		off = new Tracer(0, span -> {
+		});
+		sampled = new Tracer(1, span -> {
+		});
+	}
+
+	@Benchmark
+	public String untraced() {
+		return request().block();
+	}
+
+	@Benchmark
+	public String samplingOff() {
+		return traced(off);
+	}
+
+	@Benchmark
+	public String sampled() {
+		return traced(sampled);
+	}
+
+	private static String traced(Tracer tracer) {
+
+		final Span root = tracer.startTrace("http.request");
+		final Mono<String> request = Mono.defer(TracingOverheadBenchmark::tracedRequest);
+		if (root == null) {
+			return request.block();
+		}
+		return request.doFinally(signal -> root.end())
+			.subscriberContext(context -> context.put(Span.class, root))
+			.block();
+	}
+
+	private static Mono<String> request() {
+		return Mono.just("token")
+			.flatMap(token -> Mono.just("customer"))
+			.flatMap(customer -> Mono.just(customer + "-saved"));
+	}
+
+	private static Mono<String> tracedRequest() {
+		return Tracing.span("oauth2.verify", Mono.just("token"))
+			.flatMap(token -> Tracing.span("repository.findById", Mono.just("customer")))
+			.flatMap(customer -> Tracing.span("repository.save", Mono.just(customer + "-saved")));
+	}
+}
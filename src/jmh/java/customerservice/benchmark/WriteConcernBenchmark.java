@@ -0,0 +1,67 @@
+package customerservice.benchmark;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import customerservice.CustomerService;
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+
+/**
+ * Throughput of the customer inserts with each write concern profile of {@code application.properties},
+ * against the embedded MongoDB started by the application context.
+ * <p>
+ * On a single embedded node majority is one acknowledgement and the journal is off, the profiles
+ * mostly differ by the acknowledgement; run it against a replica set to see the replication and
+ * journal costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WriteConcernBenchmark {
+
+	@Param({ CustomerWrites.DEFAULT_PROFILE, "interactive", "bulk", "unacknowledged" })
+	private String profile;
+
+	private ConfigurableApplicationContext context;
+	private CustomerWrites writes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(CustomerService.class).web(WebApplicationType.NONE).run();
+		writes = context.getBean(CustomerWrites.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(CustomerRepository.class).deleteAll().block();
+		context.close();
+	}
+
+	@Benchmark
+	public Customer insert() {
+		return writes.save(Customer.ofType(PERSON).withFirstName("Ken").withLastName("Masters").build(), profile).block();
+	}
+}
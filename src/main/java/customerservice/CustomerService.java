@@ -2,10 +2,14 @@ package customerservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
-@SpringBootApplication
-@EnableReactiveMongoRepositories
+/*
+ * The OAuth2 resource server is BearerTokenAuthenticationWebFilter, not the reactive Spring Security
+ * default (HTTP Basic with a generated password)
+ */
+@SpringBootApplication(excludeName = {
+		"org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration",
+		"org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration" })
 public class CustomerService {
 
 	public static void main(String[] args) {
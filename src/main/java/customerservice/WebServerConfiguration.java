@@ -0,0 +1,28 @@
+package customerservice;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the embedded server runtime with the property {@code webserver.runtime}.
+ * <p>
+ * Undertow (the default) encodes responses into heap buffers allocated for each response. With
+ * {@code webserver.runtime=netty} the service runs on Reactor Netty instead, responses are then
+ * encoded by Jackson straight into the pooled direct buffers of the Netty channel allocator, no
+ * intermediate byte array is created.
+ */
+@Configuration
+public class WebServerConfiguration {
+
+	/**
+	 * Declaring the factory makes Spring Boot back off from its own server
+	 * auto-configuration which would pick Undertow otherwise.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "webserver.runtime", havingValue = "netty")
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
@@ -0,0 +1,34 @@
+package customerservice.accesslog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "access-log.enabled", matchIfMissing = true)
+public class AccessLogConfiguration {
+
+	@Value("${access-log.buffer-size:8192}")
+	private int bufferSize;
+
+	@Value("${access-log.sample-rate:1.0}")
+	private double sampleRate;
+
+	@Bean
+	public AsyncAccessLog asyncAccessLog(MeterRegistry registry) {
+		return new AsyncAccessLog(bufferSize, sampleRate, registry);
+	}
+
+	@Bean
+	public AccessLogWebFilter accessLogWebFilter(AsyncAccessLog asyncAccessLog) {
+		return new AccessLogWebFilter(asyncAccessLog);
+	}
+
+	@Bean
+	public static MongoTimingPostProcessor mongoTimingPostProcessor() {
+		return new MongoTimingPostProcessor();
+	}
+}
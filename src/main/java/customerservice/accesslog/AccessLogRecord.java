@@ -0,0 +1,28 @@
+package customerservice.accesslog;
+
+/**
+ * A slot of the {@link AccessLogRingBuffer}, allocated once and overwritten on every lap.
+ * <p>
+ * The fields are written by the producer that claimed the slot then published with a volatile
+ * write of the sequence, the consumer reads them only after reading that sequence.
+ */
+final class AccessLogRecord {
+
+	long timestamp;
+	String method;
+	String path;
+	String clientId;
+	int status;
+	long latencyNanos;
+	long mongoNanos;
+
+	private volatile long sequence = -1;
+
+	void publish(long sequence) {
+		this.sequence = sequence;
+	}
+
+	long sequence() {
+		return sequence;
+	}
+}
@@ -0,0 +1,91 @@
+package customerservice.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated {@link AccessLogRecord}.
+ * <p>
+ * Producers claim a sequence with a CAS and never wait: when the consumer is a whole lap behind the
+ * record is dropped instead.
+ */
+final class AccessLogRingBuffer {
+
+	private final AccessLogRecord[] slots;
+	private final int mask;
+
+	private final AtomicLong head = new AtomicLong();
+	private volatile long tail;
+
+	/**
+	 * @param capacity
+	 *            The number of slots, rounded up to a power of two
+	 */
+	AccessLogRingBuffer(int capacity) {
+
+		final int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.slots = new AccessLogRecord[size];
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++) {
+			slots[i] = new AccessLogRecord();
+		}
+	}
+
+	int capacity() {
+		return slots.length;
+	}
+
+	/**
+	 * @return false if the buffer is full and the record was dropped
+	 */
+	boolean offer(long timestamp, String method, String path, String clientId, int status, long latencyNanos,
+			long mongoNanos) {
+
+		long sequence;
+		do {
+			sequence = head.get();
+			if (sequence - tail >= slots.length) {
+				return false;
+			}
+		} while (!head.compareAndSet(sequence, sequence + 1));
+
+		final AccessLogRecord record = slots[(int) sequence & mask];
+		record.timestamp = timestamp;
+		record.method = method;
+		record.path = path;
+		record.clientId = clientId;
+		record.status = status;
+		record.latencyNanos = latencyNanos;
+		record.mongoNanos = mongoNanos;
+		record.publish(sequence);
+		return true;
+	}
+
+	/**
+	 * Hand the published records over to the consumer, in order. Only one thread may drain.
+	 *
+	 * @param consumer
+	 *            Called for each record, the record must not be kept
+	 * @param max
+	 *            The maximum number of records to drain
+	 * @return The number of records drained
+	 */
+	int drain(Consumer<AccessLogRecord> consumer, int max) {
+
+		long sequence = tail;
+		int drained = 0;
+		while (drained < max) {
+			final AccessLogRecord record = slots[(int) sequence & mask];
+			if (record.sequence() != sequence) {
+				break;
+			}
+			consumer.accept(record);
+			record.path = null;
+			record.clientId = null;
+			sequence++;
+			drained++;
+		}
+		tail = sequence;
+		return drained;
+	}
+}
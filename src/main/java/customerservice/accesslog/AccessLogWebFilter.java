@@ -0,0 +1,78 @@
+package customerservice.accesslog;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.oauth2.BearerTokenAuthenticationWebFilter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Record every request in the {@link AsyncAccessLog}, it runs first so the latency covers the
+ * whole chain including authentication and rate limiting.
+ */
+public class AccessLogWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+	/** Status of the exchanges cancelled by the client before a status was set */
+	public static final int UNKNOWN_STATUS = 0;
+
+	private final AsyncAccessLog accessLog;
+
+	public AccessLogWebFilter(AsyncAccessLog accessLog) {
+		this.accessLog = accessLog;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final long start = System.nanoTime();
+		final MongoTime mongoTime = new MongoTime();
+
+		return chain.filter(exchange)
+			.subscriberContext(context -> context.put(MongoTime.class, mongoTime))
+			.doFinally(signal -> {
+
+				final OAuth2Authentication authentication = exchange
+						.getAttribute(BearerTokenAuthenticationWebFilter.AUTHENTICATION_ATTRIBUTE);
+
+				accessLog.log(exchange.getRequest().getMethod().name(),
+						exchange.getRequest().getPath().value(),
+						authentication == null ? null : authentication.getOAuth2Request().getClientId(),
+						status(exchange, signal),
+						System.nanoTime() - start,
+						mongoTime.getNanos());
+			});
+	}
+
+	/**
+	 * The HTTP status of a finished exchange: the status set on the response, otherwise 200 (the
+	 * server default) when the chain completed, 500 when it failed (the error handlers run after
+	 * the filters) and {@link #UNKNOWN_STATUS} when it was cancelled.
+	 */
+	public static int status(ServerWebExchange exchange, SignalType signal) {
+
+		final HttpStatus status = exchange.getResponse().getStatusCode();
+		if (status != null) {
+			return status.value();
+		}
+		switch (signal) {
+		case ON_COMPLETE:
+			return HttpStatus.OK.value();
+		case ON_ERROR:
+			return HttpStatus.INTERNAL_SERVER_ERROR.value();
+		default:
+			return UNKNOWN_STATUS;
+		}
+	}
+}
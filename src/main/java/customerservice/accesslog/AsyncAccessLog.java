@@ -0,0 +1,168 @@
+package customerservice.accesslog;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Structured access log written off the request threads.
+ * <p>
+ * {@code log(...)} only copies the fields of the request into a preallocated
+ * {@link AccessLogRingBuffer} slot, a background thread drains the buffer, formats one JSON line per
+ * record and hands it to the {@value #LOGGER_NAME} logger. Requests never wait for the log: when the
+ * writer falls a whole buffer behind new records are dropped and counted.
+ * <p>
+ * Successful requests are sampled with {@code sampleRate}, errors (HTTP 4xx and 5xx) are always
+ * logged.
+ * <p>
+ * Published metrics:
+ * <ul>
+ * <li>access.log: records tagged with result (logged, dropped, skipped by sampling)</li>
+ * </ul>
+ * Example:<br>
+ * {@code {"ts":"2017-09-30T12:00:00.123Z","method":"GET","path":"/customers","client":"clientId","status":200,"latency_ms":2.481,"mongo_ms":1.902}}
+ */
+public class AsyncAccessLog implements AutoCloseable {
+
+	public static final String LOGGER_NAME = "access";
+
+	private static final int DRAIN_BATCH = 256;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+
+	private final AccessLogRingBuffer buffer;
+	private final double sampleRate;
+
+	private final Counter logged;
+	private final Counter dropped;
+	private final Counter skipped;
+
+	private final StringBuilder line = new StringBuilder(256);
+
+	private final Thread writer;
+	private volatile boolean running = true;
+
+	public AsyncAccessLog(int bufferSize, double sampleRate, MeterRegistry registry) {
+		this.buffer = new AccessLogRingBuffer(bufferSize);
+		this.sampleRate = sampleRate;
+		this.logged = registry.counter("access.log", "result", "logged");
+		this.dropped = registry.counter("access.log", "result", "dropped");
+		this.skipped = registry.counter("access.log", "result", "skipped");
+		this.writer = new Thread(this::drainLoop, "access-log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Queue a request for the log, never blocks.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the request
+	 * @param clientId
+	 *            The OAuth2 client, null for anonymous requests
+	 * @param status
+	 *            The HTTP status of the response, 0 when unknown (the client went away first)
+	 * @param latencyNanos
+	 *            The time spent serving the request
+	 * @param mongoNanos
+	 *            The time spent waiting for MongoDB
+	 */
+	public void log(String method, String path, String clientId, int status, long latencyNanos, long mongoNanos) {
+
+		if (status > 0 && status < 400 && sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			skipped.increment();
+			return;
+		}
+
+		if (!buffer.offer(System.currentTimeMillis(), method, path, clientId, status, latencyNanos, mongoNanos)) {
+			dropped.increment();
+		}
+	}
+
+	/**
+	 * Stop the writer once the queued records are written.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		running = false;
+		writer.join(TimeUnit.SECONDS.toMillis(5));
+	}
+
+	private void drainLoop() {
+
+		while (running) {
+			if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+		while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+			/* Flush what was queued before closing */
+		}
+	}
+
+	private void write(AccessLogRecord record) {
+
+		logged.increment();
+		if (!logger.isInfoEnabled()) {
+			return;
+		}
+
+		line.setLength(0);
+		line.append("{\"ts\":\"").append(Instant.ofEpochMilli(record.timestamp))
+			.append("\",\"method\":\"").append(record.method)
+			.append("\",\"path\":\"");
+		appendEscaped(record.path);
+		line.append("\",\"client\":");
+		if (record.clientId == null) {
+			line.append("null");
+		} else {
+			line.append('"');
+			appendEscaped(record.clientId);
+			line.append('"');
+		}
+		line.append(",\"status\":").append(record.status)
+			.append(",\"latency_ms\":");
+		appendMillis(record.latencyNanos);
+		line.append(",\"mongo_ms\":");
+		appendMillis(record.mongoNanos);
+		line.append('}');
+
+		logger.info(line.toString());
+	}
+
+	private void appendEscaped(String value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				line.append('\\');
+			}
+			line.append(c < 0x20 ? ' ' : c);
+		}
+	}
+
+	/* Milliseconds with 3 decimals */
+	private void appendMillis(long nanos) {
+
+		final long micros = nanos / 1000;
+		line.append(micros / 1000).append('.');
+		final long fraction = micros % 1000;
+		if (fraction < 100) {
+			line.append('0');
+		}
+		if (fraction < 10) {
+			line.append('0');
+		}
+		line.append(fraction);
+	}
+}
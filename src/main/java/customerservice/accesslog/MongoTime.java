@@ -0,0 +1,60 @@
+package customerservice.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time a request spent waiting for MongoDB.
+ * <p>
+ * The {@link AccessLogWebFilter} puts a {@code MongoTime} in the Reactor {@code Context} of each
+ * request, the repository calls made while serving the request add their duration to it.
+ */
+public final class MongoTime {
+
+	private final AtomicLong nanos = new AtomicLong();
+
+	public long getNanos() {
+		return nanos.get();
+	}
+
+	void add(long elapsedNanos) {
+		nanos.addAndGet(elapsedNanos);
+	}
+
+	/**
+	 * @param mono
+	 *            A MongoDB operation
+	 * @return The operation, its duration from subscription to termination is added to the
+	 *         {@code MongoTime} of the Reactor {@code Context} if any
+	 */
+	public static <T> Mono<T> timed(Mono<T> mono) {
+
+		return Mono.subscriberContext().flatMap(context -> {
+			final MongoTime time = context.getOrDefault(MongoTime.class, null);
+			if (time == null) {
+				return mono;
+			}
+			final long start = System.nanoTime();
+			return mono.doFinally(signal -> time.add(System.nanoTime() - start));
+		});
+	}
+
+	/**
+	 * @param flux
+	 *            A MongoDB operation
+	 * @return The operation, see {@link #timed(Mono)}
+	 */
+	public static <T> Flux<T> timed(Flux<T> flux) {
+
+		return Mono.subscriberContext().flatMapMany(context -> {
+			final MongoTime time = context.getOrDefault(MongoTime.class, null);
+			if (time == null) {
+				return flux;
+			}
+			final long start = System.nanoTime();
+			return flux.doFinally(signal -> time.add(System.nanoTime() - start));
+		});
+	}
+}
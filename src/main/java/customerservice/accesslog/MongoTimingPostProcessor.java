@@ -0,0 +1,37 @@
+package customerservice.accesslog;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds the duration of the reactive repository operations to the {@link MongoTime} of the
+ * request, see {@link MongoTime#timed(Mono)}.
+ */
+public class MongoTimingPostProcessor implements BeanPostProcessor {
+
+	private static final MethodInterceptor TIMING = invocation -> {
+
+		final Object result = invocation.proceed();
+		if (result instanceof Mono) {
+			return MongoTime.timed((Mono<?>) result);
+		}
+		if (result instanceof Flux) {
+			return MongoTime.timed((Flux<?>) result);
+		}
+		return result;
+	};
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+		if (bean instanceof ReactiveCrudRepository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+			((Advised) bean).addAdvice(TIMING);
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,31 @@
+package customerservice.blocking;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Opt-in sampling of the event loops in production ({@code blocking-detector.enabled=true}), the
+ * tests use an instrumenting agent instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blocking-detector.enabled", havingValue = "true")
+public class BlockingDetectorConfiguration {
+
+	@Value("${blocking-detector.sample-period-ms:100}")
+	private long samplePeriodMillis;
+
+	@Value("${blocking-detector.thread-pattern:" + EventLoopThreads.DEFAULT_PATTERN + "}")
+	private String threadPattern;
+
+	@Bean
+	public EventLoopBlockingSampler eventLoopBlockingSampler(MeterRegistry registry) {
+		return new EventLoopBlockingSampler(new EventLoopThreads(threadPattern), Duration.ofMillis(samplePeriodMillis),
+				registry);
+	}
+}
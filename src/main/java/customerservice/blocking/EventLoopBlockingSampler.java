@@ -0,0 +1,149 @@
+package customerservice.blocking;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Production mode of the blocking call detection: samples the stacks of the event loop threads and
+ * reports the ones caught blocking, nothing is instrumented and nothing fails.
+ * <p>
+ * Every {@code period} the stacks of the event loop threads are captured, an event loop is blocking
+ * when it is waiting on a lock, parked or sleeping, or when its top frame is a blocking native I/O
+ * call. An idle event loop waits for I/O in its selector which is not reported. The first sample of
+ * each distinct stack is logged with the stack trace, the following ones are only counted. Calls
+ * shorter than {@code period} are caught in proportion to their duration.
+ * <p>
+ * Published metrics:
+ * <ul>
+ * <li>eventloop.blocking.samples: samples catching an event loop blocking</li>
+ * </ul>
+ */
+public class EventLoopBlockingSampler implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EventLoopBlockingSampler.class);
+
+	private static final int MAX_DEPTH = 32;
+	private static final int MAX_REPORTED_STACKS = 1000;
+
+	/* Natives blocking the calling thread, the selector natives are not listed */
+	private static final String[] BLOCKING_NATIVES = { "java.net.SocketInputStream.socketRead0",
+			"java.net.SocketOutputStream.socketWrite0", "java.io.FileInputStream.readBytes",
+			"java.io.FileOutputStream.writeBytes", "java.io.RandomAccessFile.readBytes",
+			"java.io.RandomAccessFile.writeBytes", "java.net.PlainSocketImpl.socketConnect",
+			"java.net.Inet6AddressImpl.lookupAllHostAddr", "java.net.Inet4AddressImpl.lookupAllHostAddr" };
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final ConcurrentHashMap<String, Boolean> reportedStacks = new ConcurrentHashMap<>();
+
+	private final EventLoopThreads eventLoops;
+	private final long periodMillis;
+	private final Counter samples;
+
+	private final Thread sampler;
+	private volatile boolean running = true;
+
+	public EventLoopBlockingSampler(EventLoopThreads eventLoops, Duration period, MeterRegistry registry) {
+		this.eventLoops = eventLoops;
+		this.periodMillis = period.toMillis();
+		this.samples = registry.counter("eventloop.blocking.samples");
+		this.sampler = new Thread(this::sampleLoop, "eventloop-blocking-sampler");
+		this.sampler.setDaemon(true);
+		this.sampler.start();
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		sampler.interrupt();
+	}
+
+	private void sampleLoop() {
+
+		long[] eventLoopIds = new long[0];
+		int round = 0;
+
+		while (running) {
+			try {
+				/* New event loops are rare, look for them every 100 samples only */
+				if (round++ % 100 == 0) {
+					eventLoopIds = eventLoopIds();
+				}
+				if (eventLoopIds.length > 0) {
+					sample(threads.getThreadInfo(eventLoopIds, MAX_DEPTH));
+				}
+				Thread.sleep(periodMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.warn("Event loop sampling failed: {}", e.getMessage());
+			}
+		}
+	}
+
+	private long[] eventLoopIds() {
+
+		return Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds(), 0))
+			.filter(info -> info != null && eventLoops.isEventLoop(info.getThreadName()))
+			.mapToLong(ThreadInfo::getThreadId)
+			.toArray();
+	}
+
+	void sample(ThreadInfo[] infos) {
+
+		for (ThreadInfo info : infos) {
+			if (info == null || !isBlocking(info)) {
+				continue;
+			}
+
+			samples.increment();
+			final String stack = stack(info);
+			if (reportedStacks.size() < MAX_REPORTED_STACKS && reportedStacks.putIfAbsent(stack, Boolean.TRUE) == null) {
+				LOGGER.warn("Blocking call on event loop {} ({}):{}", info.getThreadName(), info.getThreadState(), stack);
+			}
+		}
+	}
+
+	static boolean isBlocking(ThreadInfo info) {
+
+		switch (info.getThreadState()) {
+		case BLOCKED:
+		case WAITING:
+		case TIMED_WAITING:
+			return true;
+		case RUNNABLE:
+			final StackTraceElement[] stack = info.getStackTrace();
+			if (stack.length == 0 || !stack[0].isNativeMethod()) {
+				return false;
+			}
+			final String frame = stack[0].getClassName() + '.' + stack[0].getMethodName();
+			for (String blocking : BLOCKING_NATIVES) {
+				if (blocking.equals(frame)) {
+					return true;
+				}
+			}
+			return false;
+		default:
+			return false;
+		}
+	}
+
+	private static String stack(ThreadInfo info) {
+
+		final StringBuilder stack = new StringBuilder();
+		for (StackTraceElement frame : info.getStackTrace()) {
+			stack.append("\n\tat ").append(frame);
+		}
+		return stack.toString();
+	}
+}
@@ -0,0 +1,28 @@
+package customerservice.blocking;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes the threads that must never block: the I/O threads of the embedded servers, Undertow
+ * (XNIO) and Reactor Netty.
+ */
+public final class EventLoopThreads implements Predicate<Thread> {
+
+	public static final String DEFAULT_PATTERN = "XNIO-\\d+ I/O-\\d+|reactor-http-(nio|epoll|kqueue)-\\d+";
+
+	private final Pattern pattern;
+
+	public EventLoopThreads(String pattern) {
+		this.pattern = Pattern.compile(pattern);
+	}
+
+	@Override
+	public boolean test(Thread thread) {
+		return isEventLoop(thread.getName());
+	}
+
+	public boolean isEventLoop(String threadName) {
+		return pattern.matcher(threadName).matches();
+	}
+}
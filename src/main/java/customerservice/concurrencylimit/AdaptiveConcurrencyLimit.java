@@ -0,0 +1,131 @@
+package customerservice.concurrencylimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit adapting to the latency of the requests, gradient algorithm.
+ * <p>
+ * The latency of the completed requests is averaged over windows of {@code windowSize} samples and
+ * compared to a long-term average: when requests get slower than usual they are queueing somewhere
+ * (MongoDB, the event loops) and the limit shrinks by the ratio of both, down to half per window.
+ * When latency is stable the limit grows by its square root, only while the service is actually
+ * using at least half of it.
+ * <p>
+ * Acquiring a permit is a compare-and-set on the in-flight count, the limit itself is recomputed
+ * by a single thread once per window.
+ */
+public class AdaptiveConcurrencyLimit {
+
+	private static final double SMOOTHING = 0.2;
+	private static final double LONG_RTT_DECAY = 0.05;
+	private static final double MIN_GRADIENT = 0.5;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder rttSum = new LongAdder();
+	private final AtomicInteger samples = new AtomicInteger();
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final int windowSize;
+
+	private volatile double limit;
+	/* Racy by design, an approximate peak is enough */
+	private volatile int peakInFlight;
+	private double longRttNanos;
+
+	/**
+	 * @param initialLimit
+	 *            The limit until latency has been measured
+	 * @param minLimit
+	 *            The lowest limit
+	 * @param maxLimit
+	 *            The highest limit
+	 * @param windowSize
+	 *            The number of samples between two updates of the limit
+	 */
+	public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+
+		if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit || windowSize < 1) {
+			throw new IllegalArgumentException("Limits must verify 1 <= min <= initial <= max and the window must be positive.");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.windowSize = windowSize;
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * @return true if a permit was acquired, it must then be released once the request is done
+	 */
+	public boolean tryAcquire() {
+
+		for (;;) {
+			final int current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				if (current >= peakInFlight) {
+					peakInFlight = current + 1;
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release a permit of a completed request and sample its latency.
+	 *
+	 * @param rttNanos
+	 *            The latency of the request
+	 */
+	public void release(long rttNanos) {
+
+		inFlight.decrementAndGet();
+		rttSum.add(rttNanos);
+		if (samples.incrementAndGet() == windowSize) {
+			update();
+		}
+	}
+
+	/**
+	 * Release a permit without sampling, the request was cancelled or failed before completing.
+	 */
+	public void releaseWithoutSample() {
+		inFlight.decrementAndGet();
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	private synchronized void update() {
+
+		final int peak = peakInFlight;
+		peakInFlight = 0;
+		final int count = samples.getAndSet(0);
+		final double rttNanos = (double) rttSum.sumThenReset() / Math.max(1, count);
+
+		if (longRttNanos == 0) {
+			longRttNanos = rttNanos;
+			return;
+		}
+		longRttNanos = longRttNanos * (1 - LONG_RTT_DECAY) + rttNanos * LONG_RTT_DECAY;
+		/* Recover faster once the latency has dropped back */
+		if (rttNanos < longRttNanos) {
+			longRttNanos = rttNanos;
+		}
+
+		final double current = limit;
+		final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / rttNanos));
+		final double growth = peak >= current / 2 ? Math.sqrt(current) : 0;
+		final double target = current * gradient + growth;
+
+		limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+	}
+}
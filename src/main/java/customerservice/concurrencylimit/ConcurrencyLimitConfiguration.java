@@ -0,0 +1,37 @@
+package customerservice.concurrencylimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+	@Value("${concurrency-limit.read.initial:100}")
+	private int readInitial;
+
+	@Value("${concurrency-limit.read.max:1000}")
+	private int readMax;
+
+	@Value("${concurrency-limit.write.initial:50}")
+	private int writeInitial;
+
+	@Value("${concurrency-limit.write.max:500}")
+	private int writeMax;
+
+	@Value("${concurrency-limit.min:4}")
+	private int min;
+
+	@Value("${concurrency-limit.window-size:100}")
+	private int windowSize;
+
+	@Bean
+	public ConcurrencyLimitWebFilter concurrencyLimitWebFilter(MeterRegistry registry) {
+		return new ConcurrencyLimitWebFilter(new AdaptiveConcurrencyLimit(readInitial, min, readMax, windowSize),
+				new AdaptiveConcurrencyLimit(writeInitial, min, writeMax, windowSize), registry);
+	}
+}
@@ -0,0 +1,100 @@
+package customerservice.concurrencylimit;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.oauth2.ScopeRules;
+import customerservice.ratelimit.ClientRateLimitWebFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Shed the requests to {@code /customers} exceeding the {@link AdaptiveConcurrencyLimit}, they are
+ * rejected right away with HTTP 503 instead of queueing.
+ * <p>
+ * GET and HEAD requests use the read limit, the other methods the write limit. The path is
+ * normalized like the handler mapping does, see {@link ScopeRules#normalize(String)}. The filter
+ * runs after authentication and rate limiting so only legitimate requests count.
+ * <p>
+ * Published metrics, tagged with lane (read or write):
+ * <ul>
+ * <li>http.server.concurrency.limit and http.server.concurrency.in-flight</li>
+ * <li>http.server.concurrency.rejected</li>
+ * </ul>
+ */
+public class ConcurrencyLimitWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = ClientRateLimitWebFilter.ORDER + 10;
+
+	private static final String PATH = "/customers";
+
+	private final Lane read;
+	private final Lane write;
+
+	public ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+			MeterRegistry registry) {
+		this.read = new Lane("read", readLimit, registry);
+		this.write = new Lane("write", writeLimit, registry);
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final String path = ScopeRules.normalize(exchange.getRequest().getPath().value());
+		if (!path.startsWith(PATH) || (path.length() > PATH.length() && path.charAt(PATH.length()) != '/')) {
+			return chain.filter(exchange);
+		}
+
+		final HttpMethod method = exchange.getRequest().getMethod();
+		final Lane lane = method == HttpMethod.GET || method == HttpMethod.HEAD ? read : write;
+
+		if (!lane.limit.tryAcquire()) {
+			lane.rejected.increment();
+			final ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(SERVICE_UNAVAILABLE);
+			response.getHeaders().set(RETRY_AFTER, "1");
+			return response.setComplete();
+		}
+
+		final long start = System.nanoTime();
+		return chain.filter(exchange).doFinally(signal -> {
+			if (signal == SignalType.ON_COMPLETE) {
+				lane.limit.release(System.nanoTime() - start);
+			} else {
+				lane.limit.releaseWithoutSample();
+			}
+		});
+	}
+
+	private static final class Lane {
+
+		private final AdaptiveConcurrencyLimit limit;
+		private final Counter rejected;
+
+		private Lane(String name, AdaptiveConcurrencyLimit limit, MeterRegistry registry) {
+			this.limit = limit;
+			this.rejected = registry.counter("http.server.concurrency.rejected", "lane", name);
+			Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+				.tag("lane", name)
+				.register(registry);
+			Gauge.builder("http.server.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+				.tag("lane", name)
+				.register(registry);
+		}
+	}
+}
@@ -4,6 +4,7 @@ import org.springframework.http.HttpStatus;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonSetter;
 
 import customerservice.CustomerServiceException;
 
@@ -18,6 +19,9 @@ import customerservice.CustomerServiceException;
  * Example:<br>
  * {@code Address myAddress = Address.ofCountry("Canada").withStreetNumber(100).build();}<br>
  * {@code myAddress = Address.from(myAddress).withStreetNumber(200).build(); // Street number changed}
+ * <p>
+ * The city, the state or province and the country repeat across many addresses, a single shared
+ * instance of each distinct value is kept.
  *
  */
 @JsonInclude(Include.NON_NULL)
@@ -40,8 +44,20 @@ public final class Address {
 		this.streetName = streetName;
 		this.city = city;
 		this.zipcode = zipcode;
-		this.stateOrProvince = stateOrProvince;
-		this.country = country;
+		this.stateOrProvince = StringDictionary.canonical(stateOrProvince);
+		this.country = StringDictionary.canonical(country);
+	}
+
+	// Needed for Jackson deserialization of the shared strings
+
+	@JsonSetter
+	private void setStateOrProvince(String stateOrProvince) {
+		this.stateOrProvince = StringDictionary.canonical(stateOrProvince);
+	}
+
+	@JsonSetter
+	private void setCountry(String country) {
+		this.country = StringDictionary.canonical(country);
 	}
 
 	static public Builder ofCountry(String country) {
@@ -3,7 +3,8 @@ package customerservice.domain;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
 
 import javax.validation.constraints.NotNull;
@@ -15,6 +16,7 @@ import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -70,11 +72,31 @@ public final class Customer {
 		this.birthDate = birthDate;
 		this.maritalStatus = maritalStatus;
 		this.address = address;
-		this.phones = phones;
+		this.phones = unmodifiableCopyOf(phones);
 		this.email = email;
 		this.customerType = customerType;
 	}
 
+	@JsonSetter
+	private void setPhones(Map<PhoneType, String> phones) {
+		// Needed for Jackson deserialization
+		this.phones = unmodifiableCopyOf(phones);
+	}
+
+	/**
+	 * Phones are kept in an {@link EnumMap}, the most compact map for the few
+	 * values of {@link PhoneType}, wrapped once in an unmodifiable view.
+	 */
+	private static Map<PhoneType, String> unmodifiableCopyOf(Map<PhoneType, String> phones) {
+		return phones == null ? null : Collections.unmodifiableMap(copyOf(phones));
+	}
+
+	private static EnumMap<PhoneType, String> copyOf(Map<PhoneType, String> phones) {
+		final EnumMap<PhoneType, String> copy = new EnumMap<>(PhoneType.class);
+		copy.putAll(phones);
+		return copy;
+	}
+
 	public ObjectId getId() {
 		return id;
 	}
@@ -108,13 +130,12 @@ public final class Customer {
 	}
 
 	/**
-	 * Return a copy of the map so the reference does not escape.
+	 * Return an unmodifiable view of the map, the map is not copied.
 	 * 
-	 * @return A copy of the map
+	 * @return An unmodifiable map
 	 */
 	public Map<PhoneType, String> getPhones() {
-		
-		return phones == null ? phones : new HashMap<>(phones);
+		return phones;
 	}
 
 	public String getEmail() {
@@ -157,8 +178,7 @@ public final class Customer {
 		builder.address = customer.address;
 		builder.birthDate = customer.birthDate;
 		builder.email = customer.email;
-		builder.phones = customer.getPhones(); // we need a copy of the map hence
-												// the getter
+		builder.phones = customer.phones == null ? null : copyOf(customer.phones);
 		return builder;
 	}
 
@@ -171,7 +191,7 @@ public final class Customer {
 		private LocalDate birthDate;
 		private MaritalStatus maritalStatus;
 		private Address address;
-		private Map<PhoneType, String> phones;
+		private EnumMap<PhoneType, String> phones;
 		private String email;
 		private CustomerType customerType;
 
@@ -234,7 +254,7 @@ public final class Customer {
 		public Builder withPhone(PhoneType phonetype, String number) {
 			
 			if (phones == null) {
-				phones = new HashMap<>();
+				phones = new EnumMap<>(PhoneType.class);
 			}
 			
 			this.phones.put(phonetype, number);
@@ -0,0 +1,42 @@
+package customerservice.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of canonical instances for the strings with a bounded set of values: countries and
+ * states or provinces.
+ * <p>
+ * Equal strings read from the database or from JSON are new instances each time, going through
+ * the dictionary makes all customers share one instance per distinct value. Entries are never
+ * evicted, so values without a natural bound (cities, names) must not go through it. It is capped
+ * anyway, once full or for long values the string is returned as is.
+ */
+final class StringDictionary {
+
+	static final int MAX_ENTRIES = 10_000;
+	static final int MAX_LENGTH = 64;
+
+	private static final ConcurrentHashMap<String, String> ENTRIES = new ConcurrentHashMap<>();
+
+	private StringDictionary() {
+	}
+
+	static String canonical(String value) {
+
+		if (value == null || value.length() > MAX_LENGTH) {
+			return value;
+		}
+
+		final String canonical = ENTRIES.get(value);
+		if (canonical != null) {
+			return canonical;
+		}
+
+		if (ENTRIES.size() >= MAX_ENTRIES) {
+			return value;
+		}
+
+		final String previous = ENTRIES.putIfAbsent(value, value);
+		return previous == null ? value : previous;
+	}
+}
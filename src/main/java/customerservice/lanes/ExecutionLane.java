@@ -0,0 +1,200 @@
+package customerservice.lanes;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+
+import customerservice.CustomerServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded lane of MongoDB operations: at most {@code maxConcurrent} operations of the lane run at
+ * once, that is hold a pooled connection, and at most {@code maxQueued} wait for their turn.
+ * Operations arriving when the queue is full fail right away with HTTP 503.
+ * <p>
+ * Nothing blocks: a waiting operation is started by the operation releasing its permit.
+ * <p>
+ * Published metrics, tagged with lane:
+ * <ul>
+ * <li>mongodb.lane.in-use and mongodb.lane.queued</li>
+ * <li>mongodb.lane.wait: time spent in the queue</li>
+ * <li>mongodb.lane.rejected</li>
+ * </ul>
+ */
+public class ExecutionLane {
+
+	private static final int WAITING = 0;
+	private static final int RUNNING = 1;
+	private static final int CANCELLED = 2;
+
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueued;
+
+	private final AtomicInteger inUse = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+	private final Timer wait;
+	private final Counter rejected;
+
+	public ExecutionLane(String name, int maxConcurrent, int maxQueued, MeterRegistry registry) {
+
+		if (maxConcurrent < 1 || maxQueued < 0) {
+			throw new IllegalArgumentException("A lane needs at least one permit and a non-negative queue.");
+		}
+		this.name = name;
+		this.maxConcurrent = maxConcurrent;
+		this.maxQueued = maxQueued;
+		this.wait = registry.timer("mongodb.lane.wait", "lane", name);
+		this.rejected = registry.counter("mongodb.lane.rejected", "lane", name);
+		Gauge.builder("mongodb.lane.in-use", inUse, AtomicInteger::get).tag("lane", name).register(registry);
+		Gauge.builder("mongodb.lane.queued", queued, AtomicInteger::get).tag("lane", name).register(registry);
+	}
+
+	/**
+	 * @param operation
+	 *            The operation
+	 * @return The operation, run once the lane has a free permit
+	 */
+	public <T> Mono<T> execute(Mono<T> operation) {
+
+		return Mono.defer(() -> {
+			if (tryAcquire()) {
+				return operation.doFinally(signal -> release());
+			}
+			return Mono.create(sink -> enqueue(() -> operation
+				.subscriberContext(sink.currentContext())
+				.doFinally(signal -> release())
+				.subscribe(sink::success, sink::error, sink::success), sink::error, sink::onCancel));
+		});
+	}
+
+	/**
+	 * @param operation
+	 *            The operation
+	 * @return The operation, see {@link #execute(Mono)}
+	 */
+	public <T> Flux<T> execute(Flux<T> operation) {
+
+		return Flux.defer(() -> {
+			if (tryAcquire()) {
+				return operation.doFinally(signal -> release());
+			}
+			return Flux.create(sink -> enqueue(() -> operation
+				.subscriberContext(sink.currentContext())
+				.doFinally(signal -> release())
+				.subscribe(sink::next, sink::error, sink::complete), sink::error, sink::onCancel));
+		});
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getInUse() {
+		return inUse.get();
+	}
+
+	public int getQueued() {
+		return queued.get();
+	}
+
+	private boolean tryAcquire() {
+
+		for (;;) {
+			final int current = inUse.get();
+			if (current >= maxConcurrent) {
+				return false;
+			}
+			if (inUse.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void release() {
+		inUse.decrementAndGet();
+		drain();
+	}
+
+	private void enqueue(Supplier<Disposable> start, Consumer<Throwable> onRejected, Consumer<Disposable> onCancel) {
+
+		if (queued.incrementAndGet() > maxQueued) {
+			queued.decrementAndGet();
+			rejected.increment();
+			onRejected.accept(new CustomerServiceException(HttpStatus.SERVICE_UNAVAILABLE,
+					"Too many pending " + name + " operations, retry later."));
+			return;
+		}
+
+		final Waiter waiter = new Waiter(start);
+		onCancel.accept(waiter::cancel);
+		waiters.offer(waiter);
+		drain();
+	}
+
+	/*
+	 * Hand the free permits over to the waiters, re-checking the queue after each permit so a waiter
+	 * enqueued while a permit is released is never forgotten.
+	 */
+	private void drain() {
+
+		while (!waiters.isEmpty() && tryAcquire()) {
+			final Waiter waiter = waiters.poll();
+			if (waiter == null || !waiter.start()) {
+				inUse.decrementAndGet();
+			}
+		}
+	}
+
+	private final class Waiter {
+
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+		private final Supplier<Disposable> start;
+		private final long enqueuedAt = System.nanoTime();
+		private volatile Disposable running;
+
+		private Waiter(Supplier<Disposable> start) {
+			this.start = start;
+		}
+
+		private boolean start() {
+
+			if (!state.compareAndSet(WAITING, RUNNING)) {
+				return false;
+			}
+			queued.decrementAndGet();
+			wait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+			running = start.get();
+			if (state.get() == CANCELLED) {
+				running.dispose();
+			}
+			return true;
+		}
+
+		private void cancel() {
+
+			final int previous = state.getAndSet(CANCELLED);
+			if (previous == WAITING) {
+				queued.decrementAndGet();
+			} else if (previous == RUNNING) {
+				final Disposable current = running;
+				if (current != null) {
+					current.dispose();
+				}
+			}
+		}
+	}
+}
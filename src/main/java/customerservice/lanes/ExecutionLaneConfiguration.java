@@ -0,0 +1,65 @@
+package customerservice.lanes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.mongodb.connection.ConnectionPoolSettings;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Separate read and write lanes for the customer repository, so a storm of writes cannot take the
+ * connections the reads need.
+ * <p>
+ * The MongoDB connection pool is sized to the sum of the lane quotas plus
+ * {@code lanes.pool-headroom} connections for the rest of the service (OAuth2 clients and tokens,
+ * explain plans).
+ */
+@Configuration
+@ConditionalOnProperty(name = "lanes.enabled", matchIfMissing = true)
+public class ExecutionLaneConfiguration {
+
+	@Value("${lanes.read.max-concurrent:40}")
+	private int readMaxConcurrent;
+
+	@Value("${lanes.read.max-queued:1000}")
+	private int readMaxQueued;
+
+	@Value("${lanes.write.max-concurrent:10}")
+	private int writeMaxConcurrent;
+
+	@Value("${lanes.write.max-queued:200}")
+	private int writeMaxQueued;
+
+	@Value("${lanes.pool-headroom:5}")
+	private int poolHeadroom;
+
+	@Value("${lanes.pool-max-wait-ms:2000}")
+	private long poolMaxWaitMillis;
+
+	@Bean
+	public ExecutionLanes executionLanes(MeterRegistry registry) {
+		return new ExecutionLanes(new ExecutionLane("read", readMaxConcurrent, readMaxQueued, registry),
+				new ExecutionLane("write", writeMaxConcurrent, writeMaxQueued, registry));
+	}
+
+	@Bean
+	public static ExecutionLanePostProcessor executionLanePostProcessor(ObjectProvider<ExecutionLanes> lanes) {
+		return new ExecutionLanePostProcessor(lanes);
+	}
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer laneConnectionPoolCustomizer() {
+		return settings -> settings.connectionPoolSettings(ConnectionPoolSettings.builder()
+			.maxSize(readMaxConcurrent + writeMaxConcurrent + poolHeadroom)
+			.maxWaitQueueSize(readMaxQueued + writeMaxQueued)
+			.maxWaitTime(poolMaxWaitMillis, TimeUnit.MILLISECONDS)
+			.build());
+	}
+}
@@ -0,0 +1,50 @@
+package customerservice.lanes;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the reactive repository operations in their {@link ExecutionLanes lane}.
+ * <p>
+ * The lanes are looked up when the first repository is created, not with the post processor, so
+ * the meter registry they use is fully configured.
+ */
+public class ExecutionLanePostProcessor implements BeanPostProcessor {
+
+	private final ObjectProvider<ExecutionLanes> lanes;
+
+	public ExecutionLanePostProcessor(ObjectProvider<ExecutionLanes> lanes) {
+		this.lanes = lanes;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+		if (bean instanceof ReactiveCrudRepository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+			((Advised) bean).addAdvice(interceptor(lanes.getObject()));
+		}
+		return bean;
+	}
+
+	private static MethodInterceptor interceptor(ExecutionLanes lanes) {
+
+		return invocation -> {
+
+			final Object result = invocation.proceed();
+			final ExecutionLane lane = lanes.forMethod(invocation.getMethod().getName());
+			if (result instanceof Mono) {
+				return lane.execute((Mono<?>) result);
+			}
+			if (result instanceof Flux) {
+				return lane.execute((Flux<?>) result);
+			}
+			return result;
+		};
+	}
+}
@@ -0,0 +1,35 @@
+package customerservice.lanes;
+
+/**
+ * The read and write lanes of the customer repository.
+ */
+public class ExecutionLanes {
+
+	private final ExecutionLane read;
+	private final ExecutionLane write;
+
+	public ExecutionLanes(ExecutionLane read, ExecutionLane write) {
+		this.read = read;
+		this.write = write;
+	}
+
+	/**
+	 * @param methodName
+	 *            The name of a repository method
+	 * @return The read lane for queries ({@code find*}, {@code exists*}, {@code count*}), the write
+	 *         lane otherwise
+	 */
+	public ExecutionLane forMethod(String methodName) {
+		return methodName.startsWith("find") || methodName.startsWith("exists") || methodName.startsWith("count")
+				? read
+				: write;
+	}
+
+	public ExecutionLane getRead() {
+		return read;
+	}
+
+	public ExecutionLane getWrite() {
+		return write;
+	}
+}
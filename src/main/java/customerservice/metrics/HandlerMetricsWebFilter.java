@@ -0,0 +1,126 @@
+package customerservice.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.accesslog.AccessLogWebFilter;
+import customerservice.oauth2.BearerTokenAuthenticationWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time the requests and publish them as the {@value #METRIC} timer, tagged with:
+ * <ul>
+ * <li>route: the pattern of the handler mapping, e.g. /customers/{id}, or NONE when no handler was
+ * reached (the request was rejected before)</li>
+ * <li>method and status, UNKNOWN when the client went away before a status was set</li>
+ * <li>client: the OAuth2 client, or none</li>
+ * </ul>
+ * Timers publish a percentile histogram plus the p50, p99 and p99.9. They are registered on the
+ * first request of a route, method, status and client then looked up in a map, recording is a few
+ * atomic increments.
+ */
+public class HandlerMetricsWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = AccessLogWebFilter.ORDER + 1;
+
+	public static final String METRIC = "http.server.handler";
+
+	private static final String NONE = "NONE";
+
+	private static final String UNKNOWN = "UNKNOWN";
+
+	private final ConcurrentHashMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+	private final MeterRegistry registry;
+
+	public HandlerMetricsWebFilter(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final long start = System.nanoTime();
+
+		return chain.filter(exchange).doFinally(signal -> {
+
+			final Object route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			final OAuth2Authentication authentication = exchange
+					.getAttribute(BearerTokenAuthenticationWebFilter.AUTHENTICATION_ATTRIBUTE);
+			final int status = AccessLogWebFilter.status(exchange, signal);
+
+			timer(new TimerKey(route == null ? NONE : route.toString(),
+					exchange.getRequest().getMethod().name(),
+					status,
+					authentication == null ? NONE : authentication.getOAuth2Request().getClientId()))
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		});
+	}
+
+	Timer timer(TimerKey key) {
+
+		final Timer timer = timers.get(key);
+		return timer != null ? timer : timers.computeIfAbsent(key, this::register);
+	}
+
+	private Timer register(TimerKey key) {
+		return Timer.builder(METRIC)
+				.tags("route", key.route, "method", key.method,
+						"status", key.status == AccessLogWebFilter.UNKNOWN_STATUS ? UNKNOWN : String.valueOf(key.status),
+						"client", key.clientId)
+				.publishPercentiles(0.5, 0.99, 0.999)
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	static final class TimerKey {
+
+		private final String route;
+		private final String method;
+		private final int status;
+		private final String clientId;
+		private final int hash;
+
+		TimerKey(String route, String method, int status, String clientId) {
+			this.route = route;
+			this.method = method;
+			this.status = status;
+			this.clientId = clientId;
+			this.hash = ((route.hashCode() * 31 + method.hashCode()) * 31 + status) * 31 + clientId.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TimerKey)) {
+				return false;
+			}
+			final TimerKey other = (TimerKey) obj;
+			return status == other.status
+					&& route.equals(other.route)
+					&& method.equals(other.method)
+					&& clientId.equals(other.clientId);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package customerservice.metrics;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Latency metrics of the HTTP handlers and of the MongoDB commands, published on the actuator
+ * metrics endpoint. Comparing {@value HandlerMetricsWebFilter#METRIC} and {@code mongodb.command}
+ * tells whether a latency spike comes from the service or from the database.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public HandlerMetricsWebFilter handlerMetricsWebFilter(MeterRegistry registry) {
+		return new HandlerMetricsWebFilter(registry);
+	}
+
+	@Bean
+	public MongoCommandMetrics mongoCommandMetrics(MeterRegistry registry) {
+		return new MongoCommandMetrics(registry);
+	}
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics) {
+		return settings -> settings.addCommandListener(mongoCommandMetrics);
+	}
+}
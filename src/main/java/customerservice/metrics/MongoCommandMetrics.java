@@ -0,0 +1,169 @@
+package customerservice.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.io.ByteBufferBsonInput;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * MongoDB driver listener publishing, for each command (find, insert, update...):
+ * <ul>
+ * <li>mongodb.command: latency as seen by the driver, tagged with command and status</li>
+ * <li>mongodb.command.documents: documents returned by queries or affected by writes</li>
+ * <li>mongodb.command.bytes: size of the responses</li>
+ * </ul>
+ * The meters of a command are created on its first execution then looked up in a map. The
+ * documents are counted by walking the raw bytes of the response: the returned batch is skipped
+ * over document by document, never decoded.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+	private final ConcurrentHashMap<String, CommandMeters> meters = new ConcurrentHashMap<>();
+
+	private final MeterRegistry registry;
+
+	public MongoCommandMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+
+		final CommandMeters commandMeters = meters(event.getCommandName());
+		commandMeters.succeeded.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+		final BsonDocument response = event.getResponse();
+		if (response == null) {
+			return;
+		}
+		commandMeters.documents.record(documents(response));
+		if (response instanceof RawBsonDocument) {
+			commandMeters.bytes.record(((RawBsonDocument) response).getByteBuffer().remaining());
+		}
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		meters(event.getCommandName()).failed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+	}
+
+	private CommandMeters meters(String commandName) {
+		return meters.computeIfAbsent(commandName, name -> new CommandMeters(registry, name));
+	}
+
+	/* cursor.firstBatch or cursor.nextBatch for queries, n for writes */
+	static int documents(BsonDocument response) {
+
+		if (response instanceof RawBsonDocument) {
+			return documents((RawBsonDocument) response);
+		}
+
+		final BsonValue cursor = response.get("cursor");
+		if (cursor != null && cursor.isDocument()) {
+			final BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+					? cursor.asDocument().get("firstBatch")
+					: cursor.asDocument().get("nextBatch");
+			return batch instanceof BsonArray ? ((BsonArray) batch).size() : 0;
+		}
+
+		final BsonValue n = response.get("n");
+		return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+	}
+
+	/* Same as above without decoding: RawBsonDocument.get would materialize the whole batch */
+	private static int documents(RawBsonDocument response) {
+
+		try (BsonBinaryReader reader = new BsonBinaryReader(new ByteBufferBsonInput(response.getByteBuffer()))) {
+			reader.readStartDocument();
+			while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+				final String name = reader.readName();
+				if ("cursor".equals(name) && reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+					return batchSize(reader);
+				}
+				if ("n".equals(name)) {
+					switch (reader.getCurrentBsonType()) {
+					case INT32:
+						return reader.readInt32();
+					case INT64:
+						return (int) reader.readInt64();
+					case DOUBLE:
+						return (int) reader.readDouble();
+					default:
+						return 0;
+					}
+				}
+				reader.skipValue();
+			}
+			return 0;
+		}
+	}
+
+	private static int batchSize(BsonBinaryReader reader) {
+
+		reader.readStartDocument();
+		while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+			final String name = reader.readName();
+			if (("firstBatch".equals(name) || "nextBatch".equals(name))
+					&& reader.getCurrentBsonType() == BsonType.ARRAY) {
+				int count = 0;
+				reader.readStartArray();
+				while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+					reader.skipValue();
+					count++;
+				}
+				return count;
+			}
+			reader.skipValue();
+		}
+		return 0;
+	}
+
+	private static final class CommandMeters {
+
+		private final Timer succeeded;
+		private final Timer failed;
+		private final DistributionSummary documents;
+		private final DistributionSummary bytes;
+
+		private CommandMeters(MeterRegistry registry, String command) {
+			this.succeeded = timer(registry, command, "success");
+			this.failed = timer(registry, command, "failure");
+			this.documents = DistributionSummary.builder("mongodb.command.documents")
+					.tags("command", command)
+					.publishPercentileHistogram()
+					.register(registry);
+			this.bytes = DistributionSummary.builder("mongodb.command.bytes")
+					.tags("command", command)
+					.baseUnit("bytes")
+					.publishPercentileHistogram()
+					.register(registry);
+		}
+
+		private static Timer timer(MeterRegistry registry, String command, String status) {
+			return Timer.builder("mongodb.command")
+					.tags("command", command, "status", status)
+					.publishPercentiles(0.5, 0.99, 0.999)
+					.publishPercentileHistogram()
+					.register(registry);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package customerservice.oauth2;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+/**
+ * Claims of the JWT access tokens needed by the token stores.
+ */
+public final class AccessTokens {
+
+	private AccessTokens() {
+	}
+
+	/**
+	 * The id of a JWT is its jti claim, the token was issued or verified already so its claims are
+	 * read without checking the signature again.
+	 *
+	 * @param token
+	 *            An access token
+	 * @return Its id
+	 */
+	public static String tokenId(OAuth2AccessToken token) {
+
+		final Object tokenId = token.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID);
+		if (tokenId != null) {
+			return tokenId.toString();
+		}
+		final Map<String, Object> claims = JsonParserFactory.create()
+			.parseMap(JwtHelper.decode(token.getValue()).getClaims());
+		return (String) claims.get(JwtAccessTokenConverter.TOKEN_ID);
+	}
+
+	/**
+	 * Tokens without expiry are invalid: they could not be recorded nor revoked for a bounded time.
+	 *
+	 * @param token
+	 *            An access token
+	 * @return Its expiry
+	 */
+	public static Date expiresAt(OAuth2AccessToken token) {
+
+		if (token.getExpiration() == null) {
+			throw new InvalidTokenException("Access token without expiry");
+		}
+		return token.getExpiration();
+	}
+}
@@ -0,0 +1,109 @@
+package customerservice.oauth2;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.WWW_AUTHENTICATE;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.tracing.Tracing;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux OAuth2 resource server filter.
+ * <p>
+ * The bearer token of requests to protected resources is verified locally by the
+ * {@link CachingTokenServices} then the scopes of the token are checked against the precompiled
+ * {@link ScopeRules}, a bitwise intersection. Both steps are CPU only operators running on the event
+ * loop, nothing blocks and there is no thread hop.
+ * <p>
+ * The authentication of the request is available to the rest of the chain as an exchange
+ * attribute and in the Reactor {@code Context} under the key {@code OAuth2Authentication.class}.
+ * <p>
+ * Only the public paths of the {@link ScopeRules} are served without token, requests without a valid
+ * token are rejected with HTTP 401, requests with a token lacking the required scopes with HTTP 403.
+ */
+public class BearerTokenAuthenticationWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+	public static final String AUTHENTICATION_ATTRIBUTE = OAuth2Authentication.class.getName();
+
+	private static final String BEARER = "Bearer ";
+
+	private final CachingTokenServices tokenServices;
+	private final ScopeRules scopeRules;
+
+	public BearerTokenAuthenticationWebFilter(CachingTokenServices tokenServices, ScopeRules scopeRules) {
+		this.tokenServices = tokenServices;
+		this.scopeRules = scopeRules;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final ServerHttpRequest request = exchange.getRequest();
+		final long requiredScopes = scopeRules.requiredScopes(request.getMethod(), request.getPath().value());
+		if (requiredScopes == ScopeRules.UNPROTECTED) {
+			return chain.filter(exchange);
+		}
+
+		final String token = bearerToken(request);
+		if (token == null) {
+			return reject(exchange, UNAUTHORIZED, "Bearer");
+		}
+
+		return Tracing.span("oauth2.verify", Mono.fromCallable(() -> tokenServices.verify(token)))
+			.onErrorResume(BearerTokenAuthenticationWebFilter::isInvalidToken,
+				e -> reject(exchange, UNAUTHORIZED, "Bearer error=\"invalid_token\"").then(Mono.empty()))
+			.flatMap(verified -> {
+
+				if (!verified.hasAnyScope(requiredScopes)) {
+					return reject(exchange, FORBIDDEN, "Bearer error=\"insufficient_scope\"");
+				}
+
+				final OAuth2Authentication authentication = verified.getAuthentication();
+				exchange.getAttributes().put(AUTHENTICATION_ATTRIBUTE, authentication);
+				return chain.filter(exchange)
+					.subscriberContext(context -> context.put(OAuth2Authentication.class, authentication));
+			});
+	}
+
+	private static String bearerToken(ServerHttpRequest request) {
+
+		final String authorization = request.getHeaders().getFirst(AUTHORIZATION);
+		if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			return null;
+		}
+
+		final String token = authorization.substring(BEARER.length()).trim();
+		return token.isEmpty() ? null : token;
+	}
+
+	private static boolean isInvalidToken(Throwable e) {
+		return e instanceof AuthenticationException || e instanceof OAuth2Exception;
+	}
+
+	private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String challenge) {
+
+		final ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(status);
+		response.getHeaders().set(WWW_AUTHENTICATE, challenge);
+		return response.setComplete();
+	}
+}
@@ -0,0 +1,96 @@
+package customerservice.oauth2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of strings: {@code mightContain} has no false negatives and a false positive rate
+ * close to the one it was sized for as long as no more than the expected number of strings are
+ * added.
+ * <p>
+ * Strings can be added concurrently with lookups, they can't be removed: rebuild the filter
+ * instead.
+ */
+public final class BloomFilter {
+
+	private final AtomicLongArray words;
+	private final long bitCount;
+	private final int hashCount;
+
+	/**
+	 * @param expectedInsertions
+	 *            The number of strings the filter is sized for
+	 * @param falsePositiveRate
+	 *            The expected false positive rate, e.g. 0.01
+	 */
+	public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+
+		if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("Invalid Bloom filter sizing.");
+		}
+
+		final double ln2 = Math.log(2);
+		final long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+		this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+		this.bitCount = words.length() * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+	}
+
+	public void add(String value) {
+
+		final long hash1 = hash(value);
+		final long hash2 = mix(hash1);
+
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+			final int index = (int) (bit >>> 6);
+			final long mask = 1L << bit;
+
+			long word = words.get(index);
+			while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+				word = words.get(index);
+			}
+		}
+	}
+
+	/**
+	 * @param value
+	 *            A string
+	 * @return false if the string was never added, true if it probably was
+	 */
+	public boolean mightContain(String value) {
+
+		final long hash1 = hash(value);
+		final long hash2 = mix(hash1);
+
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* FNV-1a over the UTF-8 bytes, then mixed */
+	private static long hash(String value) {
+
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	/* The 64-bit finalizer of MurmurHash3 */
+	private static long mix(long hash) {
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
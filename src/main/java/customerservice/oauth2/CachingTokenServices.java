@@ -0,0 +1,180 @@
+package customerservice.oauth2;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Resource server token services keeping the authentication of verified tokens.
+ * <p>
+ * Clients reuse the same token for many calls, once a token has been verified its authentication
+ * (client id, scopes) is cached so the following requests skip the signature verification and the
+ * parsing of the token. The cache is bounded and keyed by a SHA-256 digest of the token, an entry
+ * lives at most {@code maxTtlMillis} and never beyond the expiry of its token. The scopes of the
+ * token are encoded once with {@link Scopes} and cached along.
+ * <p>
+ * Cached or not, a token is checked against the {@link RevokedTokens} on every call, an in-memory
+ * probe.
+ * <p>
+ * Published metrics:
+ * <ul>
+ * <li>oauth2.token.cache: hits and misses, tagged with result</li>
+ * <li>oauth2.token.cache.hit.ratio</li>
+ * <li>oauth2.token.verification: time spent verifying tokens on cache misses</li>
+ * </ul>
+ */
+public class CachingTokenServices implements ResourceServerTokenServices {
+
+	private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final ConcurrentHashMap<ByteBuffer, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+	private final TokenStore tokenStore;
+	private final Scopes scopes;
+	private final RevokedTokens revokedTokens;
+	private final int maxEntries;
+	private final long maxTtlMillis;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Timer verification;
+
+	public CachingTokenServices(TokenStore tokenStore, Scopes scopes, RevokedTokens revokedTokens, int maxEntries,
+			long maxTtlMillis, MeterRegistry registry) {
+		this.tokenStore = tokenStore;
+		this.scopes = scopes;
+		this.revokedTokens = revokedTokens;
+		this.maxEntries = maxEntries;
+		this.maxTtlMillis = maxTtlMillis;
+		this.hits = registry.counter("oauth2.token.cache", "result", "hit");
+		this.misses = registry.counter("oauth2.token.cache", "result", "miss");
+		this.verification = registry.timer("oauth2.token.verification");
+		Gauge.builder("oauth2.token.cache.hit.ratio", this, CachingTokenServices::hitRatio).register(registry);
+	}
+
+	@Override
+	public OAuth2Authentication loadAuthentication(String accessToken)
+			throws AuthenticationException, InvalidTokenException {
+		return verify(accessToken).getAuthentication();
+	}
+
+	/**
+	 * Verify an access token or get it from the cache.
+	 *
+	 * @param accessToken
+	 *            The value of the token
+	 * @return The verified token
+	 * @throws InvalidTokenException
+	 *             If the token is invalid, expired or revoked
+	 */
+	public VerifiedToken verify(String accessToken) throws AuthenticationException, InvalidTokenException {
+
+		final ByteBuffer key = digest(accessToken);
+		final long now = System.currentTimeMillis();
+
+		final VerifiedToken cached = verifiedTokens.get(key);
+		if (cached != null) {
+			if (now < cached.getExpiresAt()) {
+				hits.increment();
+				return notRevoked(cached);
+			}
+			verifiedTokens.remove(key, cached);
+		}
+
+		misses.increment();
+		final long start = System.nanoTime();
+		try {
+			final OAuth2AccessToken token = readAccessToken(accessToken);
+			if (token == null) {
+				throw new InvalidTokenException("Invalid access token");
+			}
+			if (token.isExpired()) {
+				throw new InvalidTokenException("Access token expired");
+			}
+
+			final OAuth2Authentication authentication = tokenStore.readAuthentication(token);
+			if (authentication == null) {
+				throw new InvalidTokenException("Invalid access token");
+			}
+
+			final VerifiedToken verified = new VerifiedToken(tokenId(token), authentication,
+					scopes.granted(authentication.getOAuth2Request().getScope()), expiresAt(token, now));
+			cache(key, verified);
+			return notRevoked(verified);
+
+		} finally {
+			verification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		return tokenStore.readAccessToken(accessToken);
+	}
+
+	/**
+	 * @return The ratio of authentications served from the cache
+	 */
+	public double hitRatio() {
+		final double total = hits.count() + misses.count();
+		return total == 0 ? 0 : hits.count() / total;
+	}
+
+	/* The token itself is a bearer credential, messages carry its id (jti) at most */
+	private VerifiedToken notRevoked(VerifiedToken verified) {
+
+		if (verified.getTokenId() != null && revokedTokens.isRevoked(verified.getTokenId())) {
+			throw new InvalidTokenException("Access token revoked: " + verified.getTokenId());
+		}
+		return verified;
+	}
+
+	private static String tokenId(OAuth2AccessToken token) {
+		final Object tokenId = token.getAdditionalInformation().get(AccessTokenConverter.JTI);
+		return tokenId == null ? null : tokenId.toString();
+	}
+
+	private long expiresAt(OAuth2AccessToken token, long now) {
+		final Date expiration = token.getExpiration();
+		final long maxExpiresAt = now + maxTtlMillis;
+		return expiration == null ? maxExpiresAt : Math.min(maxExpiresAt, expiration.getTime());
+	}
+
+	private void cache(ByteBuffer key, VerifiedToken verified) {
+
+		final Iterator<ByteBuffer> keys = verifiedTokens.keySet().iterator();
+		while (verifiedTokens.size() >= maxEntries && keys.hasNext()) {
+			keys.next();
+			keys.remove();
+		}
+		verifiedTokens.put(key, verified);
+	}
+
+	private static ByteBuffer digest(String accessToken) {
+		return ByteBuffer.wrap(SHA_256.get().digest(accessToken.getBytes(StandardCharsets.US_ASCII)));
+	}
+}
@@ -0,0 +1,147 @@
+package customerservice.oauth2;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.PRAGMA;
+import static org.springframework.http.HttpHeaders.WWW_AUTHENTICATE;
+import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED_VALUE;
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidClientException;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.exceptions.UnsupportedGrantTypeException;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestValidator;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The OAuth2 token endpoint of the client credentials grant, {@code POST /oauth/token}.
+ * <p>
+ * The client authenticates with HTTP Basic or with the {@code client_id} and
+ * {@code client_secret} form parameters, the token is issued by the same token granter and
+ * token services as the servlet {@code TokenEndpoint}. Clients are looked up in memory and the JWT
+ * is signed on the event loop, nothing blocks.
+ * <p>
+ * The path must be one of the {@code oauth2.public-paths}.
+ *
+ * @see OAuth2AuthorizationServerConfiguration
+ */
+@RestController
+public class ClientCredentialsTokenEndpoint {
+
+	private static final String BASIC = "Basic ";
+	private static final String CLIENT_SECRET = "client_secret";
+
+	private final ClientDetailsService clients;
+	private final OAuth2RequestFactory requestFactory;
+	private final TokenGranter tokenGranter;
+	private final DefaultOAuth2RequestValidator requestValidator = new DefaultOAuth2RequestValidator();
+
+	public ClientCredentialsTokenEndpoint(ClientDetailsService clients, OAuth2RequestFactory requestFactory,
+			TokenGranter tokenGranter) {
+		this.clients = clients;
+		this.requestFactory = requestFactory;
+		this.tokenGranter = tokenGranter;
+	}
+
+	/**
+	 * @param authorization
+	 *            The Basic credentials of the client, if not in the form
+	 * @return HTTP 200 with the access token, HTTP 401 if the client is not authenticated or
+	 *         HTTP 400 for any other OAuth2 error
+	 */
+	@RequestMapping(method = POST, value = "/oauth/token", consumes = APPLICATION_FORM_URLENCODED_VALUE)
+	public Mono<ResponseEntity<Object>> token(@RequestHeader(name = AUTHORIZATION, required = false) String authorization,
+			ServerWebExchange exchange) {
+
+		return exchange.getFormData()
+			.map(form -> {
+
+				final Map<String, String> parameters = form.toSingleValueMap();
+				final ClientDetails client = authenticate(authorization, parameters);
+
+				final TokenRequest tokenRequest = requestFactory.createTokenRequest(parameters, client);
+				if (tokenRequest.getGrantType() == null) {
+					throw new InvalidRequestException("Missing grant type");
+				}
+				requestValidator.validateScope(tokenRequest, client);
+
+				final OAuth2AccessToken token = tokenGranter.grant(tokenRequest.getGrantType(), tokenRequest);
+				if (token == null) {
+					throw new UnsupportedGrantTypeException("Unsupported grant type: " + tokenRequest.getGrantType());
+				}
+				return ResponseEntity.ok()
+					.header(CACHE_CONTROL, "no-store")
+					.header(PRAGMA, "no-cache")
+					.<Object> body(token);
+			})
+			.onErrorResume(OAuth2Exception.class, e -> Mono.just(error(e)));
+	}
+
+	private ClientDetails authenticate(String authorization, Map<String, String> parameters) {
+
+		String clientId = parameters.get(OAuth2Utils.CLIENT_ID);
+		String secret = parameters.get(CLIENT_SECRET);
+
+		if (authorization != null && authorization.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+			final String credentials;
+			try {
+				credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC.length()).trim()),
+						StandardCharsets.UTF_8);
+			} catch (IllegalArgumentException e) {
+				throw new InvalidClientException("Bad client credentials");
+			}
+			final int colon = credentials.indexOf(':');
+			if (colon < 0) {
+				throw new InvalidClientException("Bad client credentials");
+			}
+			clientId = credentials.substring(0, colon);
+			secret = credentials.substring(colon + 1);
+		}
+		if (clientId == null || secret == null) {
+			throw new InvalidClientException("Bad client credentials");
+		}
+
+		final ClientDetails client;
+		try {
+			client = clients.loadClientByClientId(clientId);
+		} catch (ClientRegistrationException e) {
+			throw new InvalidClientException("Bad client credentials");
+		}
+		if (client.getClientSecret() == null || !MessageDigest.isEqual(
+				client.getClientSecret().getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+			throw new InvalidClientException("Bad client credentials");
+		}
+		return client;
+	}
+
+	private static ResponseEntity<Object> error(OAuth2Exception e) {
+
+		final ResponseEntity.BodyBuilder response = ResponseEntity.status(e.getHttpErrorCode())
+			.header(CACHE_CONTROL, "no-store")
+			.header(PRAGMA, "no-cache");
+		if (e instanceof InvalidClientException) {
+			response.header(WWW_AUTHENTICATE, "Basic realm=\"oauth2/client\"");
+		}
+		return response.body(e);
+	}
+}
@@ -0,0 +1,43 @@
+package customerservice.oauth2;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.client.ClientCredentialsTokenGranter;
+import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+/**
+ * The client credentials grant of the OAuth2 authorization server, served by
+ * {@link ClientCredentialsTokenEndpoint}. {@code @EnableAuthorizationServer} is not used, it needs
+ * Spring MVC and the service runs on WebFlux.
+ * <p>
+ * The configured client is registered by the OAuth2 store configuration of the profile, in MongoDB
+ * or in memory.
+ */
+@Configuration
+public class OAuth2AuthorizationServerConfiguration {
+
+	@Bean
+	public OAuth2RequestFactory oauth2RequestFactory(ClientDetailsService clients) {
+		return new DefaultOAuth2RequestFactory(clients);
+	}
+
+	/* Issue signed JWTs instead of opaque tokens */
+	@Bean
+	public TokenGranter tokenGranter(ClientDetailsService clients, OAuth2RequestFactory requestFactory,
+			TokenStore tokenStore, JwtAccessTokenConverter accessTokenConverter) throws Exception {
+
+		final DefaultTokenServices tokenServices = new DefaultTokenServices();
+		tokenServices.setTokenStore(tokenStore);
+		tokenServices.setTokenEnhancer(accessTokenConverter);
+		tokenServices.setClientDetailsService(clients);
+		tokenServices.setSupportRefreshToken(false);
+		tokenServices.afterPropertiesSet();
+		return new ClientCredentialsTokenGranter(tokenServices, clients, requestFactory);
+	}
+}
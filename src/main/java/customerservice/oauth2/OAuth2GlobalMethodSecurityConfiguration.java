@@ -1,21 +0,0 @@
-package customerservice.oauth2;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
-import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
-import org.springframework.security.oauth2.provider.expression.OAuth2MethodSecurityExpressionHandler;
-
-@Configuration
-@EnableGlobalMethodSecurity(prePostEnabled = true)
-public class OAuth2GlobalMethodSecurityConfiguration extends GlobalMethodSecurityConfiguration {
-
-	/**
-	 * Customize the MethodSecurityExpressionHandler so we can use the SPEL
-	 * variable 'oauth2' with security annotations like @PreAuthorize
-	 */
-	@Override
-	protected MethodSecurityExpressionHandler createExpressionHandler() {
-		return new OAuth2MethodSecurityExpressionHandler();
-	}
-}
@@ -0,0 +1,41 @@
+package customerservice.oauth2;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reactive OAuth2 resource server, the bearer tokens are verified and the scopes checked by a
+ * WebFlux filter instead of the servlet based {@code @EnableResourceServer} and
+ * {@code @EnableGlobalMethodSecurity}.
+ */
+@Configuration
+public class OAuth2ResourceServerConfiguration {
+
+	@Value("${oauth2.public-paths:}")
+	private String[] publicPaths;
+
+	/**
+	 * Compile the {@link RequiredScopes} of all the controllers at startup, every other path but
+	 * {@code oauth2.public-paths} requires a token.
+	 */
+	@Bean
+	public ScopeRules scopeRules(ListableBeanFactory beanFactory, Scopes scopes) {
+
+		final String[] controllers = beanFactory.getBeanNamesForAnnotation(RestController.class);
+		final Class<?>[] handlerTypes = new Class<?>[controllers.length];
+		for (int i = 0; i < controllers.length; i++) {
+			handlerTypes[i] = beanFactory.getType(controllers[i]);
+		}
+
+		return ScopeRules.fromHandlers(scopes, handlerTypes).withPublicPaths(publicPaths);
+	}
+
+	@Bean
+	public BearerTokenAuthenticationWebFilter bearerTokenAuthenticationWebFilter(CachingTokenServices tokenServices,
+			ScopeRules scopeRules) {
+		return new BearerTokenAuthenticationWebFilter(tokenServices, scopeRules);
+	}
+}
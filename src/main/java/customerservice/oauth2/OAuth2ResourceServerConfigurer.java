@@ -1,11 +0,0 @@
-package customerservice.oauth2;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
-import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
-
-@EnableResourceServer
-@Configuration
-public class OAuth2ResourceServerConfigurer extends ResourceServerConfigurerAdapter {
-
-}
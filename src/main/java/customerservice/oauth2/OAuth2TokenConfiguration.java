@@ -0,0 +1,68 @@
+package customerservice.oauth2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Access tokens are self-contained JWTs signed with the key pair of the service keystore.
+ * <p>
+ * The authorization server signs them with the private key and the resource server verifies them
+ * locally with the public key, any instance sharing the keystore can validate tokens issued by
+ * another one and tokens survive restarts.
+ * <p>
+ * Clients, records of the issued tokens and revocations are kept in MongoDB, shared by all the
+ * instances, or in memory with the {@code log} profile.
+ */
+@Configuration
+public class OAuth2TokenConfiguration {
+
+	@Value("${oauth2.jwt.key-store}")
+	private Resource keyStore;
+
+	@Value("${oauth2.jwt.key-store-password}")
+	private String keyStorePassword;
+
+	@Value("${oauth2.jwt.key-alias}")
+	private String keyAlias;
+
+	@Value("${oauth2.scopes}")
+	private String[] scopes;
+
+	@Value("${oauth2.token-cache.max-entries:10000}")
+	private int tokenCacheMaxEntries;
+
+	@Value("${oauth2.token-cache.max-ttl-seconds:300}")
+	private long tokenCacheMaxTtlSeconds;
+
+	@Bean
+	public JwtAccessTokenConverter accessTokenConverter() {
+
+		final JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+		converter.setKeyPair(new KeyStoreKeyFactory(keyStore, keyStorePassword.toCharArray()).getKeyPair(keyAlias));
+		return converter;
+	}
+
+	@Bean
+	public Scopes scopes() {
+		return new Scopes(scopes);
+	}
+
+	/**
+	 * The resource server token services, verified tokens are cached.
+	 */
+	@Bean
+	public CachingTokenServices resourceServerTokenServices(TokenStore tokenStore, RevokedTokens revokedTokens,
+			MeterRegistry registry) {
+		return new CachingTokenServices(tokenStore, scopes(), revokedTokens, tokenCacheMaxEntries,
+				TimeUnit.SECONDS.toMillis(tokenCacheMaxTtlSeconds), registry);
+	}
+}
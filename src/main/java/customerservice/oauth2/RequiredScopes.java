@@ -0,0 +1,27 @@
+package customerservice.oauth2;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the OAuth2 scopes granting access to a handler method, a token needs any one of them.
+ * <p>
+ * The annotations are resolved once at startup into the {@link ScopeRules} route table, nothing is
+ * evaluated per call.
+ * <p>
+ * Example:<br>
+ * {@code @RequiredScopes({ "write", "read-write" })}
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiredScopes {
+
+	/**
+	 * @return The scopes granting access, any one of them is enough, at least one is required
+	 */
+	String[] value();
+}
@@ -0,0 +1,22 @@
+package customerservice.oauth2;
+
+/**
+ * The ids (jti) of the access tokens revoked before their expiry.
+ * <p>
+ * Called for every authenticated request, implementations must answer from memory.
+ */
+@FunctionalInterface
+public interface RevokedTokens {
+
+	/**
+	 * No token is ever revoked.
+	 */
+	RevokedTokens NONE = tokenId -> false;
+
+	/**
+	 * @param tokenId
+	 *            The id (jti) of an access token
+	 * @return true if the token has been revoked
+	 */
+	boolean isRevoked(String tokenId);
+}
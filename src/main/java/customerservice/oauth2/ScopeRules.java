@@ -0,0 +1,202 @@
+package customerservice.oauth2;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+/**
+ * Route table of the OAuth2 scopes granting access to the resources.
+ * <p>
+ * Use {@code ScopeRules.fromHandlers(scopes, handlerTypes)} to compile the {@link RequiredScopes}
+ * annotations of the handler methods into rules, it's done once at startup. At request time the
+ * first rule matching the method and the path of a request applies and checking the scopes of a
+ * token is a bitwise intersection.
+ * <p>
+ * Access is denied by default: a path that no rule matches requires a valid token with any of the
+ * declared scopes unless it is one of the {@link #withPublicPaths(String...) public paths}. Paths are
+ * normalized the way the handler mapping sees them before matching (percent-decoded segments,
+ * matrix parameters, duplicate and trailing slashes removed) and HEAD requests follow the GET rules.
+ */
+public final class ScopeRules {
+
+	/**
+	 * Returned for resources that are not protected.
+	 */
+	public static final long UNPROTECTED = 0L;
+
+	/**
+	 * Returned for resources without rule: any declared scope grants access.
+	 */
+	public static final long ANY_SCOPE = -1L;
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	private final Rule[] rules;
+	private final String[] publicPaths;
+
+	private ScopeRules(Rule[] rules, String[] publicPaths) {
+		this.rules = rules;
+		this.publicPaths = publicPaths;
+	}
+
+	/**
+	 * Compile the {@link RequiredScopes} annotations of the handlers, the paths
+	 * and methods are taken from their {@link RequestMapping} annotations.
+	 *
+	 * @param scopes
+	 *            The declared scopes
+	 * @param handlerTypes
+	 *            The types of the handlers (controllers)
+	 * @return The rules
+	 * @throws IllegalArgumentException
+	 *             If a handler requires an undeclared scope or no scope at all
+	 */
+	public static ScopeRules fromHandlers(Scopes scopes, Class<?>... handlerTypes) {
+
+		final List<Rule> rules = new ArrayList<>();
+
+		for (Class<?> handlerType : handlerTypes) {
+
+			final Class<?> userType = ClassUtils.getUserClass(handlerType);
+			final RequestMapping typeMapping = AnnotatedElementUtils.findMergedAnnotation(userType, RequestMapping.class);
+			final String[] typePaths = typeMapping == null || typeMapping.path().length == 0
+					? new String[] { "" }
+					: typeMapping.path();
+
+			for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userType)) {
+
+				final RequiredScopes requiredScopes = AnnotatedElementUtils.findMergedAnnotation(method, RequiredScopes.class);
+				final RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+				if (requiredScopes == null || mapping == null) {
+					continue;
+				}
+
+				if (requiredScopes.value().length == 0) {
+					throw new IllegalArgumentException(String.format(
+							"%s.%s: @RequiredScopes needs at least one scope, an empty list would make it public.",
+							userType.getSimpleName(), method.getName()));
+				}
+				final long mask = scopes.required(requiredScopes.value());
+				final String[] methodPaths = mapping.path().length == 0 ? new String[] { "" } : mapping.path();
+
+				for (String typePath : typePaths) {
+					for (String methodPath : methodPaths) {
+						rules.add(new Rule(mapping.method(), typePath + methodPath, mask));
+					}
+				}
+			}
+		}
+
+		return new ScopeRules(rules.toArray(new Rule[rules.size()]), new String[0]);
+	}
+
+	/**
+	 * @param pathPatterns
+	 *            The Ant patterns of the paths served without token, e.g. a health check
+	 * @return The same rules with these public paths
+	 */
+	public ScopeRules withPublicPaths(String... pathPatterns) {
+		return new ScopeRules(rules, pathPatterns.clone());
+	}
+
+	/**
+	 * @param method
+	 *            The method of the request
+	 * @param path
+	 *            The path of the request
+	 * @return The bits of the scopes granting access to the resource, {@link #UNPROTECTED} if
+	 *         the path is public or {@link #ANY_SCOPE} if no rule applies
+	 */
+	public long requiredScopes(HttpMethod method, String path) {
+
+		final HttpMethod effectiveMethod = method == HttpMethod.HEAD ? HttpMethod.GET : method;
+		final String normalizedPath = normalize(path);
+
+		for (Rule rule : rules) {
+			if (rule.matches(effectiveMethod) && pathMatcher.match(rule.pathPattern, normalizedPath)) {
+				return rule.scopes;
+			}
+		}
+		for (String publicPath : publicPaths) {
+			if (pathMatcher.match(publicPath, normalizedPath)) {
+				return UNPROTECTED;
+			}
+		}
+		return ANY_SCOPE;
+	}
+
+	/**
+	 * "/customers//59cb;v=1/" is "/customers/59cb" to the handler mapping.
+	 *
+	 * @param path
+	 *            The raw path of a request
+	 * @return The path the handler mapping matches: percent-decoded segments, without matrix
+	 *         parameters, duplicate or trailing slashes
+	 */
+	public static String normalize(String path) {
+
+		if (path.indexOf(';') < 0 && path.indexOf('%') < 0 && !path.contains("//")
+				&& (path.length() == 1 || !path.endsWith("/"))) {
+			return path;
+		}
+
+		final StringBuilder normalized = new StringBuilder(path.length());
+		for (String segment : StringUtils.delimitedListToStringArray(path, "/")) {
+
+			final int parameters = segment.indexOf(';');
+			final String value = parameters < 0 ? segment : segment.substring(0, parameters);
+			if (!value.isEmpty()) {
+				normalized.append('/').append(decode(value));
+			}
+		}
+		return normalized.length() == 0 ? "/" : normalized.toString();
+	}
+
+	/* An encoded slash stays within its segment */
+	private static String decode(String segment) {
+		try {
+			return StringUtils.uriDecode(segment, StandardCharsets.UTF_8).replace("/", "%2F");
+		} catch (IllegalArgumentException e) {
+			return segment;
+		}
+	}
+
+	private static final class Rule {
+
+		private final RequestMethod[] methods;
+		private final String pathPattern;
+		private final long scopes;
+
+		private Rule(RequestMethod[] methods, String pathPattern, long scopes) {
+			this.methods = methods;
+			this.pathPattern = pathPattern;
+			this.scopes = scopes;
+		}
+
+		private boolean matches(HttpMethod method) {
+
+			if (methods.length == 0) {
+				return true;
+			}
+			if (method == null) {
+				return false;
+			}
+			for (RequestMethod requestMethod : methods) {
+				if (requestMethod.name().equals(method.name())) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
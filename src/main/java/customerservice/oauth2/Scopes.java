@@ -0,0 +1,64 @@
+package customerservice.oauth2;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The OAuth2 scopes known to the service, each one is assigned a bit so a set of scopes is encoded
+ * as a {@code long} and checking scopes is a bitwise intersection.
+ */
+public final class Scopes {
+
+	private static final int MAX_SCOPES = Long.SIZE;
+
+	private final Map<String, Long> bits = new HashMap<>();
+
+	public Scopes(String... scopes) {
+
+		if (scopes.length > MAX_SCOPES) {
+			throw new IllegalArgumentException(String.format("At most %d scopes are supported.", MAX_SCOPES));
+		}
+
+		for (String scope : scopes) {
+			bits.putIfAbsent(scope, 1L << bits.size());
+		}
+	}
+
+	/**
+	 * @param scopes
+	 *            Declared scopes
+	 * @return The bits of the scopes
+	 * @throws IllegalArgumentException
+	 *             If one of the scopes is not declared
+	 */
+	public long required(String... scopes) {
+
+		long mask = 0;
+		for (String scope : scopes) {
+			final Long bit = bits.get(scope);
+			if (bit == null) {
+				throw new IllegalArgumentException(String.format("Unknown scope '%s'.", scope));
+			}
+			mask |= bit;
+		}
+		return mask;
+	}
+
+	/**
+	 * @param scopes
+	 *            The scopes granted to a token
+	 * @return The bits of the scopes, undeclared scopes are ignored
+	 */
+	public long granted(Collection<String> scopes) {
+
+		long mask = 0;
+		for (String scope : scopes) {
+			final Long bit = bits.get(scope);
+			if (bit != null) {
+				mask |= bit;
+			}
+		}
+		return mask;
+	}
+}
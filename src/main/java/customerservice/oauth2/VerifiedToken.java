@@ -0,0 +1,54 @@
+package customerservice.oauth2;
+
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+/**
+ * An access token that passed verification: its id (jti), its authentication, its scopes encoded by
+ * {@link Scopes} and the time after which it must be verified again.
+ */
+public final class VerifiedToken {
+
+	private final String tokenId;
+	private final OAuth2Authentication authentication;
+	private final long scopeMask;
+	private final long expiresAt;
+
+	public VerifiedToken(OAuth2Authentication authentication, long scopeMask, long expiresAt) {
+		this(null, authentication, scopeMask, expiresAt);
+	}
+
+	public VerifiedToken(String tokenId, OAuth2Authentication authentication, long scopeMask, long expiresAt) {
+		this.tokenId = tokenId;
+		this.authentication = authentication;
+		this.scopeMask = scopeMask;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * @return The id (jti) of the token, null if the token has none
+	 */
+	public String getTokenId() {
+		return tokenId;
+	}
+
+	public OAuth2Authentication getAuthentication() {
+		return authentication;
+	}
+
+	public long getScopeMask() {
+		return scopeMask;
+	}
+
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @param requiredScopes
+	 *            The bits of the scopes granting access
+	 * @return true if the token has at least one of the scopes
+	 */
+	public boolean hasAnyScope(long requiredScopes) {
+		return (scopeMask & requiredScopes) != 0;
+	}
+}
@@ -0,0 +1,50 @@
+package customerservice.oauth2.memory;
+
+import static java.util.Collections.singletonMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.security.oauth2.provider.client.InMemoryClientDetailsService;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+/**
+ * The OAuth2 stores of the {@code log} profile, which runs without MongoDB: the configured client
+ * is registered in memory and the revocations are local to the instance.
+ */
+@Configuration
+@Profile("log")
+public class InMemoryOAuth2StoreConfiguration {
+
+	@Value("${oauth2.clientId}")
+	private String clientId;
+
+	@Value("${oauth2.secret}")
+	private String secret;
+
+	@Value("${oauth2.scopes}")
+	private String[] scopes;
+
+	@Bean
+	public InMemoryRevokedTokens revokedTokens() {
+		return new InMemoryRevokedTokens();
+	}
+
+	@Bean
+	public InMemoryTokenStore tokenStore(JwtAccessTokenConverter accessTokenConverter) {
+		return new InMemoryTokenStore(accessTokenConverter, revokedTokens());
+	}
+
+	@Bean
+	public InMemoryClientDetailsService clientDetailsService() {
+
+		final BaseClientDetails client = new BaseClientDetails(clientId, null, String.join(",", scopes),
+				"client_credentials", null);
+		client.setClientSecret(secret);
+		final InMemoryClientDetailsService clients = new InMemoryClientDetailsService();
+		clients.setClientDetailsStore(singletonMap(clientId, client));
+		return clients;
+	}
+}
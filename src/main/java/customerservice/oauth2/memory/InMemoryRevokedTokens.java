@@ -0,0 +1,36 @@
+package customerservice.oauth2.memory;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+import customerservice.oauth2.RevokedTokens;
+
+/**
+ * Revoked access tokens of a single instance, kept in memory until their expiry and lost on
+ * restart.
+ */
+public class InMemoryRevokedTokens implements RevokedTokens {
+
+	/* Expiry of each revoked token, in milliseconds */
+	private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean isRevoked(String tokenId) {
+
+		final Long expiresAt = revoked.get(tokenId);
+		return expiresAt != null && expiresAt > System.currentTimeMillis();
+	}
+
+	/**
+	 * @param tokenId
+	 *            The id (jti) of the token
+	 * @param expiresAt
+	 *            The expiry of the token, it is forgotten afterwards
+	 */
+	public void revoke(String tokenId, Date expiresAt) {
+
+		final long now = System.currentTimeMillis();
+		revoked.values().removeIf(expiry -> expiry <= now);
+		revoked.put(tokenId, expiresAt.getTime());
+	}
+}
@@ -0,0 +1,38 @@
+package customerservice.oauth2.memory;
+
+import static customerservice.oauth2.AccessTokens.expiresAt;
+import static customerservice.oauth2.AccessTokens.tokenId;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+/**
+ * JWT token store of a single instance: tokens are validated from their signature and revoked in
+ * an {@link InMemoryRevokedTokens}, nothing is recorded.
+ */
+public class InMemoryTokenStore extends JwtTokenStore {
+
+	private final InMemoryRevokedTokens revokedTokens;
+
+	public InMemoryTokenStore(JwtAccessTokenConverter accessTokenConverter, InMemoryRevokedTokens revokedTokens) {
+		super(accessTokenConverter);
+		this.revokedTokens = revokedTokens;
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String tokenValue) {
+
+		final OAuth2AccessToken token = super.readAccessToken(tokenValue);
+		expiresAt(token);
+		return token;
+	}
+
+	/**
+	 * A JWT stays valid until it expires, removing it revokes it.
+	 */
+	@Override
+	public void removeAccessToken(OAuth2AccessToken token) {
+		revokedTokens.revoke(tokenId(token), expiresAt(token));
+	}
+}
@@ -0,0 +1,183 @@
+package customerservice.oauth2.mongodb;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * OAuth2 clients stored in the MongoDB collection {@value #COLLECTION} and shared by all the
+ * instances of the service.
+ * <p>
+ * Clients are looked up on every token request, they are mirrored in memory and the mirror is
+ * reloaded every {@code refreshPeriod} so a lookup never waits for MongoDB. A client registered on
+ * another instance is known here after at most {@code refreshPeriod}.
+ */
+public class MongoClientDetailsService implements ClientDetailsService, AutoCloseable {
+
+	static final String COLLECTION = "oauth2_clients";
+
+	private static final String ID = "_id";
+	private static final String SECRET = "secret";
+	private static final String SCOPES = "scopes";
+	private static final String GRANT_TYPES = "grantTypes";
+	private static final String ACCESS_TOKEN_VALIDITY = "accessTokenValiditySeconds";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoClientDetailsService.class);
+
+	private final Map<String, ClientDetails> clients = new ConcurrentHashMap<>();
+
+	private final ReactiveMongoTemplate template;
+
+	private Disposable refresher;
+
+	public MongoClientDetailsService(ReactiveMongoTemplate template) {
+		this.template = template;
+	}
+
+	/**
+	 * Load the clients then reload them periodically.
+	 *
+	 * @param refreshPeriod
+	 *            The period of the reloads
+	 * @return This
+	 */
+	public MongoClientDetailsService start(Duration refreshPeriod) {
+
+		refresh().block();
+
+		refresher = Flux.interval(refreshPeriod)
+			.onBackpressureDrop()
+			.concatMap(tick -> refresh().onErrorResume(e -> {
+				LOGGER.warn("OAuth2 clients not refreshed: {}", e.getMessage());
+				return Mono.empty();
+			}))
+			.subscribe();
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if (refresher != null) {
+			refresher.dispose();
+		}
+	}
+
+	/**
+	 * Called by the authorization server, answered from memory.
+	 */
+	@Override
+	public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+
+		final ClientDetails client = clients.get(clientId);
+		if (client == null) {
+			throw new NoSuchClientException("No client with requested id: " + clientId);
+		}
+		return client;
+	}
+
+	/**
+	 * @param clientId
+	 *            The id of the client
+	 * @return The client read from MongoDB, empty if it does not exist
+	 */
+	public Mono<ClientDetails> findClient(String clientId) {
+
+		return template.findOne(Query.query(Criteria.where(ID).is(clientId)), Document.class, COLLECTION)
+			.map(MongoClientDetailsService::toClientDetails)
+			.doOnNext(client -> clients.put(clientId, client));
+	}
+
+	/**
+	 * Register a client, an existing client keeps its secret and gets the scopes and grant types it
+	 * lacks. Instances starting together can register the same client.
+	 *
+	 * @param clientId
+	 *            The id of the client
+	 * @param secret
+	 *            The secret of a new client
+	 * @param scopes
+	 *            The scopes of the client
+	 * @param grantTypes
+	 *            The grant types allowed to the client
+	 * @return Completes once the client is registered
+	 */
+	public Mono<Void> register(String clientId, String secret, Collection<String> scopes,
+			Collection<String> grantTypes) {
+
+		final Update update = new Update()
+				.setOnInsert(SECRET, secret)
+				.addToSet(SCOPES).each(scopes.toArray())
+				.addToSet(GRANT_TYPES).each(grantTypes.toArray());
+
+		// Concurrent upserts of the same new _id: the one losing the insert updates on retry
+		return Mono.defer(() -> template.upsert(Query.query(Criteria.where(ID).is(clientId)), update, COLLECTION))
+			.retry(1, e -> e instanceof DuplicateKeyException)
+			.then(findClient(clientId))
+			.then();
+	}
+
+	/**
+	 * Reload a client without waiting for the next refresh, e.g. after its secret changed.
+	 *
+	 * @param clientId
+	 *            The id of the client
+	 * @return Completes once the client is reloaded
+	 */
+	public Mono<Void> reload(String clientId) {
+		return findClient(clientId)
+			.switchIfEmpty(Mono.fromRunnable(() -> clients.remove(clientId)))
+			.then();
+	}
+
+	/**
+	 * Reload all the clients.
+	 *
+	 * @return Completes once the mirror is up to date
+	 */
+	Mono<Void> refresh() {
+
+		return template.find(new Query(), Document.class, COLLECTION)
+			.map(MongoClientDetailsService::toClientDetails)
+			.collectMap(ClientDetails::getClientId)
+			.doOnNext(loaded -> {
+				clients.putAll(loaded);
+				clients.keySet().retainAll(loaded.keySet());
+			})
+			.then();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ClientDetails toClientDetails(Document document) {
+
+		final BaseClientDetails client = new BaseClientDetails();
+		client.setClientId(document.getString(ID));
+		client.setClientSecret(document.getString(SECRET));
+		client.setScope(document.get(SCOPES, List.class));
+		final List<String> grantTypes = document.get(GRANT_TYPES, List.class);
+		if (grantTypes != null) {
+			client.setAuthorizedGrantTypes(grantTypes);
+		}
+		client.setAccessTokenValiditySeconds(document.getInteger(ACCESS_TOKEN_VALIDITY));
+		return client;
+	}
+}
@@ -0,0 +1,66 @@
+package customerservice.oauth2.mongodb;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+/**
+ * Clients and records of the issued tokens are kept in MongoDB, shared by all the instances.
+ */
+@Configuration
+@Profile("!log")
+public class MongoOAuth2StoreConfiguration {
+
+	@Value("${oauth2.clientId}")
+	private String clientId;
+
+	@Value("${oauth2.secret}")
+	private String secret;
+
+	@Value("${oauth2.scopes}")
+	private String[] scopes;
+
+	@Value("${oauth2.client-cache.refresh-seconds:60}")
+	private long clientCacheRefreshSeconds;
+
+	@Value("${oauth2.revocation.expected-revocations:10000}")
+	private int expectedRevocations;
+
+	@Value("${oauth2.revocation.false-positive-rate:0.01}")
+	private double revocationFalsePositiveRate;
+
+	@Value("${oauth2.revocation.refresh-seconds:5}")
+	private long revocationRefreshSeconds;
+
+	@Bean
+	public MongoTokenStore tokenStore(JwtAccessTokenConverter accessTokenConverter, ReactiveMongoTemplate template,
+			MongoRevokedTokens revokedTokens) {
+
+		final MongoTokenStore tokenStore = new MongoTokenStore(accessTokenConverter, template, revokedTokens);
+		tokenStore.createIndexes().block();
+		return tokenStore;
+	}
+
+	@Bean
+	public MongoRevokedTokens revokedTokens(ReactiveMongoTemplate template) {
+		return new MongoRevokedTokens(template, expectedRevocations, revocationFalsePositiveRate)
+				.start(Duration.ofSeconds(revocationRefreshSeconds));
+	}
+
+	/* The configured client is registered or gets the new scopes */
+	@Bean
+	public MongoClientDetailsService clientDetailsService(ReactiveMongoTemplate template) {
+
+		final MongoClientDetailsService clients = new MongoClientDetailsService(template);
+		clients.register(clientId, secret, asList(scopes), singletonList("client_credentials")).block();
+		return clients.start(Duration.ofSeconds(clientCacheRefreshSeconds));
+	}
+}
@@ -0,0 +1,173 @@
+package customerservice.oauth2.mongodb;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import customerservice.oauth2.BloomFilter;
+import customerservice.oauth2.RevokedTokens;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Revoked access tokens kept in the MongoDB collection {@value #COLLECTION} and mirrored in memory
+ * on each instance.
+ * <p>
+ * The mirror is a Bloom filter in front of an exact map of the revoked ids: most tokens were never
+ * revoked and are cleared by the filter alone, only its positives look up the map. No request ever
+ * waits for MongoDB.
+ * <p>
+ * Every {@code refreshPeriod} the ids revoked since the last refresh, by this instance or another
+ * one, are added to the mirror. Revocations expire with their token: MongoDB drops them thanks to a
+ * TTL index and the mirror forgets them, the filter is then rebuilt from the map since a Bloom
+ * filter can't remove values. A token revoked on another instance is accepted here for at most
+ * {@code refreshPeriod}.
+ */
+public class MongoRevokedTokens implements RevokedTokens, AutoCloseable {
+
+	static final String COLLECTION = "oauth2_revoked_tokens";
+
+	private static final String ID = "_id";
+	private static final String REVOKED_AT = "revokedAt";
+	private static final String EXPIRES_AT = "expiresAt";
+
+	/* Revocations written by other instances may carry a slightly older timestamp */
+	private static final long CLOCK_SKEW_MILLIS = 30_000;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoRevokedTokens.class);
+
+	private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+	private final ReactiveMongoTemplate template;
+	private final int expectedRevocations;
+	private final double falsePositiveRate;
+
+	private volatile BloomFilter filter;
+	private int filterCapacity;
+	private volatile long lastRefresh;
+
+	private Disposable refresher;
+
+	public MongoRevokedTokens(ReactiveMongoTemplate template, int expectedRevocations, double falsePositiveRate) {
+		this.template = template;
+		this.expectedRevocations = expectedRevocations;
+		this.falsePositiveRate = falsePositiveRate;
+		this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+		this.filterCapacity = expectedRevocations;
+	}
+
+	/**
+	 * Create the TTL index, load the current revocations then refresh them periodically.
+	 *
+	 * @param refreshPeriod
+	 *            The period of the refreshes
+	 * @return This
+	 */
+	public MongoRevokedTokens start(Duration refreshPeriod) {
+
+		template.indexOps(COLLECTION).ensureIndex(new Index().on(EXPIRES_AT, ASC).expire(0)).block();
+		refresh().block();
+
+		refresher = Flux.interval(refreshPeriod)
+			.onBackpressureDrop()
+			.concatMap(tick -> refresh().onErrorResume(e -> {
+				LOGGER.warn("Revoked tokens not refreshed: {}", e.getMessage());
+				return Mono.empty();
+			}))
+			.subscribe();
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if (refresher != null) {
+			refresher.dispose();
+		}
+	}
+
+	@Override
+	public boolean isRevoked(String tokenId) {
+
+		if (!filter.mightContain(tokenId)) {
+			return false;
+		}
+
+		final Long expiresAt = revoked.get(tokenId);
+		return expiresAt != null && System.currentTimeMillis() < expiresAt;
+	}
+
+	/**
+	 * Revoke an access token, effective immediately on this instance.
+	 *
+	 * @param tokenId
+	 *            The id (jti) of the token
+	 * @param expiresAt
+	 *            The expiry of the token, the revocation is dropped after it
+	 * @return Completes once the revocation is stored
+	 */
+	public Mono<Void> revoke(String tokenId, Date expiresAt) {
+
+		mirror(tokenId, expiresAt.getTime());
+
+		final Document revocation = new Document(ID, tokenId)
+				.append(REVOKED_AT, new Date())
+				.append(EXPIRES_AT, expiresAt);
+		return template.save(revocation, COLLECTION).then();
+	}
+
+	/**
+	 * Add the revocations stored since the last refresh and forget the expired ones.
+	 *
+	 * @return Completes once the mirror is up to date
+	 */
+	Mono<Void> refresh() {
+
+		final long now = System.currentTimeMillis();
+		final Query query = Query.query(Criteria.where(REVOKED_AT).gte(new Date(lastRefresh - CLOCK_SKEW_MILLIS)));
+
+		return template.find(query, Document.class, COLLECTION)
+			.doOnNext(revocation -> mirror(revocation.getString(ID), revocation.getDate(EXPIRES_AT).getTime()))
+			.then(Mono.fromRunnable(() -> {
+				lastRefresh = now;
+				forgetExpired(now);
+			}));
+	}
+
+	private synchronized void mirror(String tokenId, long expiresAt) {
+
+		revoked.put(tokenId, expiresAt);
+		if (revoked.size() > filterCapacity) {
+			rebuildFilter();
+		} else {
+			filter.add(tokenId);
+		}
+	}
+
+	/* Under the lock of mirror(...) so a revocation renewed meanwhile is not dropped */
+	private synchronized void forgetExpired(long now) {
+
+		if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+			rebuildFilter();
+		}
+	}
+
+	private synchronized void rebuildFilter() {
+
+		filterCapacity = Math.max(expectedRevocations, revoked.size() * 2);
+		final BloomFilter rebuilt = new BloomFilter(filterCapacity, falsePositiveRate);
+		revoked.keySet().forEach(rebuilt::add);
+		filter = rebuilt;
+	}
+}
@@ -0,0 +1,105 @@
+package customerservice.oauth2.mongodb;
+
+import static customerservice.oauth2.AccessTokens.expiresAt;
+import static customerservice.oauth2.AccessTokens.tokenId;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * JWT token store keeping a record of the issued access tokens in the MongoDB collection
+ * {@value #COLLECTION}.
+ * <p>
+ * Tokens are still validated from their signature, the records are shared by all the instances and
+ * let any of them list the tokens of a client. Records expire with their token thanks to a TTL index
+ * on {@value #EXPIRES_AT}. Storing a record does not block the token request.
+ * <p>
+ * Tokens without expiry are invalid: they could not be recorded nor revoked for a bounded time.
+ */
+public class MongoTokenStore extends JwtTokenStore {
+
+	static final String COLLECTION = "oauth2_access_tokens";
+
+	static final String ID = "_id";
+	static final String CLIENT_ID = "clientId";
+	static final String SCOPES = "scopes";
+	static final String EXPIRES_AT = "expiresAt";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoTokenStore.class);
+
+	private final ReactiveMongoTemplate template;
+	private final MongoRevokedTokens revokedTokens;
+
+	public MongoTokenStore(JwtAccessTokenConverter accessTokenConverter, ReactiveMongoTemplate template,
+			MongoRevokedTokens revokedTokens) {
+		super(accessTokenConverter);
+		this.template = template;
+		this.revokedTokens = revokedTokens;
+	}
+
+	/**
+	 * Create the TTL index, documents are removed by MongoDB as soon as
+	 * {@value #EXPIRES_AT} is reached.
+	 *
+	 * @return Completes once the index exists
+	 */
+	public Mono<Void> createIndexes() {
+		return template.indexOps(COLLECTION).ensureIndex(new Index().on(EXPIRES_AT, ASC).expire(0)).then();
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String tokenValue) {
+
+		final OAuth2AccessToken token = super.readAccessToken(tokenValue);
+		expiresAt(token);
+		return token;
+	}
+
+	@Override
+	public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+
+		final Document record = new Document(ID, tokenId(token))
+				.append(CLIENT_ID, authentication.getOAuth2Request().getClientId())
+				.append(SCOPES, new ArrayList<>(token.getScope()))
+				.append(EXPIRES_AT, expiresAt(token));
+
+		template.save(record, COLLECTION)
+			.subscribe(saved -> { }, e -> LOGGER.warn("Access token record not stored: {}", e.getMessage()));
+	}
+
+	/**
+	 * A JWT stays valid until it expires, removing it revokes it.
+	 */
+	@Override
+	public void removeAccessToken(OAuth2AccessToken token) {
+
+		final String tokenId = tokenId(token);
+		revokedTokens.revoke(tokenId, expiresAt(token))
+			.then(template.remove(Query.query(Criteria.where(ID).is(tokenId)), COLLECTION))
+			.block();
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+
+		return template.find(Query.query(Criteria.where(CLIENT_ID).is(clientId)), Document.class, COLLECTION)
+			.map(record -> (OAuth2AccessToken) new RecordedAccessToken(record))
+			.collectList()
+			.block();
+	}
+}
@@ -0,0 +1,23 @@
+package customerservice.oauth2.mongodb;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+
+/**
+ * An access token rebuilt from its record, the value is the id (jti) of the token, the signed JWT
+ * itself is not stored.
+ */
+class RecordedAccessToken extends DefaultOAuth2AccessToken {
+
+	private static final long serialVersionUID = -1580437366839226153L;
+
+	@SuppressWarnings("unchecked")
+	RecordedAccessToken(Document record) {
+		super(record.getString(MongoTokenStore.ID));
+		setExpiration(record.getDate(MongoTokenStore.EXPIRES_AT));
+		setScope(new HashSet<>(record.get(MongoTokenStore.SCOPES, List.class)));
+	}
+}
@@ -0,0 +1,64 @@
+package customerservice.ratelimit;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.oauth2.BearerTokenAuthenticationWebFilter;
+import customerservice.ratelimit.ClientRateLimiter.Lane;
+import reactor.core.publisher.Mono;
+
+/**
+ * Apply the rate limits of the authenticated OAuth2 client, it must run after the
+ * {@link BearerTokenAuthenticationWebFilter}.
+ * <p>
+ * GET and HEAD requests use the read budget of the client, the other methods its write budget.
+ * Requests over budget are rejected with HTTP 429 and a Retry-After header.
+ */
+public class ClientRateLimitWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = BearerTokenAuthenticationWebFilter.ORDER + 10;
+
+	private final ClientRateLimiter rateLimiter;
+
+	public ClientRateLimitWebFilter(ClientRateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final OAuth2Authentication authentication = exchange
+				.getAttribute(BearerTokenAuthenticationWebFilter.AUTHENTICATION_ATTRIBUTE);
+		if (authentication == null) {
+			return chain.filter(exchange);
+		}
+
+		final HttpMethod method = exchange.getRequest().getMethod();
+		final Lane lane = method == HttpMethod.GET || method == HttpMethod.HEAD ? Lane.READ : Lane.WRITE;
+
+		final long wait = rateLimiter.tryAcquire(authentication.getOAuth2Request().getClientId(), lane);
+		if (wait == 0) {
+			return chain.filter(exchange);
+		}
+
+		final ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(TOO_MANY_REQUESTS);
+		response.getHeaders().set(RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+		return response.setComplete();
+	}
+}
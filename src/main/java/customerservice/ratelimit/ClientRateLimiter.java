@@ -0,0 +1,91 @@
+package customerservice.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per OAuth2 client rate limits, each client gets its own read and write {@link TokenBucket}.
+ * <p>
+ * The buckets and the counters of a client are created on its first request, afterwards checking a
+ * request is a map lookup and a compare-and-set, nothing is allocated.
+ * <p>
+ * Published metrics: oauth2.rate-limit, tagged with client, lane (read or write) and result
+ * (accepted or rejected).
+ */
+public class ClientRateLimiter {
+
+	public enum Lane {
+		READ, WRITE
+	}
+
+	private final ConcurrentHashMap<String, ClientLimits> clients = new ConcurrentHashMap<>();
+
+	private final RateLimitProperties properties;
+	private final MeterRegistry registry;
+
+	public ClientRateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+		this.properties = properties;
+		this.registry = registry;
+	}
+
+	/**
+	 * @param clientId
+	 *            The id of the OAuth2 client
+	 * @param lane
+	 *            The lane of the request
+	 * @return 0 if the request is accepted otherwise the number of nanoseconds to
+	 *         wait before retrying
+	 */
+	public long tryAcquire(String clientId, Lane lane) {
+
+		ClientLimits limits = clients.get(clientId);
+		if (limits == null) {
+			limits = clients.computeIfAbsent(clientId, this::newClientLimits);
+		}
+
+		return lane == Lane.READ ? limits.read.tryAcquire() : limits.write.tryAcquire();
+	}
+
+	private ClientLimits newClientLimits(String clientId) {
+		return new ClientLimits(clientId);
+	}
+
+	private final class ClientLimits {
+
+		private final LaneLimit read;
+		private final LaneLimit write;
+
+		private ClientLimits(String clientId) {
+			read = new LaneLimit(clientId, "read", new TokenBucket(properties.getReadPerSecond(),
+					properties.getReadBurst(), properties.getStripes()));
+			write = new LaneLimit(clientId, "write", new TokenBucket(properties.getWritePerSecond(),
+					properties.getWriteBurst(), properties.getStripes()));
+		}
+	}
+
+	private final class LaneLimit {
+
+		private final TokenBucket bucket;
+		private final Counter accepted;
+		private final Counter rejected;
+
+		private LaneLimit(String clientId, String lane, TokenBucket bucket) {
+			this.bucket = bucket;
+			this.accepted = registry.counter("oauth2.rate-limit", "client", clientId, "lane", lane, "result", "accepted");
+			this.rejected = registry.counter("oauth2.rate-limit", "client", clientId, "lane", lane, "result", "rejected");
+		}
+
+		private long tryAcquire() {
+
+			final long wait = bucket.tryAcquire();
+			if (wait == 0) {
+				accepted.increment();
+			} else {
+				rejected.increment();
+			}
+			return wait;
+		}
+	}
+}
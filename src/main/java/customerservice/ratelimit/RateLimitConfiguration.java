@@ -0,0 +1,24 @@
+package customerservice.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "oauth2.rate-limit.enabled", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+	@Bean
+	public ClientRateLimiter clientRateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+		return new ClientRateLimiter(properties, registry);
+	}
+
+	@Bean
+	public ClientRateLimitWebFilter clientRateLimitWebFilter(ClientRateLimiter clientRateLimiter) {
+		return new ClientRateLimitWebFilter(clientRateLimiter);
+	}
+}
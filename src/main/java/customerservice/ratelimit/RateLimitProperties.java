@@ -0,0 +1,69 @@
+package customerservice.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Rate limits applied to each OAuth2 client, configured with the {@code oauth2.rate-limit.*}
+ * properties.
+ */
+@ConfigurationProperties(prefix = "oauth2.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	private double readPerSecond = 1000;
+	private int readBurst = 200;
+
+	private double writePerSecond = 200;
+	private int writeBurst = 50;
+
+	private int stripes = 1;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getReadPerSecond() {
+		return readPerSecond;
+	}
+
+	public void setReadPerSecond(double readPerSecond) {
+		this.readPerSecond = readPerSecond;
+	}
+
+	public int getReadBurst() {
+		return readBurst;
+	}
+
+	public void setReadBurst(int readBurst) {
+		this.readBurst = readBurst;
+	}
+
+	public double getWritePerSecond() {
+		return writePerSecond;
+	}
+
+	public void setWritePerSecond(double writePerSecond) {
+		this.writePerSecond = writePerSecond;
+	}
+
+	public int getWriteBurst() {
+		return writeBurst;
+	}
+
+	public void setWriteBurst(int writeBurst) {
+		this.writeBurst = writeBurst;
+	}
+
+	public int getStripes() {
+		return stripes;
+	}
+
+	public void setStripes(int stripes) {
+		this.stripes = stripes;
+	}
+}
@@ -0,0 +1,77 @@
+package customerservice.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free and allocation-free token bucket.
+ * <p>
+ * The bucket is implemented as a generic cell rate algorithm: the state of a bucket is a single
+ * "theoretical arrival time" updated with a compare-and-set, acquiring a token costs a few
+ * nanoseconds.
+ * <p>
+ * To spread the contention of many threads hitting the same bucket, the rate and the burst are
+ * split over {@code stripes} independent cells, a thread always uses the same cell. Cells are padded
+ * to avoid false sharing.
+ */
+public final class TokenBucket {
+
+	/* One cell every 8 longs (64 bytes) */
+	private static final int PADDING = 8;
+
+	private final AtomicLongArray cells;
+	private final int stripes;
+	private final long emissionIntervalNanos;
+	private final long burstToleranceNanos;
+
+	/**
+	 * @param permitsPerSecond
+	 *            The sustained rate
+	 * @param burst
+	 *            The number of permits that can be acquired at once
+	 * @param stripes
+	 *            The number of cells the rate is split over, 1 for an exact rate
+	 */
+	public TokenBucket(double permitsPerSecond, int burst, int stripes) {
+
+		if (permitsPerSecond <= 0 || burst < 1 || stripes < 1) {
+			throw new IllegalArgumentException("Rate, burst and stripes must be positive.");
+		}
+
+		this.stripes = stripes;
+		this.cells = new AtomicLongArray(stripes * PADDING);
+		this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * stripes / permitsPerSecond);
+		this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst / stripes);
+
+		final long now = System.nanoTime();
+		for (int i = 0; i < stripes; i++) {
+			cells.set(i * PADDING, now - burstToleranceNanos);
+		}
+	}
+
+	/**
+	 * Try to acquire a permit for the current thread.
+	 *
+	 * @return 0 if a permit has been acquired otherwise the number of nanoseconds
+	 *         to wait before a permit is available
+	 */
+	public long tryAcquire() {
+		return tryAcquire(System.nanoTime(), (int) (Thread.currentThread().getId() % stripes));
+	}
+
+	long tryAcquire(long now, int stripe) {
+
+		final int cell = stripe * PADDING;
+		for (;;) {
+			final long arrival = cells.get(cell);
+			final long nextArrival = Math.max(arrival, now - burstToleranceNanos) + emissionIntervalNanos;
+			final long wait = nextArrival - now;
+			if (wait > 0) {
+				return wait;
+			}
+			if (cells.compareAndSet(cell, arrival, nextArrival)) {
+				return 0;
+			}
+		}
+	}
+}
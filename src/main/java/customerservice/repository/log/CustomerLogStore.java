@@ -0,0 +1,555 @@
+package customerservice.repository.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerConverters.CustomerToDocumentConverter;
+import customerservice.repository.mongodb.CustomerConverters.DocumentToCustomerConverter;
+
+/**
+ * Embedded customer store: an append-only {@link LogFile} of BSON documents and a memory-mapped
+ * {@link MappedIndex} from ids to the offset of their last version.
+ * <p>
+ * Saves and deletes append a record then update the index under a write lock. Lookups take an
+ * optimistic read of the index, the document is decoded straight from the mapped log without
+ * copying it to the heap first. Bytes below the end of a log are never rewritten while the store is
+ * open (compaction and {@link #clear()} write new files) so a validated offset stays readable.
+ * <p>
+ * Overwritten and deleted records are garbage. A background thread compacts the log when the
+ * garbage reaches {@code garbageRatio} of a log of at least {@code minCompactionBytes}: the live
+ * records are copied to a new log without blocking the writers, the records appended meanwhile
+ * are replayed under the write lock then the new files replace the current ones.
+ * <p>
+ * The index is flagged clean on {@link #close()}, after a crash it is rebuilt from the log and a
+ * torn record at the end of the log is discarded. Records reach the disk when the OS writes the
+ * mapped pages back unless {@code fsync} forces every write.
+ */
+public final class CustomerLogStore implements AutoCloseable {
+
+	static final String LOG = "customers.log";
+	static final String INDEX = "customers.idx";
+	private static final String COMPACT = ".compact";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CustomerLogStore.class);
+
+	private static final DocumentCodec CODEC = new DocumentCodec();
+	private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+	private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+	private final StampedLock lock = new StampedLock();
+	private final Object compaction = new Object();
+
+	private final Path directory;
+	private final int segmentSize;
+	private final boolean fsync;
+	private final double garbageRatio;
+	private final long minCompactionBytes;
+
+	private volatile LogFile log;
+	private volatile MappedIndex index;
+	private long liveBytes;
+
+	private final Thread compactor;
+	private volatile boolean running = true;
+
+	/* Runs between the copy and the replay of a compaction, lets the tests write meanwhile */
+	volatile Runnable afterCopy = () -> { };
+
+	private CustomerLogStore(Path directory, int segmentSize, boolean fsync, double garbageRatio,
+			long minCompactionBytes, long checkMillis, LogFile log, MappedIndex index) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.fsync = fsync;
+		this.garbageRatio = garbageRatio;
+		this.minCompactionBytes = minCompactionBytes;
+		this.log = log;
+		this.index = index;
+		this.compactor = new Thread(() -> compactionLoop(checkMillis), "customer-log-compactor");
+		this.compactor.setDaemon(true);
+	}
+
+	/**
+	 * Open the store in {@code directory}, created if it does not exist.
+	 *
+	 * @param directory
+	 *            The directory of the log and the index
+	 * @param segmentSize
+	 *            The size of the mapped segments of the log, the largest record it can hold
+	 * @param fsync
+	 *            Whether every write is forced to the storage device
+	 * @param garbageRatio
+	 *            The ratio of garbage in the log triggering a compaction
+	 * @param minCompactionBytes
+	 *            The size under which the log is never compacted
+	 * @param checkMillis
+	 *            The period of the compaction checks, 0 to compact only on {@link #compact()}
+	 * @return The store
+	 */
+	public static CustomerLogStore open(Path directory, int segmentSize, boolean fsync, double garbageRatio,
+			long minCompactionBytes, long checkMillis) throws IOException {
+
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(LOG + COMPACT));
+		Files.deleteIfExists(directory.resolve(INDEX + COMPACT));
+
+		final LogFile log = LogFile.open(directory.resolve(LOG), segmentSize);
+		final MappedIndex index;
+		try {
+			index = MappedIndex.open(directory.resolve(INDEX));
+		} catch (IOException | RuntimeException e) {
+			log.close();
+			throw e;
+		}
+
+		final CustomerLogStore store = new CustomerLogStore(directory, segmentSize, fsync, garbageRatio,
+				minCompactionBytes, checkMillis, log, index);
+		try {
+			store.recover();
+		} catch (IOException | RuntimeException e) {
+			log.close();
+			index.close();
+			throw e;
+		}
+		if (checkMillis > 0) {
+			store.compactor.start();
+		}
+		return store;
+	}
+
+	/**
+	 * @return The customer or null if there is none with this id
+	 */
+	public Customer get(ObjectId id) {
+
+		final long[] key = key(id);
+
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			final LogFile currentLog = log;
+			final long offset = index.get(key[0], (int) key[1]);
+			if (lock.validate(stamp)) {
+				return offset == MappedIndex.ABSENT ? null : decode(currentLog.read(offset));
+			}
+		}
+
+		stamp = lock.readLock();
+		try {
+			final long offset = index.get(key[0], (int) key[1]);
+			return offset == MappedIndex.ABSENT ? null : decode(log.read(offset));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	public boolean contains(ObjectId id) {
+
+		final long[] key = key(id);
+
+		final long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			final boolean found = index.get(key[0], (int) key[1]) != MappedIndex.ABSENT;
+			if (lock.validate(stamp)) {
+				return found;
+			}
+		}
+
+		final long readStamp = lock.readLock();
+		try {
+			return index.get(key[0], (int) key[1]) != MappedIndex.ABSENT;
+		} finally {
+			lock.unlockRead(readStamp);
+		}
+	}
+
+	/**
+	 * @return All the customers, in no particular order
+	 */
+	public List<Customer> getAll() {
+
+		final List<LogFile.Record> records = new ArrayList<>();
+		final long stamp = lock.readLock();
+		try {
+			final LogFile currentLog = log;
+			index.forEach(offset -> records.add(currentLog.read(offset)));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+
+		final List<Customer> customers = new ArrayList<>(records.size());
+		for (LogFile.Record record : records) {
+			customers.add(decode(record));
+		}
+		return customers;
+	}
+
+	public long count() {
+
+		final long stamp = lock.readLock();
+		try {
+			return index.size();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Save a customer, an id is assigned to new customers.
+	 *
+	 * @return The saved customer
+	 */
+	public Customer put(Customer customer) {
+
+		final Customer saved = customer.getId() == null
+				? Customer.from(customer).withId(ObjectId.get()).build()
+				: customer;
+		final long[] key = key(saved.getId());
+		final ByteBuffer payload = encode(saved);
+
+		final long stamp = lock.writeLock();
+		try {
+			final long offset = log.append(LogFile.PUT, key[0], (int) key[1], payload);
+			liveBytes += log.recordLength(offset);
+			final long previous = index.put(key[0], (int) key[1], offset);
+			if (previous != MappedIndex.ABSENT) {
+				liveBytes -= log.recordLength(previous);
+			}
+			if (fsync) {
+				log.force();
+			}
+			return saved;
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return true if there was a customer with this id
+	 */
+	public boolean remove(ObjectId id) {
+
+		final long[] key = key(id);
+
+		final long stamp = lock.writeLock();
+		try {
+			final long previous = index.get(key[0], (int) key[1]);
+			if (previous == MappedIndex.ABSENT) {
+				return false;
+			}
+			log.append(LogFile.DELETE, key[0], (int) key[1], null);
+			index.remove(key[0], (int) key[1]);
+			liveBytes -= log.recordLength(previous);
+			if (fsync) {
+				log.force();
+			}
+			return true;
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Remove all the customers, the log is replaced with an empty one.
+	 */
+	public void clear() {
+
+		synchronized (compaction) {
+			try {
+				Files.deleteIfExists(directory.resolve(LOG + COMPACT));
+				final LogFile emptyLog = LogFile.open(directory.resolve(LOG + COMPACT), segmentSize);
+				final MappedIndex emptyIndex = MappedIndex.create(directory.resolve(INDEX + COMPACT), 0);
+				swap(emptyLog, emptyIndex, 0);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * @return The size of the log
+	 */
+	public long logBytes() {
+		return log.end() - LogFile.HEADER;
+	}
+
+	/**
+	 * @return The size of the records that are neither overwritten nor deleted
+	 */
+	public long liveBytes() {
+
+		final long stamp = lock.readLock();
+		try {
+			return liveBytes;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Compact the log if the garbage exceeds the threshold.
+	 *
+	 * @return true if the log was compacted
+	 */
+	public boolean compactIfNeeded() throws IOException {
+
+		final long logBytes = logBytes();
+		if (logBytes < minCompactionBytes || logBytes - liveBytes() < logBytes * garbageRatio) {
+			return false;
+		}
+		compact();
+		return true;
+	}
+
+	/**
+	 * Copy the live records to a new log and index then replace the current ones.
+	 */
+	public void compact() throws IOException {
+
+		synchronized (compaction) {
+			if (!running) {
+				return;
+			}
+
+			final LogFile source;
+			final long sourceEnd;
+			final long[] offsets;
+			long stamp = lock.readLock();
+			try {
+				source = log;
+				sourceEnd = source.end();
+				offsets = new long[index.size()];
+				final int[] count = { 0 };
+				index.forEach(offset -> offsets[count[0]++] = offset);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+
+			// Keep the order of the log, sequential reads
+			Arrays.sort(offsets);
+
+			Files.deleteIfExists(directory.resolve(LOG + COMPACT));
+			final LogFile target = LogFile.open(directory.resolve(LOG + COMPACT), segmentSize);
+			final MappedIndex targetIndex = MappedIndex.create(directory.resolve(INDEX + COMPACT), offsets.length);
+			long targetLiveBytes = 0;
+			try {
+				for (long offset : offsets) {
+					targetLiveBytes += apply(source.read(offset), target, targetIndex, true);
+				}
+			} catch (IOException | RuntimeException e) {
+				target.close();
+				targetIndex.close();
+				throw e;
+			}
+			afterCopy.run();
+
+			stamp = lock.writeLock();
+			try {
+				// Writes appended during the copy
+				final long[] tail = { 0 };
+				final IOException[] failure = { null };
+				source.scan(sourceEnd, record -> {
+					try {
+						tail[0] += apply(record, target, targetIndex, true);
+					} catch (IOException e) {
+						failure[0] = e;
+					}
+				});
+				if (failure[0] != null) {
+					throw failure[0];
+				}
+				swapLocked(target, targetIndex, targetLiveBytes + tail[0]);
+
+			} catch (IOException | RuntimeException e) {
+				target.close();
+				targetIndex.close();
+				throw e;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+
+			LOGGER.info("Compacted customer log from {} to {} bytes", sourceEnd - LogFile.HEADER,
+					target.end() - LogFile.HEADER);
+		}
+	}
+
+	/**
+	 * Stop the compactions and flag the index as clean.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		running = false;
+		compactor.interrupt();
+		synchronized (compaction) {
+			final long stamp = lock.writeLock();
+			try {
+				index.markClean(log.end());
+				log.force();
+				index.force();
+				log.close();
+				index.close();
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/* Rebuild the index from the log unless it was closed cleanly */
+	private void recover() throws IOException {
+
+		final long[] live = { 0 };
+		if (index.isClean() && index.coveredEnd() == log.end()) {
+			index.forEach(offset -> live[0] += log.recordLength(offset));
+
+		} else {
+			LOGGER.info("Rebuilding the customer index from the log");
+			index.clear();
+			final IOException[] failure = { null };
+			final long end = log.scan(LogFile.HEADER, record -> {
+				try {
+					live[0] += apply(record, log, index, false);
+				} catch (IOException e) {
+					failure[0] = e;
+				}
+			});
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+			if (end < log.end()) {
+				LOGGER.warn("Discarding {} bytes at the end of the customer log", log.end() - end);
+				log.truncate(end);
+			}
+		}
+
+		liveBytes = live[0];
+		index.markDirty();
+		index.force();
+	}
+
+	/*
+	 * Apply a record to an index, the record is first appended to the target log when copying.
+	 * Returns the change of the live bytes.
+	 */
+	private static long apply(LogFile.Record record, LogFile target, MappedIndex targetIndex, boolean copy)
+			throws IOException {
+
+		if (record.type == LogFile.DELETE) {
+			final long previous = targetIndex.remove(record.idHigh, record.idLow);
+			if (previous == MappedIndex.ABSENT) {
+				return 0;
+			}
+			// A record already copied stays in the compacted log, the delete must follow it there
+			if (copy) {
+				target.append(LogFile.DELETE, record.idHigh, record.idLow, null);
+			}
+			return -target.recordLength(previous);
+		}
+
+		final long offset = copy ? target.append(LogFile.PUT, record.idHigh, record.idLow, record.payload) : record.offset;
+		final long previous = targetIndex.put(record.idHigh, record.idLow, offset);
+		return record.length - (previous == MappedIndex.ABSENT ? 0 : target.recordLength(previous));
+	}
+
+	private void swap(LogFile newLog, MappedIndex newIndex, long newLiveBytes) throws IOException {
+
+		final long stamp = lock.writeLock();
+		try {
+			swapLocked(newLog, newIndex, newLiveBytes);
+		} catch (IOException | RuntimeException e) {
+			newLog.close();
+			newIndex.close();
+			throw e;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/*
+	 * The index replaces the current one before the log, whatever the point a crash stops at both
+	 * are dirty so the index is rebuilt from the log in place, the old or the new one.
+	 */
+	private void swapLocked(LogFile newLog, MappedIndex newIndex, long newLiveBytes) throws IOException {
+
+		newLog.force();
+		newIndex.markDirty();
+		newIndex.force();
+		index.markDirty();
+		index.force();
+
+		newIndex.moveTo(directory.resolve(INDEX));
+		newLog.moveTo(directory.resolve(LOG));
+
+		final LogFile oldLog = log;
+		final MappedIndex oldIndex = index;
+		log = newLog;
+		index = newIndex;
+		liveBytes = newLiveBytes;
+
+		// The mappings of the old files stay valid for the readers still decoding from them
+		oldLog.close();
+		oldIndex.close();
+	}
+
+	private void compactionLoop(long checkMillis) {
+
+		while (running) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(checkMillis);
+				compactIfNeeded();
+			} catch (InterruptedException e) {
+				return;
+			} catch (IOException | RuntimeException e) {
+				LOGGER.error("Compaction of the customer log failed", e);
+			}
+		}
+	}
+
+	private static long[] key(ObjectId id) {
+
+		final ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+		return new long[] { bytes.getLong(), bytes.getInt() };
+	}
+
+	private static ByteBuffer encode(Customer customer) {
+
+		final BasicOutputBuffer buffer = new BasicOutputBuffer(512);
+		try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+			CODEC.encode(writer, CustomerToDocumentConverter.INSTANCE.convert(customer), ENCODER_CONTEXT);
+		}
+		return ByteBuffer.wrap(buffer.getInternalBuffer(), 0, buffer.getPosition());
+	}
+
+	/* BSON straight from the mapped log */
+	private static Customer decode(LogFile.Record record) {
+
+		try (BsonBinaryReader reader = new BsonBinaryReader(record.payload.duplicate())) {
+			final Document document = CODEC.decode(reader, DECODER_CONTEXT);
+			return DocumentToCustomerConverter.INSTANCE.convert(document);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package customerservice.repository.log;
+
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link CustomerRepository} backed by a {@link CustomerLogStore}.
+ * <p>
+ * Reads are lookups in the mapped index and the mapped log, they run on the subscribing thread.
+ * Writes run on {@code writeScheduler}, a single thread: they may wait for the store lock or for
+ * the disk and never block the event loop.
+ */
+public class LogCustomerRepository implements CustomerRepository {
+
+	private final CustomerLogStore store;
+	private final Scheduler writeScheduler;
+
+	public LogCustomerRepository(CustomerLogStore store, Scheduler writeScheduler) {
+		this.store = store;
+		this.writeScheduler = writeScheduler;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <S extends Customer> Mono<S> save(S entity) {
+		return Mono.fromCallable(() -> (S) store.put(entity)).subscribeOn(writeScheduler);
+	}
+
+	@Override
+	public <S extends Customer> Flux<S> saveAll(Iterable<S> entities) {
+		return Flux.fromIterable(entities).concatMap(this::save);
+	}
+
+	@Override
+	public <S extends Customer> Flux<S> saveAll(Publisher<S> entityStream) {
+		return Flux.from(entityStream).concatMap(this::save);
+	}
+
+	@Override
+	public Mono<Customer> findById(ObjectId id) {
+		return Mono.fromCallable(() -> store.get(id));
+	}
+
+	@Override
+	public Mono<Customer> findById(Publisher<ObjectId> id) {
+		return Mono.from(id).flatMap(this::findById);
+	}
+
+	@Override
+	public Mono<Boolean> existsById(ObjectId id) {
+		return Mono.fromCallable(() -> store.contains(id));
+	}
+
+	@Override
+	public Mono<Boolean> existsById(Publisher<ObjectId> id) {
+		return Mono.from(id).flatMap(this::existsById);
+	}
+
+	@Override
+	public Flux<Customer> findAll() {
+		return Flux.defer(() -> Flux.fromIterable(store.getAll()));
+	}
+
+	@Override
+	public Flux<Customer> findAllById(Iterable<ObjectId> ids) {
+		return Flux.fromIterable(ids).concatMap(this::findById);
+	}
+
+	@Override
+	public Flux<Customer> findAllById(Publisher<ObjectId> idStream) {
+		return Flux.from(idStream).concatMap(this::findById);
+	}
+
+	@Override
+	public Mono<Long> count() {
+		return Mono.fromCallable(store::count);
+	}
+
+	@Override
+	public Mono<Void> deleteById(ObjectId id) {
+		return Mono.fromRunnable(() -> store.remove(id)).subscribeOn(writeScheduler).then();
+	}
+
+	public Mono<Void> deleteById(Publisher<ObjectId> id) {
+		return Mono.from(id).flatMap(this::deleteById);
+	}
+
+	@Override
+	public Mono<Void> delete(Customer entity) {
+		return deleteById(entity.getId());
+	}
+
+	@Override
+	public Mono<Void> deleteAll(Iterable<? extends Customer> entities) {
+		return Flux.fromIterable(entities).concatMap(this::delete).then();
+	}
+
+	@Override
+	public Mono<Void> deleteAll(Publisher<? extends Customer> entityStream) {
+		return Flux.from(entityStream).concatMap(this::delete).then();
+	}
+
+	@Override
+	public Mono<Void> deleteAll() {
+		return Mono.fromRunnable(store::clear).subscribeOn(writeScheduler).then();
+	}
+}
@@ -0,0 +1,284 @@
+package customerservice.repository.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of records, mapped in memory by segments of {@code segmentSize} bytes.
+ * <p>
+ * Layout: a 16 bytes header (magic, segment size, end of the log) followed by the records. A record
+ * is {@code [int length][int crc][byte type][12 bytes id][payload]}, the CRC covers the type, the id
+ * and the payload. A record never spans two segments, the unused tail of a segment starts with a 0
+ * length.
+ * <p>
+ * Records are read in place: {@link #read(long)} returns a view of the mapped segment, nothing is
+ * copied. The mappings of a closed or replaced file stay valid until they are garbage collected so
+ * views handed out before a compaction can still be read.
+ * <p>
+ * Not thread-safe for writes, the caller serializes them.
+ */
+final class LogFile implements AutoCloseable {
+
+	static final byte PUT = 1;
+	static final byte DELETE = 2;
+
+	static final int HEADER = 16;
+	static final int RECORD_HEADER = 4 + 4 + 1 + 12;
+
+	private static final int MAGIC = 0x43534C47;
+	private static final int END_POSITION = 8;
+
+	private final FileChannel channel;
+	private final int segmentSize;
+	private volatile MappedByteBuffer[] segments;
+	private volatile long end;
+	private int firstDirtySegment;
+	private Path path;
+
+	private LogFile(Path path, FileChannel channel, int segmentSize, MappedByteBuffer[] segments, long end) {
+		this.path = path;
+		this.channel = channel;
+		this.segmentSize = segmentSize;
+		this.segments = segments;
+		this.end = end;
+	}
+
+	/**
+	 * @param path
+	 *            The file, created if it does not exist
+	 * @param segmentSize
+	 *            The size of the segments of a new file, an existing file keeps its own
+	 * @return The log
+	 */
+	static LogFile open(Path path, int segmentSize) throws IOException {
+
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (channel.size() == 0) {
+				final MappedByteBuffer first = channel.map(MapMode.READ_WRITE, 0, segmentSize);
+				first.putInt(0, MAGIC).putInt(4, segmentSize).putLong(END_POSITION, HEADER);
+				return new LogFile(path, channel, segmentSize, new MappedByteBuffer[] { first }, HEADER);
+			}
+
+			final MappedByteBuffer first = channel.map(MapMode.READ_WRITE, 0, HEADER);
+			if (first.getInt(0) != MAGIC) {
+				throw new IOException("Not a customer log: " + path);
+			}
+			final int existingSegmentSize = first.getInt(4);
+			final int count = (int) ((channel.size() + existingSegmentSize - 1) / existingSegmentSize);
+			final MappedByteBuffer[] segments = new MappedByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				segments[i] = channel.map(MapMode.READ_WRITE, (long) i * existingSegmentSize, existingSegmentSize);
+			}
+			return new LogFile(path, channel, existingSegmentSize, segments, segments[0].getLong(END_POSITION));
+
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	long end() {
+		return end;
+	}
+
+	/**
+	 * @param type
+	 *            {@link #PUT} or {@link #DELETE}
+	 * @param idHigh
+	 *            The first 8 bytes of the id
+	 * @param idLow
+	 *            The last 4 bytes of the id
+	 * @param payload
+	 *            The payload, null for none
+	 * @return The offset of the record
+	 */
+	long append(byte type, long idHigh, int idLow, ByteBuffer payload) throws IOException {
+
+		final int length = RECORD_HEADER + (payload == null ? 0 : payload.remaining());
+		if (length > segmentSize - HEADER) {
+			throw new IllegalArgumentException("Record of " + length + " bytes larger than a segment");
+		}
+
+		long offset = end;
+		if (positionInSegment(offset) + length > segmentSize) {
+			final int remaining = segmentSize - positionInSegment(offset);
+			if (remaining >= 4) {
+				segment(offset).putInt(positionInSegment(offset), 0);
+			}
+			offset = nextSegment(offset);
+		}
+
+		final int segment = segmentIndex(offset);
+		ensureMapped(segment);
+
+		final ByteBuffer buffer = segments[segment].duplicate();
+		final int position = positionInSegment(offset);
+		buffer.position(position);
+		buffer.putInt(length).putInt(0).put(type).putLong(idHigh).putInt(idLow);
+		if (payload != null) {
+			buffer.put(payload.duplicate());
+		}
+		buffer.putInt(position + 4, crc(segments[segment], position, length));
+
+		end = offset + length;
+		segments[0].putLong(END_POSITION, end);
+		return offset;
+	}
+
+	/**
+	 * @return A view of the record at {@code offset}
+	 */
+	Record read(long offset) {
+
+		final MappedByteBuffer segment = segment(offset);
+		final int position = positionInSegment(offset);
+		final int length = segment.getInt(position);
+
+		final ByteBuffer payload = segment.duplicate();
+		payload.limit(position + length).position(position + RECORD_HEADER);
+
+		return new Record(offset, length, segment.get(position + 8), segment.getLong(position + 9),
+				segment.getInt(position + 17), payload.slice());
+	}
+
+	int recordLength(long offset) {
+		return segment(offset).getInt(positionInSegment(offset));
+	}
+
+	/**
+	 * Visit the valid records from {@code from} to the end of the log, stop at the first record
+	 * that is torn or corrupted.
+	 *
+	 * @return The end of the last valid record
+	 */
+	long scan(long from, Consumer<Record> visitor) {
+
+		long offset = from;
+		while (offset < end) {
+
+			final int position = positionInSegment(offset);
+			if (segmentSize - position < RECORD_HEADER) {
+				offset = nextSegment(offset);
+				continue;
+			}
+
+			final MappedByteBuffer segment = segment(offset);
+			final int length = segment.getInt(position);
+			if (length == 0) {
+				offset = nextSegment(offset);
+				continue;
+			}
+			if (length < RECORD_HEADER || position + length > segmentSize || offset + length > end
+					|| segment.getInt(position + 4) != crc(segment, position, length)) {
+				return offset;
+			}
+
+			visitor.accept(read(offset));
+			offset += length;
+		}
+		return Math.min(offset, end);
+	}
+
+	/**
+	 * Move the end of the log back, the records after it are discarded.
+	 */
+	void truncate(long newEnd) {
+		end = newEnd;
+		segments[0].putLong(END_POSITION, newEnd);
+	}
+
+	/**
+	 * Flush the records written since the last call to the storage device.
+	 */
+	void force() {
+
+		final MappedByteBuffer[] current = segments;
+		for (int i = firstDirtySegment; i < current.length; i++) {
+			current[i].force();
+		}
+		current[0].force();
+		firstDirtySegment = segmentIndex(end);
+	}
+
+	void moveTo(Path target) throws IOException {
+		Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		path = target;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void ensureMapped(int segment) throws IOException {
+
+		final MappedByteBuffer[] current = segments;
+		if (segment < current.length) {
+			return;
+		}
+		final MappedByteBuffer[] extended = Arrays.copyOf(current, segment + 1);
+		for (int i = current.length; i <= segment; i++) {
+			extended[i] = channel.map(MapMode.READ_WRITE, (long) i * segmentSize, segmentSize);
+		}
+		segments = extended;
+	}
+
+	private MappedByteBuffer segment(long offset) {
+		return segments[segmentIndex(offset)];
+	}
+
+	private int segmentIndex(long offset) {
+		return (int) (offset / segmentSize);
+	}
+
+	private int positionInSegment(long offset) {
+		return (int) (offset % segmentSize);
+	}
+
+	private long nextSegment(long offset) {
+		return (offset / segmentSize + 1) * segmentSize;
+	}
+
+	private static int crc(MappedByteBuffer segment, int position, int length) {
+
+		final ByteBuffer covered = segment.duplicate();
+		covered.limit(position + length).position(position + 8);
+		final CRC32 crc = new CRC32();
+		crc.update(covered);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * A record, its payload is a view of the mapped log.
+	 */
+	static final class Record {
+
+		final long offset;
+		final int length;
+		final byte type;
+		final long idHigh;
+		final int idLow;
+		final ByteBuffer payload;
+
+		private Record(long offset, int length, byte type, long idHigh, int idLow, ByteBuffer payload) {
+			this.offset = offset;
+			this.length = length;
+			this.type = type;
+			this.idHigh = idHigh;
+			this.idLow = idLow;
+			this.payload = payload;
+		}
+	}
+}
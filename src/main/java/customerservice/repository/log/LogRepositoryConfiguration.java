@@ -0,0 +1,80 @@
+package customerservice.repository.log;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import customerservice.repository.mongodb.CustomerReads;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The {@code log} profile: customers are stored in an embedded {@link CustomerLogStore} instead of
+ * MongoDB.
+ * <p>
+ * The reads and writes go to the local store, the read routing and the write concern profiles of
+ * the MongoDB engine do not apply. The OAuth2 stores are in memory, MongoDB is not needed.
+ * <p>
+ * The repository is an AOP proxy like the Spring Data ones, the repository post processors advise
+ * it the same way: store time in the access log ({@code mongo_ms}), tracing spans and execution
+ * lanes. Writes are serialized on a dedicated thread, never on the event loop.
+ */
+@Configuration
+@Profile("log")
+public class LogRepositoryConfiguration {
+
+	@Value("${customer-log.directory:customer-log}")
+	private String directory;
+
+	@Value("${customer-log.segment-size-mb:64}")
+	private int segmentSizeMb;
+
+	@Value("${customer-log.fsync:false}")
+	private boolean fsync;
+
+	@Value("${customer-log.compaction.garbage-ratio:0.5}")
+	private double garbageRatio;
+
+	@Value("${customer-log.compaction.min-bytes:1048576}")
+	private long compactionMinBytes;
+
+	@Value("${customer-log.compaction.check-seconds:30}")
+	private long compactionCheckSeconds;
+
+	@Bean(destroyMethod = "close")
+	public CustomerLogStore customerLogStore() throws IOException {
+		return CustomerLogStore.open(Paths.get(directory), segmentSizeMb << 20, fsync, garbageRatio,
+				compactionMinBytes, TimeUnit.SECONDS.toMillis(compactionCheckSeconds));
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public Scheduler customerLogWriter() {
+		return Schedulers.newSingle("customer-log-writer", true);
+	}
+
+	@Bean
+	public CustomerRepository customerRepository(CustomerLogStore store) {
+
+		final ProxyFactory proxy = new ProxyFactory(new LogCustomerRepository(store, customerLogWriter()));
+		proxy.addInterface(CustomerRepository.class);
+		return (CustomerRepository) proxy.getProxy();
+	}
+
+	@Bean
+	public CustomerReads customerReads(CustomerRepository repo) {
+		return CustomerReads.primaryOnly(repo);
+	}
+
+	@Bean
+	public CustomerWrites customerWrites(CustomerRepository repo) {
+		return CustomerWrites.repositoryOnly(repo);
+	}
+}
@@ -0,0 +1,313 @@
+package customerservice.repository.log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Memory-mapped hash table from customer ids to offsets in the {@link LogFile}.
+ * <p>
+ * Layout: a 32 bytes header (magic, capacity, size, used slots, clean flag, end of the log covered
+ * by the index) followed by {@code capacity} slots of 24 bytes
+ * {@code [long id high][int id low][int state][long offset]}. Open addressing with linear probing,
+ * removed entries leave a tombstone until the next resize. The table doubles when 70% of the slots
+ * are used, it is rebuilt in a new file that replaces the current one.
+ * <p>
+ * The clean flag is cleared while the index is open for writes, an index that is not clean or that
+ * does not cover the whole log is rebuilt from the log on startup.
+ * <p>
+ * Not thread-safe, lookups may run concurrently with writes only under an optimistic read that is
+ * validated afterwards.
+ */
+final class MappedIndex implements AutoCloseable {
+
+	static final long ABSENT = -1L;
+
+	private static final int MAGIC = 0x43534958;
+	private static final int HEADER = 32;
+	private static final int SLOT = 24;
+	private static final int MIN_CAPACITY = 1024;
+
+	private static final int EMPTY = 0;
+	private static final int USED = 1;
+	private static final int REMOVED = 2;
+
+	private volatile Table table;
+	private Path path;
+
+	private MappedIndex(Path path, Table table) {
+		this.path = path;
+		this.table = table;
+	}
+
+	/**
+	 * @param path
+	 *            The file, created if it does not exist
+	 * @return The index
+	 */
+	static MappedIndex open(Path path) throws IOException {
+
+		if (!Files.exists(path) || Files.size(path) < HEADER) {
+			return create(path, 0);
+		}
+
+		final Table table = Table.map(path);
+		if (table.buffer.getInt(0) != MAGIC) {
+			table.close();
+			throw new IOException("Not a customer index: " + path);
+		}
+		return new MappedIndex(path, table);
+	}
+
+	/**
+	 * @param path
+	 *            The file, replaced if it exists
+	 * @param expectedEntries
+	 *            The number of entries to size the table for
+	 * @return An empty index
+	 */
+	static MappedIndex create(Path path, int expectedEntries) throws IOException {
+		Files.deleteIfExists(path);
+		return new MappedIndex(path, Table.create(path, capacityFor(expectedEntries)));
+	}
+
+	int size() {
+		return table.buffer.getInt(8);
+	}
+
+	boolean isClean() {
+		return table.buffer.getInt(16) == 1;
+	}
+
+	long coveredEnd() {
+		return table.buffer.getLong(24);
+	}
+
+	/**
+	 * Flag the index as up to date with a log ending at {@code logEnd}.
+	 */
+	void markClean(long logEnd) {
+		table.buffer.putLong(24, logEnd).putInt(16, 1);
+	}
+
+	void markDirty() {
+		table.buffer.putInt(16, 0);
+	}
+
+	/**
+	 * @return The offset of the id or {@link #ABSENT}
+	 */
+	long get(long idHigh, int idLow) {
+
+		final Table current = table;
+		final int slot = current.find(idHigh, idLow);
+		return slot < 0 ? ABSENT : current.offset(slot);
+	}
+
+	/**
+	 * @return The previous offset of the id or {@link #ABSENT}
+	 */
+	long put(long idHigh, int idLow, long offset) throws IOException {
+
+		Table current = table;
+		final int slot = current.find(idHigh, idLow);
+		if (slot >= 0) {
+			final long previous = current.offset(slot);
+			current.buffer.putLong(current.position(slot) + 16, offset);
+			return previous;
+		}
+
+		if (current.used() + 1 > current.capacity * 7L / 10) {
+			current = resize(current);
+		}
+		current.insert(idHigh, idLow, offset);
+		return ABSENT;
+	}
+
+	/**
+	 * @return The removed offset or {@link #ABSENT}
+	 */
+	long remove(long idHigh, int idLow) {
+
+		final Table current = table;
+		final int slot = current.find(idHigh, idLow);
+		if (slot < 0) {
+			return ABSENT;
+		}
+		current.buffer.putInt(current.position(slot) + 12, REMOVED);
+		current.buffer.putInt(8, current.buffer.getInt(8) - 1);
+		return current.offset(slot);
+	}
+
+	/**
+	 * Visit the offsets of all the entries.
+	 */
+	void forEach(LongConsumer visitor) {
+
+		final Table current = table;
+		for (int slot = 0; slot < current.capacity; slot++) {
+			if (current.state(slot) == USED) {
+				visitor.accept(current.offset(slot));
+			}
+		}
+	}
+
+	/**
+	 * Remove all the entries, the table keeps its capacity.
+	 */
+	void clear() {
+
+		final Table current = table;
+		for (int slot = 0; slot < current.capacity; slot++) {
+			current.buffer.putInt(current.position(slot) + 12, EMPTY);
+		}
+		current.buffer.putInt(8, 0).putInt(12, 0);
+	}
+
+	void force() {
+		table.buffer.force();
+	}
+
+	void moveTo(Path target) throws IOException {
+		Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		path = target;
+	}
+
+	@Override
+	public void close() throws IOException {
+		table.close();
+	}
+
+	private Table resize(Table current) throws IOException {
+
+		// Tombstones only: rehash at the same capacity
+		final int capacity = current.size() + 1 > current.capacity * 7L / 20 ? current.capacity * 2 : current.capacity;
+
+		final Path resized = path.resolveSibling(path.getFileName() + ".resize");
+		Files.deleteIfExists(resized);
+		final Table next = Table.create(resized, capacity);
+		for (int slot = 0; slot < current.capacity; slot++) {
+			if (current.state(slot) == USED) {
+				next.insert(current.buffer.getLong(current.position(slot)),
+						current.buffer.getInt(current.position(slot) + 8), current.offset(slot));
+			}
+		}
+		next.buffer.putInt(16, current.buffer.getInt(16)).putLong(24, current.buffer.getLong(24));
+
+		Files.move(resized, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		current.close();
+		table = next;
+		return next;
+	}
+
+	private static int capacityFor(int entries) {
+
+		int capacity = MIN_CAPACITY;
+		while (capacity * 7L / 10 <= entries) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(long idHigh, int idLow) {
+
+		// The leading bytes of an ObjectId are a timestamp, mix everything
+		long h = idHigh * 0x9E3779B97F4A7C15L ^ idLow * 0xC2B2AE3D27D4EB4FL;
+		h ^= h >>> 29;
+		return (int) (h ^ h >>> 32);
+	}
+
+	/**
+	 * A mapped table, the buffer and the capacity are swapped together on resize.
+	 */
+	private static final class Table {
+
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private final int capacity;
+
+		private Table(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.capacity = capacity;
+		}
+
+		private static Table create(Path path, int capacity) throws IOException {
+
+			final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER + (long) capacity * SLOT);
+			buffer.putInt(0, MAGIC).putInt(4, capacity);
+			return new Table(channel, buffer, capacity);
+		}
+
+		private static Table map(Path path) throws IOException {
+
+			final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, channel.size());
+			return new Table(channel, buffer, buffer.getInt(4));
+		}
+
+		private int size() {
+			return buffer.getInt(8);
+		}
+
+		private int used() {
+			return buffer.getInt(12);
+		}
+
+		private int position(int slot) {
+			return HEADER + slot * SLOT;
+		}
+
+		private int state(int slot) {
+			return buffer.getInt(position(slot) + 12);
+		}
+
+		private long offset(int slot) {
+			return buffer.getLong(position(slot) + 16);
+		}
+
+		private int find(long idHigh, int idLow) {
+
+			final int mask = capacity - 1;
+			int slot = hash(idHigh, idLow) & mask;
+			for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+				final int state = state(slot);
+				if (state == EMPTY) {
+					return -1;
+				}
+				if (state == USED && buffer.getLong(position(slot)) == idHigh
+						&& buffer.getInt(position(slot) + 8) == idLow) {
+					return slot;
+				}
+			}
+			return -1;
+		}
+
+		private void insert(long idHigh, int idLow, long offset) {
+
+			final int mask = capacity - 1;
+			int slot = hash(idHigh, idLow) & mask;
+			while (state(slot) == USED) {
+				slot = (slot + 1) & mask;
+			}
+			if (state(slot) == EMPTY) {
+				buffer.putInt(12, used() + 1);
+			}
+			buffer.putLong(position(slot), idHigh).putInt(position(slot) + 8, idLow).putLong(position(slot) + 16, offset)
+				.putInt(position(slot) + 12, USED);
+			buffer.putInt(8, size() + 1);
+		}
+
+		private void close() throws IOException {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package customerservice.repository.mongodb;
+
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+
+/**
+ * Customer repositories on other operations than the template, e.g. another read preference or
+ * write concern.
+ */
+final class AdvisedRepositories {
+
+	private AdvisedRepositories() {
+	}
+
+	/**
+	 * @param beanFactory
+	 *            The bean factory
+	 * @param name
+	 *            The name of the repository, as a bean name
+	 * @param operations
+	 *            The operations of the repository
+	 * @return The same proxy as the repository bean, initialized by the bean factory so the post
+	 *         processors add their advice: timing, tracing and execution lanes
+	 */
+	static CustomerRepository customerRepository(AutowireCapableBeanFactory beanFactory, String name,
+			ReactiveMongoOperations operations) {
+		return (CustomerRepository) beanFactory.initializeBean(
+				new ReactiveMongoRepositoryFactory(operations).getRepository(CustomerRepository.class), name);
+	}
+}
@@ -0,0 +1,184 @@
+package customerservice.repository.mongodb;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import customerservice.domain.Address;
+import customerservice.domain.Customer;
+import customerservice.domain.enums.CustomerType;
+import customerservice.domain.enums.Gender;
+import customerservice.domain.enums.MaritalStatus;
+import customerservice.domain.enums.PhoneType;
+
+/**
+ * Hand-written mapping between {@link Customer} and its MongoDB document.
+ * <p>
+ * Registered as custom conversions so {@code MappingMongoConverter} delegates to them instead of
+ * populating the private fields of {@link Customer} and {@link Address} through reflection.
+ * Documents are read straight into {@link Customer.Builder} and written straight from the getters.
+ * <p>
+ * The document layout is the one Spring Data produced so far (property names as field names, enums
+ * by name, {@link LocalDate} as a {@link Date} at start of day in the system time zone) so existing
+ * collections remain readable.
+ */
+public final class CustomerConverters {
+
+	static final String ID = "_id";
+	static final String FIRST_NAME = "firstName";
+	static final String LAST_NAME = "lastName";
+	static final String GENDER = "gender";
+	static final String BIRTH_DATE = "birthDate";
+	static final String MARITAL_STATUS = "maritalStatus";
+	static final String ADDRESS = "address";
+	static final String PHONES = "phones";
+	static final String EMAIL = "email";
+	static final String CUSTOMER_TYPE = "customerType";
+
+	static final String STREET_NUMBER = "streetNumber";
+	static final String STREET_NAME = "streetName";
+	static final String CITY = "city";
+	static final String ZIPCODE = "zipcode";
+	static final String STATE_OR_PROVINCE = "stateOrProvince";
+	static final String COUNTRY = "country";
+
+	private CustomerConverters() {
+	}
+
+	/**
+	 * @return The converters to register with {@code MongoCustomConversions}
+	 */
+	public static List<Converter<?, ?>> getConvertersToRegister() {
+		return Arrays.asList(CustomerToDocumentConverter.INSTANCE, DocumentToCustomerConverter.INSTANCE);
+	}
+
+	@WritingConverter
+	public enum CustomerToDocumentConverter implements Converter<Customer, Document> {
+
+		INSTANCE;
+
+		@Override
+		public Document convert(Customer customer) {
+
+			final Document document = new Document();
+
+			// Let the driver generate the id of new customers
+			putIfNotNull(document, ID, customer.getId());
+			putIfNotNull(document, FIRST_NAME, customer.getFirstName());
+			putIfNotNull(document, LAST_NAME, customer.getLastName());
+			putIfNotNull(document, GENDER, name(customer.getGender()));
+			putIfNotNull(document, BIRTH_DATE, toDate(customer.getBirthDate()));
+			putIfNotNull(document, MARITAL_STATUS, name(customer.getMaritalStatus()));
+			putIfNotNull(document, ADDRESS, toDocument(customer.getAddress()));
+			putIfNotNull(document, PHONES, toDocument(customer.getPhones()));
+			putIfNotNull(document, EMAIL, customer.getEmail());
+			putIfNotNull(document, CUSTOMER_TYPE, name(customer.getCustomerType()));
+
+			return document;
+		}
+
+		private static Document toDocument(Address address) {
+
+			if (address == null) {
+				return null;
+			}
+
+			final Document document = new Document();
+			putIfNotNull(document, STREET_NUMBER, address.getStreetNumber());
+			putIfNotNull(document, STREET_NAME, address.getStreetName());
+			putIfNotNull(document, CITY, address.getCity());
+			putIfNotNull(document, ZIPCODE, address.getZipcode());
+			putIfNotNull(document, STATE_OR_PROVINCE, address.getStateOrProvince());
+			putIfNotNull(document, COUNTRY, address.getCountry());
+			return document;
+		}
+
+		private static Document toDocument(Map<PhoneType, String> phones) {
+
+			if (phones == null) {
+				return null;
+			}
+
+			final Document document = new Document();
+			for (Map.Entry<PhoneType, String> phone : phones.entrySet()) {
+				document.put(phone.getKey().name(), phone.getValue());
+			}
+			return document;
+		}
+
+		private static Date toDate(LocalDate localDate) {
+			return localDate == null ? null : Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+		}
+
+		private static String name(Enum<?> value) {
+			return value == null ? null : value.name();
+		}
+
+		private static void putIfNotNull(Document document, String key, Object value) {
+			if (value != null) {
+				document.put(key, value);
+			}
+		}
+	}
+
+	@ReadingConverter
+	public enum DocumentToCustomerConverter implements Converter<Document, Customer> {
+
+		INSTANCE;
+
+		@Override
+		public Customer convert(Document document) {
+
+			final Customer.Builder builder = Customer
+					.ofType(toEnum(CustomerType.class, document.getString(CUSTOMER_TYPE)))
+					.withId(document.getObjectId(ID))
+					.withFirstName(document.getString(FIRST_NAME))
+					.withLastName(document.getString(LAST_NAME))
+					.withGender(toEnum(Gender.class, document.getString(GENDER)))
+					.withBirthDate(toLocalDate(document.getDate(BIRTH_DATE)))
+					.withMaritalStatus(toEnum(MaritalStatus.class, document.getString(MARITAL_STATUS)))
+					.withAddress(toAddress(document.get(ADDRESS, Document.class)))
+					.withEmail(document.getString(EMAIL));
+
+			final Document phones = document.get(PHONES, Document.class);
+			if (phones != null) {
+				for (Map.Entry<String, Object> phone : phones.entrySet()) {
+					builder.withPhone(PhoneType.valueOf(phone.getKey()), (String) phone.getValue());
+				}
+			}
+
+			return builder.build();
+		}
+
+		private static Address toAddress(Document document) {
+
+			if (document == null) {
+				return null;
+			}
+
+			return Address.ofCountry(document.getString(COUNTRY))
+					.withStreetNumber(document.getInteger(STREET_NUMBER))
+					.withStreetName(document.getString(STREET_NAME))
+					.withCity(document.getString(CITY))
+					.withZipcode(document.getString(ZIPCODE))
+					.withStateOrProvince(document.getString(STATE_OR_PROVINCE))
+					.build();
+		}
+
+		private static LocalDate toLocalDate(Date date) {
+			return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+
+		private static <E extends Enum<E>> E toEnum(Class<E> type, String name) {
+			return name == null ? null : Enum.valueOf(type, name);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package customerservice.repository.mongodb;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+
+import customerservice.domain.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Customer queries routed by endpoint, see {@link ReadRoutingProperties}.
+ * <p>
+ * Endpoints without a route, and the requests asking to read their own writes, go through the
+ * {@link CustomerRepository} to the primary. Each route is a repository of its own, advised like
+ * the repository bean: its reads are timed, traced and run in the read lane.
+ * <p>
+ * With {@link HedgedReads} the reads by id of the routes accepting secondaries are hedged through
+ * a backup route with the same max staleness and read concern. The reads pinned to the primary,
+ * unrouted or asking to read their own writes, are never hedged.
+ */
+public class CustomerReads {
+
+	/**
+	 * Request header asking to read from the primary, the response then reflects the writes of the
+	 * client.
+	 */
+	public static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+	private final CustomerRepository repo;
+	private final Map<String, CustomerRepository> routes;
+	private final HedgedReads hedging;
+	private final Map<String, CustomerRepository> backups;
+
+	/**
+	 * @param repo
+	 *            The repository, reading from the primary
+	 * @param routes
+	 *            The repositories of the routed endpoints, keyed by endpoint
+	 */
+	public CustomerReads(CustomerRepository repo, Map<String, CustomerRepository> routes) {
+		this(repo, routes, null, Collections.emptyMap());
+	}
+
+	/**
+	 * @param repo
+	 *            The repository, reading from the primary
+	 * @param routes
+	 *            The repositories of the routed endpoints, keyed by endpoint
+	 * @param hedging
+	 *            The hedging of the reads by id, null for none
+	 * @param backups
+	 *            The backup routes of the hedged endpoints, keyed by endpoint
+	 */
+	public CustomerReads(CustomerRepository repo, Map<String, CustomerRepository> routes, HedgedReads hedging,
+			Map<String, CustomerRepository> backups) {
+		this.repo = repo;
+		this.routes = routes;
+		this.hedging = hedging;
+		this.backups = backups;
+	}
+
+	/**
+	 * @return Reads all going to the primary
+	 */
+	public static CustomerReads primaryOnly(CustomerRepository repo) {
+		return new CustomerReads(repo, Collections.emptyMap());
+	}
+
+	/**
+	 * @param endpoint
+	 *            The name of the endpoint
+	 * @param readYourWrites
+	 *            True when the client asked to read its own writes
+	 * @return True when the endpoint reads from the primary, its results reflect all the
+	 *         acknowledged writes
+	 */
+	public boolean readsFromPrimary(String endpoint, boolean readYourWrites) {
+		return readYourWrites || !routes.containsKey(endpoint);
+	}
+
+	public Flux<Customer> findAll(String endpoint, boolean readYourWrites) {
+		return route(endpoint, readYourWrites).findAll();
+	}
+
+	public Mono<Customer> findById(String endpoint, ObjectId id, boolean readYourWrites) {
+
+		final Mono<Customer> read = route(endpoint, readYourWrites).findById(id);
+		final CustomerRepository backup = readYourWrites ? null : backups.get(endpoint);
+		if (hedging == null || backup == null) {
+			return read;
+		}
+		return hedging.hedge(read, () -> backup.findById(id));
+	}
+
+	private CustomerRepository route(String endpoint, boolean readYourWrites) {
+		return readYourWrites ? repo : routes.getOrDefault(endpoint, repo);
+	}
+}
@@ -0,0 +1,134 @@
+package customerservice.repository.mongodb;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import customerservice.CustomerServiceException;
+import customerservice.domain.Customer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Customer writes with a write concern profile, see {@link WriteConcernProperties}.
+ * <p>
+ * Each profile writes through its own repository, on a template with the write concern of the
+ * profile and advised like the repository bean (timing, tracing and write lane). Writes of the
+ * {@value #DEFAULT_PROFILE} profile go through the {@link CustomerRepository} with the default write
+ * concern of the client.
+ */
+public class CustomerWrites {
+
+	/**
+	 * Request header selecting the write concern profile of a write.
+	 */
+	public static final String WRITE_CONCERN_HEADER = "X-Write-Concern";
+
+	/**
+	 * The profile of the writes with the default write concern of the client.
+	 */
+	public static final String DEFAULT_PROFILE = "default";
+
+	private final CustomerRepository repo;
+	private final Map<String, CustomerRepository> profiles;
+	private final Map<String, String> requiredScopes;
+	private final Map<String, String> endpoints;
+	private final Set<String> unacknowledged;
+
+	/**
+	 * @param repo
+	 *            The repository, writing with the default write concern
+	 * @param profiles
+	 *            The repository of each profile, keyed by profile
+	 * @param requiredScopes
+	 *            The scope a client needs to select a profile with the header, keyed by profile
+	 * @param endpoints
+	 *            The profile of each endpoint, keyed by endpoint
+	 * @param unacknowledged
+	 *            The profiles writing with w=0
+	 */
+	public CustomerWrites(CustomerRepository repo, Map<String, CustomerRepository> profiles,
+			Map<String, String> requiredScopes, Map<String, String> endpoints, Set<String> unacknowledged) {
+		this.repo = repo;
+		this.profiles = profiles;
+		this.requiredScopes = requiredScopes;
+		this.endpoints = endpoints;
+		this.unacknowledged = unacknowledged;
+	}
+
+	/**
+	 * @return Writes all going through the repository
+	 */
+	public static CustomerWrites repositoryOnly(CustomerRepository repo) {
+		return new CustomerWrites(repo, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+				Collections.emptySet());
+	}
+
+	/**
+	 * Resolve the profile of a write, the requested profile is checked against the scopes of the
+	 * OAuth2 authentication found in the Reactor {@code Context}.
+	 *
+	 * @param endpoint
+	 *            The endpoint
+	 * @param requested
+	 *            The profile requested by the client, null for the profile of the endpoint
+	 * @return The profile, {@link #DEFAULT_PROFILE} if neither the client nor the endpoint have one
+	 */
+	public Mono<String> profile(String endpoint, String requested) {
+
+		if (requested == null) {
+			return Mono.just(endpoints.getOrDefault(endpoint, DEFAULT_PROFILE));
+		}
+		if (!profiles.containsKey(requested)) {
+			return Mono.error(new CustomerServiceException(HttpStatus.BAD_REQUEST,
+					"Unknown write concern profile: " + requested));
+		}
+
+		final String requiredScope = requiredScopes.get(requested);
+		if (requiredScope == null) {
+			return Mono.just(requested);
+		}
+		return Mono.subscriberContext()
+			.map(context -> context.<OAuth2Authentication>getOrEmpty(OAuth2Authentication.class)
+				.map(authentication -> authentication.getOAuth2Request().getScope().contains(requiredScope))
+				.orElse(false))
+			.flatMap(granted -> granted
+				? Mono.just(requested)
+				: Mono.error(new CustomerServiceException(HttpStatus.FORBIDDEN,
+						"The write concern profile " + requested + " requires the scope " + requiredScope)));
+	}
+
+	/**
+	 * @param profile
+	 *            The profile
+	 * @return false if the writes of the profile complete once sent, before the server applies them
+	 */
+	public boolean isAcknowledged(String profile) {
+		return !unacknowledged.contains(profile);
+	}
+
+	/**
+	 * @param customer
+	 *            The customer to save
+	 * @param profile
+	 *            The profile
+	 * @return The saved customer
+	 */
+	public Mono<Customer> save(Customer customer, String profile) {
+		return profiles.getOrDefault(profile, repo).save(customer);
+	}
+
+	/**
+	 * @param id
+	 *            The id of the customer to delete
+	 * @param profile
+	 *            The profile
+	 * @return Completes once deleted
+	 */
+	public Mono<Void> deleteById(ObjectId id, String profile) {
+		return profiles.getOrDefault(profile, repo).deleteById(id);
+	}
+}
@@ -0,0 +1,93 @@
+package customerservice.repository.mongodb;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import customerservice.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hedging of single document reads: when the read has not completed after a delay, the p95 of the
+ * recent reads by default, the same read is sent again through a backup route (another replica set
+ * member) and the first result wins, the other read is cancelled.
+ * <p>
+ * A backup read only wins with a document: an empty result, possibly a replication lag, or an error
+ * is ignored and the first read still answers. Backup reads are capped by a {@link TokenBucket}, so
+ * a slow cluster gets at most {@code maxPerSecond} extra reads. Only the reads that complete are
+ * sampled for the delay, a cancelled read would report a truncated latency.
+ * <p>
+ * Published metrics:
+ * <ul>
+ * <li>mongodb.hedge: tagged with result, sent, won (the backup answered first) or capped</li>
+ * <li>mongodb.hedge.delay: the current delay in milliseconds</li>
+ * </ul>
+ */
+public class HedgedReads {
+
+	private final LatencyPercentile latency;
+	private final long minDelayNanos;
+	private final TokenBucket budget;
+
+	private final Counter sent;
+	private final Counter won;
+	private final Counter capped;
+
+	/**
+	 * @param latency
+	 *            The latency of the reads, in nanoseconds
+	 * @param minDelayNanos
+	 *            The lowest delay before a backup read
+	 * @param budget
+	 *            The rate of backup reads
+	 * @param registry
+	 *            The meter registry
+	 */
+	public HedgedReads(LatencyPercentile latency, long minDelayNanos, TokenBucket budget, MeterRegistry registry) {
+		this.latency = latency;
+		this.minDelayNanos = minDelayNanos;
+		this.budget = budget;
+		this.sent = registry.counter("mongodb.hedge", "result", "sent");
+		this.won = registry.counter("mongodb.hedge", "result", "won");
+		this.capped = registry.counter("mongodb.hedge", "result", "capped");
+		Gauge.builder("mongodb.hedge.delay", this, hedging -> hedging.delayNanos() / 1e6).register(registry);
+	}
+
+	/**
+	 * @param read
+	 *            The read
+	 * @param backup
+	 *            The same read through the backup route
+	 * @return The first document found
+	 */
+	public <T> Mono<T> hedge(Mono<T> read, Supplier<Mono<T>> backup) {
+
+		return Mono.defer(() -> {
+
+			final long start = System.nanoTime();
+			final Mono<T> first = read
+				.doOnSuccess(result -> latency.record(System.nanoTime() - start));
+
+			final Mono<T> second = Mono.delay(Duration.ofNanos(delayNanos())).flatMap(tick -> {
+
+				if (budget.tryAcquire() != 0) {
+					capped.increment();
+					return Mono.never();
+				}
+				sent.increment();
+				return backup.get()
+					.onErrorResume(e -> Mono.empty())
+					.switchIfEmpty(Mono.never())
+					.doOnSuccess(result -> won.increment());
+			});
+
+			return Mono.first(first, second);
+		});
+	}
+
+	long delayNanos() {
+		return Math.max(minDelayNanos, latency.getValue());
+	}
+}
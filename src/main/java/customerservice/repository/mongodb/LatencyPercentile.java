@@ -0,0 +1,65 @@
+package customerservice.repository.mongodb;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Percentile of the most recent latencies.
+ * <p>
+ * The last {@code samples} latencies are kept in a ring, the percentile is recomputed from a sorted
+ * copy every tenth of the ring by the recording thread, reading it is a volatile read.
+ */
+public class LatencyPercentile {
+
+	private final AtomicLongArray ring;
+	private final AtomicLong recorded = new AtomicLong();
+	private final double percentile;
+	private final int refreshEvery;
+
+	private volatile long value;
+
+	/**
+	 * @param samples
+	 *            The number of latencies kept
+	 * @param percentile
+	 *            The percentile, e.g. 0.95
+	 * @param initialValue
+	 *            The value until the ring is full
+	 */
+	public LatencyPercentile(int samples, double percentile, long initialValue) {
+
+		if (samples < 10 || percentile <= 0 || percentile >= 1) {
+			throw new IllegalArgumentException("At least 10 samples and a percentile between 0 and 1 are required.");
+		}
+		this.ring = new AtomicLongArray(samples);
+		this.percentile = percentile;
+		this.refreshEvery = samples / 10;
+		this.value = initialValue;
+	}
+
+	public void record(long latency) {
+
+		final long count = recorded.getAndIncrement();
+		ring.set((int) (count % ring.length()), latency);
+
+		final long total = count + 1;
+		if (total >= ring.length() && total % refreshEvery == 0) {
+			refresh();
+		}
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	private void refresh() {
+
+		final long[] sorted = new long[ring.length()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = ring.get(i);
+		}
+		Arrays.sort(sorted);
+		value = sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+	}
+}
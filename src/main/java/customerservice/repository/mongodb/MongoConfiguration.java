@@ -0,0 +1,19 @@
+package customerservice.repository.mongodb;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+public class MongoConfiguration {
+
+	/**
+	 * Replace the reflective mapping of {@code Customer} with the hand-written
+	 * converters, Spring Boot picks this bean up when building the
+	 * {@code MappingMongoConverter}.
+	 */
+	@Bean
+	public MongoCustomConversions customConversions() {
+		return new MongoCustomConversions(CustomerConverters.getConvertersToRegister());
+	}
+}
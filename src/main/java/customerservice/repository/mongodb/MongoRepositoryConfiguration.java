@@ -0,0 +1,16 @@
+package customerservice.repository.mongodb;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * The default storage engine: {@link CustomerRepository} is a Spring Data MongoDB repository. The
+ * {@code log} profile replaces it with an embedded store.
+ */
+@Configuration
+@Profile("!log")
+@EnableReactiveMongoRepositories(basePackageClasses = CustomerRepository.class)
+public class MongoRepositoryConfiguration {
+
+}
@@ -0,0 +1,81 @@
+package customerservice.repository.mongodb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+
+import customerservice.ratelimit.TokenBucket;
+import customerservice.repository.mongodb.ReadRoutingProperties.Route;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@Profile("!log")
+@EnableConfigurationProperties(ReadRoutingProperties.class)
+public class ReadRoutingConfiguration {
+
+	@Value("${hedging.enabled:false}")
+	private boolean hedgingEnabled;
+
+	@Value("${hedging.read-preference:secondaryPreferred}")
+	private String hedgingReadPreference;
+
+	@Value("${hedging.percentile:0.95}")
+	private double hedgingPercentile;
+
+	@Value("${hedging.samples:1000}")
+	private int hedgingSamples;
+
+	@Value("${hedging.min-delay-ms:2}")
+	private long hedgingMinDelayMillis;
+
+	@Value("${hedging.max-per-second:50}")
+	private double hedgingMaxPerSecond;
+
+	@Value("${hedging.burst:10}")
+	private int hedgingBurst;
+
+	@Bean
+	public CustomerReads customerReads(CustomerRepository repo, MongoClient client, ReactiveMongoTemplate template,
+			ReadRoutingProperties properties, MeterRegistry registry, AutowireCapableBeanFactory beanFactory) {
+
+		final String databaseName = template.getMongoDatabase().getName();
+		final Map<String, CustomerRepository> routes = new HashMap<>();
+		final Map<String, CustomerRepository> backups = new HashMap<>();
+
+		for (Map.Entry<String, Route> endpoint : properties.getEndpoints().entrySet()) {
+			final Route route = endpoint.getValue();
+			final String name = "customerRepository." + endpoint.getKey();
+			routes.put(endpoint.getKey(), AdvisedRepositories.customerRepository(beanFactory, name,
+					new ReactiveMongoTemplate(new RoutedReactiveMongoDatabaseFactory(client, databaseName,
+							route.toReadPreference(), route.toReadConcern()), template.getConverter())));
+
+			/* Only the routes already reading from secondaries, with their staleness and read concern */
+			if (hedgingEnabled && route.toleratesSecondaries()) {
+				backups.put(endpoint.getKey(), AdvisedRepositories.customerRepository(beanFactory, name + ".hedging",
+						new ReactiveMongoTemplate(new RoutedReactiveMongoDatabaseFactory(client, databaseName,
+								route.toReadPreference(hedgingReadPreference), route.toReadConcern()),
+								template.getConverter())));
+			}
+		}
+		if (backups.isEmpty()) {
+			return new CustomerReads(repo, routes);
+		}
+
+		final long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgingMinDelayMillis);
+		final HedgedReads hedging = new HedgedReads(
+				new LatencyPercentile(hedgingSamples, hedgingPercentile, minDelayNanos), minDelayNanos,
+				new TokenBucket(hedgingMaxPerSecond, hedgingBurst, 1), registry);
+		return new CustomerReads(repo, routes, hedging, backups);
+	}
+
+}
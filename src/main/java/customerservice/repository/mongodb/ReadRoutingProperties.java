@@ -0,0 +1,99 @@
+package customerservice.repository.mongodb;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+
+/**
+ * Read preference and read concern of the read endpoints, configured with the
+ * {@code read-routing.endpoints.<endpoint>.*} properties where {@code <endpoint>} is the name of the
+ * controller method.
+ * <p>
+ * Example:<br>
+ * {@code read-routing.endpoints.allCustomers.read-preference=secondaryPreferred}<br>
+ * {@code read-routing.endpoints.allCustomers.max-staleness-seconds=90}<br>
+ * {@code read-routing.endpoints.allCustomers.read-concern=local}
+ * <p>
+ * Endpoints without a route read from the primary.
+ */
+@ConfigurationProperties(prefix = "read-routing")
+public class ReadRoutingProperties {
+
+	private Map<String, Route> endpoints = new HashMap<>();
+
+	public Map<String, Route> getEndpoints() {
+		return endpoints;
+	}
+
+	public void setEndpoints(Map<String, Route> endpoints) {
+		this.endpoints = endpoints;
+	}
+
+	public static class Route {
+
+		private String readPreference = "primary";
+		/* MongoDB requires at least 90 seconds */
+		private Long maxStalenessSeconds;
+		private String readConcern;
+
+		public String getReadPreference() {
+			return readPreference;
+		}
+
+		public void setReadPreference(String readPreference) {
+			this.readPreference = readPreference;
+		}
+
+		public Long getMaxStalenessSeconds() {
+			return maxStalenessSeconds;
+		}
+
+		public void setMaxStalenessSeconds(Long maxStalenessSeconds) {
+			this.maxStalenessSeconds = maxStalenessSeconds;
+		}
+
+		public String getReadConcern() {
+			return readConcern;
+		}
+
+		public void setReadConcern(String readConcern) {
+			this.readConcern = readConcern;
+		}
+
+		public ReadPreference toReadPreference() {
+			return toReadPreference(readPreference);
+		}
+
+		/**
+		 * @param name
+		 *            The name of a read preference
+		 * @return The read preference with the max staleness of the route, the primary has none
+		 */
+		public ReadPreference toReadPreference(String name) {
+			return maxStalenessSeconds == null || ReadPreference.primary().getName().equals(name)
+					? ReadPreference.valueOf(name)
+					: ReadPreference.valueOf(name, Collections.<TagSet>emptyList(), maxStalenessSeconds,
+							TimeUnit.SECONDS);
+		}
+
+		/**
+		 * @return True when the route already accepts the data of a secondary, its reads may be
+		 *         hedged
+		 */
+		public boolean toleratesSecondaries() {
+			return toReadPreference().isSlaveOk();
+		}
+
+		public ReadConcern toReadConcern() {
+			return readConcern == null ? ReadConcern.DEFAULT : new ReadConcern(ReadConcernLevel.fromString(readConcern));
+		}
+	}
+}
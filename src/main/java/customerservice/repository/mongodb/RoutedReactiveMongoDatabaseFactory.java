@@ -0,0 +1,31 @@
+package customerservice.repository.mongodb;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+/**
+ * Database factory applying a read preference and a read concern to every database it hands out,
+ * shares the {@code MongoClient} (and its connection pool) of the service.
+ */
+public class RoutedReactiveMongoDatabaseFactory extends SimpleReactiveMongoDatabaseFactory {
+
+	private final ReadPreference readPreference;
+	private final ReadConcern readConcern;
+
+	public RoutedReactiveMongoDatabaseFactory(MongoClient client, String databaseName, ReadPreference readPreference,
+			ReadConcern readConcern) {
+		super(client, databaseName);
+		this.readPreference = readPreference;
+		this.readConcern = readConcern;
+	}
+
+	@Override
+	public MongoDatabase getMongoDatabase(String dbName) throws DataAccessException {
+		return super.getMongoDatabase(dbName).withReadPreference(readPreference).withReadConcern(readConcern);
+	}
+}
@@ -0,0 +1,52 @@
+package customerservice.repository.mongodb;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.WriteConcern;
+
+import customerservice.repository.mongodb.WriteConcernProperties.Profile;
+
+@Configuration
+@org.springframework.context.annotation.Profile("!log")
+@EnableConfigurationProperties(WriteConcernProperties.class)
+public class WriteConcernConfiguration {
+
+	@Bean
+	public CustomerWrites customerWrites(CustomerRepository repo, ReactiveMongoDatabaseFactory databaseFactory,
+			ReactiveMongoTemplate template, WriteConcernProperties properties, AutowireCapableBeanFactory beanFactory) {
+
+		final Map<String, CustomerRepository> profiles = new HashMap<>();
+		final Map<String, String> requiredScopes = new HashMap<>();
+		final Set<String> unacknowledged = new HashSet<>();
+
+		for (Map.Entry<String, Profile> profile : properties.getProfiles().entrySet()) {
+			final WriteConcern writeConcern = profile.getValue().toWriteConcern();
+			final ReactiveMongoTemplate profileTemplate = new ReactiveMongoTemplate(databaseFactory, template.getConverter());
+			profileTemplate.setWriteConcern(writeConcern);
+			profiles.put(profile.getKey(), AdvisedRepositories.customerRepository(beanFactory,
+					"customerRepository." + profile.getKey(), profileTemplate));
+			if (profile.getValue().getRequiredScope() != null) {
+				requiredScopes.put(profile.getKey(), profile.getValue().getRequiredScope());
+			}
+			if (!writeConcern.isAcknowledged()) {
+				unacknowledged.add(profile.getKey());
+			}
+		}
+		properties.getEndpoints().forEach((endpoint, profile) -> {
+			if (!profiles.containsKey(profile)) {
+				throw new IllegalArgumentException("Unknown write concern profile " + profile + " for " + endpoint);
+			}
+		});
+		return new CustomerWrites(repo, profiles, requiredScopes, properties.getEndpoints(), unacknowledged);
+	}
+}
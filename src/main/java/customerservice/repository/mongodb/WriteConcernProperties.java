@@ -0,0 +1,101 @@
+package customerservice.repository.mongodb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mongodb.WriteConcern;
+
+/**
+ * Named write concern profiles and the profile of each write endpoint, configured with the
+ * {@code write-concern.*} properties.
+ * <p>
+ * Example:<br>
+ * {@code write-concern.profiles.bulk.w=1}<br>
+ * {@code write-concern.profiles.bulk.journal=false}<br>
+ * {@code write-concern.profiles.bulk.required-scope=bulk}<br>
+ * {@code write-concern.endpoints.addCustomer=interactive}
+ * <p>
+ * A client selects another profile than the one of the endpoint with the
+ * {@value CustomerWrites#WRITE_CONCERN_HEADER} header, its token must then have the required scope
+ * of the profile.
+ */
+@ConfigurationProperties(prefix = "write-concern")
+public class WriteConcernProperties {
+
+	private Map<String, Profile> profiles = new HashMap<>();
+	private Map<String, String> endpoints = new HashMap<>();
+
+	public Map<String, Profile> getProfiles() {
+		return profiles;
+	}
+
+	public void setProfiles(Map<String, Profile> profiles) {
+		this.profiles = profiles;
+	}
+
+	public Map<String, String> getEndpoints() {
+		return endpoints;
+	}
+
+	public void setEndpoints(Map<String, String> endpoints) {
+		this.endpoints = endpoints;
+	}
+
+	public static class Profile {
+
+		/* "majority" or the number of members */
+		private String w = "majority";
+		private Boolean journal;
+		private Long wtimeoutMs;
+		private String requiredScope;
+
+		public String getW() {
+			return w;
+		}
+
+		public void setW(String w) {
+			this.w = w;
+		}
+
+		public Boolean getJournal() {
+			return journal;
+		}
+
+		public void setJournal(Boolean journal) {
+			this.journal = journal;
+		}
+
+		public Long getWtimeoutMs() {
+			return wtimeoutMs;
+		}
+
+		public void setWtimeoutMs(Long wtimeoutMs) {
+			this.wtimeoutMs = wtimeoutMs;
+		}
+
+		public String getRequiredScope() {
+			return requiredScope;
+		}
+
+		public void setRequiredScope(String requiredScope) {
+			this.requiredScope = requiredScope;
+		}
+
+		public WriteConcern toWriteConcern() {
+
+			WriteConcern writeConcern = w.chars().allMatch(Character::isDigit)
+					? new WriteConcern(Integer.parseInt(w))
+					: new WriteConcern(w);
+			if (journal != null) {
+				writeConcern = writeConcern.withJournal(journal);
+			}
+			if (wtimeoutMs != null) {
+				writeConcern = writeConcern.withWTimeout(wtimeoutMs, TimeUnit.MILLISECONDS);
+			}
+			return writeConcern;
+		}
+	}
+}
@@ -1,11 +1,16 @@
 package customerservice.restapi;
 
 import static java.lang.String.format;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.MediaType.*;
 import static org.springframework.http.ResponseEntity.created;
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.notFound;
 import static org.springframework.http.ResponseEntity.ok;
+import static customerservice.repository.mongodb.CustomerReads.READ_YOUR_WRITES_HEADER;
+import static customerservice.repository.mongodb.CustomerWrites.WRITE_CONCERN_HEADER;
 import static org.springframework.web.bind.annotation.RequestMethod.DELETE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
@@ -20,15 +25,19 @@ import javax.validation.constraints.NotNull;
 import org.bson.types.ObjectId;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import customerservice.CustomerServiceException;
 import customerservice.domain.Customer;
+import customerservice.oauth2.RequiredScopes;
+import customerservice.repository.mongodb.CustomerReads;
 import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import customerservice.restapi.CustomerResponseCache.CachedResponse;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -37,8 +46,18 @@ public class CustomerController {
 
 	private CustomerRepository repo;
 
-	public CustomerController(CustomerRepository repo) {
+	private CustomerResponseCache responseCache;
+
+	private CustomerReads reads;
+
+	private CustomerWrites writes;
+
+	public CustomerController(CustomerRepository repo, CustomerResponseCache responseCache, CustomerReads reads,
+			CustomerWrites writes) {
 		this.repo = repo;
+		this.responseCache = responseCache;
+		this.reads = reads;
+		this.writes = writes;
 	}
 
 	/**
@@ -46,13 +65,17 @@ public class CustomerController {
 	 * <p>
 	 * This method is idempotent.
 	 * 
+	 * @param readYourWrites
+	 *            True to read from the primary whatever the route of the endpoint.
+	 * 
 	 * @return HTTP 200 if customers found or HTTP 204 otherwise.
 	 */
-	@PreAuthorize("#oauth2.hasAnyScope('read','write','read-write')")
+	@RequiredScopes({ "read", "write", "read-write" })
 	@RequestMapping(method = GET)
-	public Mono<ResponseEntity<List<Customer>>> allCustomers() {
+	public Mono<ResponseEntity<List<Customer>>> allCustomers(
+			@RequestHeader(name = READ_YOUR_WRITES_HEADER, defaultValue = "false") boolean readYourWrites) {
 
-		return repo.findAll().collectList()
+		return reads.findAll("allCustomers", readYourWrites).collectList()
 			.filter(customers -> customers.size() > 0)
 			.map(customers -> ok(customers))
 			.defaultIfEmpty(noContent().build());
@@ -65,32 +88,125 @@ public class CustomerController {
 	 * 
 	 * @param id
 	 *            The id of the customer to look for.
+	 * @param readYourWrites
+	 *            True to read from the primary whatever the route of the endpoint.
 	 * 
 	 * @return HTTP 200 if the customer is found or HTTP 404 otherwise.
 	 */
-	@PreAuthorize("#oauth2.hasAnyScope('read','write','read-write')")
+	@RequiredScopes({ "read", "write", "read-write" })
 	@RequestMapping(method = GET, value = "/{id}")
-	public Mono<ResponseEntity<Customer>> oneCustomer(@PathVariable @NotNull ObjectId id) {
+	public Mono<ResponseEntity<Customer>> oneCustomer(@PathVariable @NotNull ObjectId id,
+			@RequestHeader(name = READ_YOUR_WRITES_HEADER, defaultValue = "false") boolean readYourWrites) {
 
-		return repo.findById(id)
+		return reads.findById("oneCustomer", id, readYourWrites)
 			.map(customer -> ok().contentType(APPLICATION_JSON_UTF8).body(customer))
 			.defaultIfEmpty(notFound().build());
 	}
 
+	/**
+	 * Query for a customer with the given Id on behalf of a client that sent an
+	 * Accept-Encoding header.
+	 * <p>
+	 * The customer is served from the response cache, serialized and gzipped
+	 * only on the first read, the compressed bytes are written as is when the
+	 * client accepts gzip. The read is routed like {@code oneCustomer}, only
+	 * the customers read from the primary are cached.
+	 * <p>
+	 * This method is idempotent.
+	 * 
+	 * @param id
+	 *            The id of the customer to look for.
+	 * @param acceptEncoding
+	 *            The encodings accepted by the client.
+	 * @param readYourWrites
+	 *            True to read from the primary whatever the route of the endpoint.
+	 * 
+	 * @return HTTP 200 if the customer is found or HTTP 404 otherwise.
+	 */
+	@RequiredScopes({ "read", "write", "read-write" })
+	@RequestMapping(method = GET, value = "/{id}", headers = ACCEPT_ENCODING)
+	public Mono<ResponseEntity<byte[]>> oneCustomerEncoded(@PathVariable @NotNull ObjectId id,
+			@RequestHeader(ACCEPT_ENCODING) String acceptEncoding,
+			@RequestHeader(name = READ_YOUR_WRITES_HEADER, defaultValue = "false") boolean readYourWrites) {
+
+		final boolean gzip = acceptsGzip(acceptEncoding);
+		/* A lagging secondary would cache a customer older than the last write */
+		final boolean cacheable = reads.readsFromPrimary("oneCustomer", readYourWrites);
+
+		return Mono.justOrEmpty(responseCache.get(id))
+			.switchIfEmpty(Mono.defer(() -> {
+				final long version = responseCache.currentVersion(id);
+				return reads.findById("oneCustomer", id, readYourWrites)
+					.map(customer -> cacheable ? responseCache.put(id, version, customer) : responseCache.serialize(customer));
+			}))
+			.map(cached -> encoded(cached, gzip))
+			.defaultIfEmpty(notFound().build());
+	}
+
+	/**
+	 * @param acceptEncoding
+	 *            The value of the Accept-Encoding header
+	 * @return true if the client accepts gzip with a quality above 0, explicitly or through
+	 *         {@code *}
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+
+		double gzip = -1;
+		double any = -1;
+		for (String coding : acceptEncoding.split(",")) {
+
+			final String[] parameters = coding.split(";");
+			final String name = parameters[0].trim();
+			if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+				gzip = quality(parameters);
+			} else if (name.equals("*")) {
+				any = quality(parameters);
+			}
+		}
+		return gzip >= 0 ? gzip > 0 : any > 0;
+	}
+
+	private static double quality(String[] parameters) {
+
+		for (int i = 1; i < parameters.length; i++) {
+			final String parameter = parameters[i].trim();
+			if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static ResponseEntity<byte[]> encoded(CachedResponse cached, boolean gzip) {
+
+		final ResponseEntity.BodyBuilder response = ok().contentType(APPLICATION_JSON_UTF8).header(VARY, ACCEPT_ENCODING);
+
+		return gzip
+			? response.header(CONTENT_ENCODING, "gzip").body(cached.getGzippedJson())
+			: response.body(cached.getJson());
+	}
+
 	/**
 	 * Create a new customer.
 	 * 
 	 * @param newCustomer
 	 *            The customer to create.
+	 * @param writeConcern
+	 *            The write concern profile, the one of the endpoint if null.
 	 * 
 	 * @return HTTP 201, the header Location contains the URL of the created
 	 *         customer.
 	 */
-	@PreAuthorize("#oauth2.hasAnyScope('write','read-write')")
+	@RequiredScopes({ "write", "read-write" })
 	@RequestMapping(method = POST, consumes = { APPLICATION_JSON_UTF8_VALUE })
-	public Mono<ResponseEntity<?>> addCustomer(@RequestBody @Valid Customer newCustomer) {
+	public Mono<ResponseEntity<?>> addCustomer(@RequestBody @Valid Customer newCustomer,
+			@RequestHeader(name = WRITE_CONCERN_HEADER, required = false) String writeConcern) {
 
-		return Mono.justOrEmpty(newCustomer.getId())
+		return writes.profile("addCustomer", writeConcern).flatMap(profile -> Mono.justOrEmpty(newCustomer.getId())
 			.flatMap(id -> repo.existsById(id))
 			.defaultIfEmpty(Boolean.FALSE)
 			.flatMap(exists -> {
@@ -100,10 +216,10 @@ public class CustomerController {
 						"Customer already exists, to update an existing customer use PUT instead.");
 				}
 
-				return repo.save(newCustomer).map(saved -> {
+				return writes.save(newCustomer, profile).map(saved -> {
 					return created(URI.create(format("/customers/%s", saved.getId()))).build();
 				});
-			});
+			}));
 	}
 
 	/**
@@ -117,23 +233,28 @@ public class CustomerController {
 	 * @param update
 	 *            The Customer object containing the updated version to be
 	 *            persisted.
+	 * @param writeConcern
+	 *            The write concern profile, the one of the endpoint if null.
 	 * 
 	 * @return HTTP 204 otherwise HTTP 400 if the customer does not exist.
 	 */
-	@PreAuthorize("#oauth2.hasAnyScope('write','read-write')")
+	@RequiredScopes({ "write", "read-write" })
 	@RequestMapping(method = PUT, value = "/{id}", consumes = { APPLICATION_JSON_UTF8_VALUE })
 	public Mono<ResponseEntity<?>> updateCustomer(@PathVariable @NotNull ObjectId id,
-			@RequestBody @Valid Customer customerToUpdate) {
+			@RequestBody @Valid Customer customerToUpdate,
+			@RequestHeader(name = WRITE_CONCERN_HEADER, required = false) String writeConcern) {
 
-		return repo.existsById(id).flatMap(exists -> {
+		return writes.profile("updateCustomer", writeConcern).flatMap(profile -> repo.existsById(id).flatMap(exists -> {
 
 			if (!exists) {
 				throw new CustomerServiceException(HttpStatus.BAD_REQUEST,
 					"Customer does not exist, to create a new customer use POST instead.");
 			}
 
-			return repo.save(customerToUpdate).then(Mono.just(noContent().build()));
-		});
+			return writes.save(customerToUpdate, profile)
+				.doOnSuccess(updated -> invalidate(id, profile))
+				.then(Mono.just(noContent().build()));
+		}));
 	}
 
 	/**
@@ -145,17 +266,32 @@ public class CustomerController {
 	 * 
 	 * @param id
 	 *            The id of the customer to delete.
+	 * @param writeConcern
+	 *            The write concern profile, the one of the endpoint if null.
 	 * @return HTTP 204
 	 */
-	@PreAuthorize("#oauth2.hasAnyScope('write','read-write')")
+	@RequiredScopes({ "write", "read-write" })
 	@RequestMapping(method = DELETE, value = "/{id}")
-	public Mono<ResponseEntity<?>> deleteCustomer(@PathVariable @NotNull ObjectId id) {
+	public Mono<ResponseEntity<?>> deleteCustomer(@PathVariable @NotNull ObjectId id,
+			@RequestHeader(name = WRITE_CONCERN_HEADER, required = false) String writeConcern) {
 
 		final Mono<ResponseEntity<?>> noContent = Mono.just(noContent().build());
 
-		return repo.existsById(id)
+		return writes.profile("deleteCustomer", writeConcern).flatMap(profile -> repo.existsById(id)
 			.filter(Boolean::valueOf) // Delete only if customer exists
-			.flatMap(exists -> repo.deleteById(id).then(noContent))
-			.switchIfEmpty(noContent);
+			.flatMap(exists -> writes.deleteById(id, profile)
+				.doOnSuccess(deleted -> invalidate(id, profile))
+				.then(noContent))
+			.switchIfEmpty(noContent));
+	}
+
+	/* An unacknowledged write may be applied after the next read, which must not be cached */
+	private void invalidate(ObjectId id, String profile) {
+
+		if (writes.isAcknowledged(profile)) {
+			responseCache.invalidate(id);
+		} else {
+			responseCache.invalidateUnacknowledged(id);
+		}
 	}
 }
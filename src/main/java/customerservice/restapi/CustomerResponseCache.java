@@ -0,0 +1,202 @@
+package customerservice.restapi;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import customerservice.CustomerServiceException;
+import customerservice.domain.Customer;
+
+/**
+ * Cache of serialized customers, each entry holds the JSON bytes of a customer and the same bytes
+ * already gzipped so repeated reads skip both serialization and compression.
+ * <p>
+ * A read takes the version of the customer id before querying the database, every invalidation of
+ * the id bumps it so a read that raced with an update or a delete can not put a stale customer back
+ * in the cache. Versions are kept in a fixed number of stripes by id hash: two ids sharing a stripe
+ * only cost each other a cache fill.
+ * <p>
+ * An unacknowledged write (w=0) completes before the server applies it, a read meanwhile would cache
+ * the old customer: after such a write the ids of its stripe are not cached for {@code ttlSeconds}.
+ * <p>
+ * The cache is local to the instance, the writes served by other instances do not invalidate it.
+ * Entries expire after {@code ttlSeconds}, the bound on how long an instance serves a customer
+ * updated elsewhere.
+ */
+@Component
+public class CustomerResponseCache {
+
+	private static final int VERSION_STRIPES = 4096;
+
+	private final ConcurrentHashMap<ObjectId, CachedResponse> responses = new ConcurrentHashMap<>();
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+	private final AtomicLongArray uncachedUntil = new AtomicLongArray(VERSION_STRIPES);
+
+	private final ObjectMapper objectMapper;
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier nanoClock;
+
+	@Autowired
+	public CustomerResponseCache(ObjectMapper objectMapper,
+			@Value("${customers.response-cache.max-entries:10000}") int maxEntries,
+			@Value("${customers.response-cache.ttl-seconds:30}") long ttlSeconds) {
+		this(objectMapper, maxEntries, ttlSeconds, System::nanoTime);
+	}
+
+	CustomerResponseCache(ObjectMapper objectMapper, int maxEntries, long ttlSeconds, LongSupplier nanoClock) {
+		this.objectMapper = objectMapper;
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * @param id
+	 *            The id of the customer
+	 * @return The version to pass to {@link #put(ObjectId, long, Customer)}, it must be taken
+	 *         before querying the database.
+	 */
+	public long currentVersion(ObjectId id) {
+		return versions.get(stripe(id));
+	}
+
+	/**
+	 * @param id
+	 *            The id of the customer
+	 * @return The cached response or null if the customer is not cached or expired
+	 */
+	public CachedResponse get(ObjectId id) {
+
+		final CachedResponse response = responses.get(id);
+		if (response != null && nanoClock.getAsLong() - response.expiresAt >= 0) {
+			responses.remove(id, response);
+			return null;
+		}
+		return response;
+	}
+
+	/**
+	 * Serialize and compress a customer then cache the result unless the cache has been
+	 * invalidated since {@code readVersion} was taken.
+	 *
+	 * @param id
+	 *            The id of the customer
+	 * @param readVersion
+	 *            The version of the id taken before the customer was read
+	 * @param customer
+	 *            The customer to cache
+	 * @return The serialized customer, cached or not
+	 */
+	public CachedResponse put(ObjectId id, long readVersion, Customer customer) {
+
+		final CachedResponse response = serialize(customer);
+		if (readVersion != currentVersion(id) || nanoClock.getAsLong() - uncachedUntil.get(stripe(id)) < 0) {
+			return response;
+		}
+
+		evictIfFull();
+		responses.put(id, response);
+
+		// An invalidation may have happened in the meantime
+		if (readVersion != currentVersion(id)) {
+			responses.remove(id, response);
+		}
+		return response;
+	}
+
+	/**
+	 * Serialize and compress a customer without caching it.
+	 *
+	 * @param customer
+	 *            The customer
+	 * @return The serialized customer
+	 */
+	public CachedResponse serialize(Customer customer) {
+
+		try {
+			final byte[] json = objectMapper.writeValueAsBytes(customer);
+
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 2 + 32);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+				gzip.write(json);
+			}
+
+			return new CachedResponse(nanoClock.getAsLong() + ttlNanos, json, bytes.toByteArray());
+
+		} catch (IOException e) {
+			throw new CustomerServiceException(INTERNAL_SERVER_ERROR, e.getMessage());
+		}
+	}
+
+	/**
+	 * Must be called once a customer has been updated or deleted.
+	 *
+	 * @param id
+	 *            The id of the updated or deleted customer
+	 */
+	public void invalidate(ObjectId id) {
+		versions.incrementAndGet(stripe(id));
+		responses.remove(id);
+	}
+
+	/**
+	 * Must be called once an update or a delete has been sent without acknowledgement.
+	 *
+	 * @param id
+	 *            The id of the updated or deleted customer
+	 */
+	public void invalidateUnacknowledged(ObjectId id) {
+		uncachedUntil.set(stripe(id), nanoClock.getAsLong() + ttlNanos);
+		invalidate(id);
+	}
+
+	private void evictIfFull() {
+
+		final Iterator<ObjectId> ids = responses.keySet().iterator();
+		while (responses.size() >= maxEntries && ids.hasNext()) {
+			ids.next();
+			ids.remove();
+		}
+	}
+
+	private static int stripe(ObjectId id) {
+		final int hash = id.hashCode();
+		return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+	}
+
+	public static final class CachedResponse {
+
+		private final long expiresAt;
+		private final byte[] json;
+		private final byte[] gzippedJson;
+
+		private CachedResponse(long expiresAt, byte[] json, byte[] gzippedJson) {
+			this.expiresAt = expiresAt;
+			this.json = json;
+			this.gzippedJson = gzippedJson;
+		}
+
+		public byte[] getJson() {
+			return json;
+		}
+
+		public byte[] getGzippedJson() {
+			return gzippedJson;
+		}
+	}
+}
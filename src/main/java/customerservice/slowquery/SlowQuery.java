@@ -0,0 +1,60 @@
+package customerservice.slowquery;
+
+import java.time.Instant;
+
+/**
+ * A MongoDB command that went over the slow query threshold, its plan is filled in once the
+ * explain completes.
+ */
+public final class SlowQuery {
+
+	private final Instant timestamp;
+	private final String command;
+	private final String collection;
+	private final long durationMillis;
+	private final String statement;
+
+	private volatile Object plan = "pending";
+
+	SlowQuery(Instant timestamp, String command, String collection, long durationMillis, String statement) {
+		this.timestamp = timestamp;
+		this.command = command;
+		this.collection = collection;
+		this.durationMillis = durationMillis;
+		this.statement = statement;
+	}
+
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	public String getCollection() {
+		return collection;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	/**
+	 * @return The command as JSON, truncated
+	 */
+	public String getStatement() {
+		return statement;
+	}
+
+	/**
+	 * @return The query planner output of explain, or why there is none
+	 */
+	public Object getPlan() {
+		return plan;
+	}
+
+	void setPlan(Object plan) {
+		this.plan = plan;
+	}
+}
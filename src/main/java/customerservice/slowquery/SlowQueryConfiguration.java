@@ -0,0 +1,55 @@
+package customerservice.slowquery;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.util.StringUtils;
+
+import customerservice.domain.Customer;
+
+@Configuration
+@ConditionalOnProperty(name = "slow-query.enabled", matchIfMissing = true)
+public class SlowQueryConfiguration {
+
+	@Value("${slow-query.threshold-ms:100}")
+	private long thresholdMillis;
+
+	@Value("${slow-query.max-entries:100}")
+	private int maxEntries;
+
+	@Value("${slow-query.max-concurrent-explains:2}")
+	private int maxConcurrentExplains;
+
+	@Bean
+	public SlowQueryStore slowQueryStore() {
+		return new SlowQueryStore(maxEntries);
+	}
+
+	@Bean
+	public SlowQueryEndpoint slowQueryEndpoint() {
+		return new SlowQueryEndpoint(slowQueryStore());
+	}
+
+	/**
+	 * The template is looked up on the first slow query, it depends on the client this listener is
+	 * registered with.
+	 */
+	@Bean
+	public MongoClientSettingsBuilderCustomizer slowQueryListenerCustomizer(
+			ObjectProvider<ReactiveMongoTemplate> template) {
+
+		/* The default collection name of Spring Data */
+		final String collection = StringUtils.uncapitalize(Customer.class.getSimpleName());
+		final SlowQueryListener listener = new SlowQueryListener(Collections.singleton(collection),
+				Duration.ofMillis(thresholdMillis), maxConcurrentExplains,
+				explain -> template.getObject().executeCommand(explain), slowQueryStore());
+		return settings -> settings.addCommandListener(listener);
+	}
+}
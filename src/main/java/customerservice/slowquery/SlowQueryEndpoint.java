@@ -0,0 +1,24 @@
+package customerservice.slowquery;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint listing the slow queries, the most recent first: {@code /application/slowqueries}.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+	private final SlowQueryStore store;
+
+	public SlowQueryEndpoint(SlowQueryStore store) {
+		this.store = store;
+	}
+
+	@ReadOperation
+	public List<SlowQuery> slowQueries() {
+		return store.getQueries();
+	}
+}
@@ -0,0 +1,191 @@
+package customerservice.slowquery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * MongoDB driver listener capturing the commands on the watched collections that take longer than
+ * {@code threshold}, they are kept in a {@link SlowQueryStore} with their explain plan.
+ * <p>
+ * Only explainable commands (find, aggregate, count, distinct, update, delete, findAndModify) on the
+ * watched collections are tracked, their document is copied when they start since the driver
+ * recycles its buffers. The explain runs asynchronously in {@code queryPlanner} mode, which plans the
+ * query without executing it, at most {@code maxConcurrentExplains} at a time: slow queries beyond
+ * are stored without a plan.
+ * <p>
+ * Commands carry customer data (filters, updated documents), the stored statement only keeps their
+ * shape: the field names and operators, every value replaced with {@value #REDACTED} and arrays
+ * reduced to their first element. The values of the plan (parsed query, filters, index bounds) are
+ * redacted the same way.
+ */
+public class SlowQueryListener implements CommandListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryListener.class);
+
+	private static final Set<String> EXPLAINABLE = new HashSet<>(
+			Arrays.asList("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify"));
+
+	/* Added by the driver, not accepted inside an explain */
+	private static final Set<String> DRIVER_FIELDS = new HashSet<>(
+			Arrays.asList("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "readConcern"));
+
+	/* Parts of a query plan holding the values of the query */
+	private static final Set<String> PLAN_VALUES = new HashSet<>(
+			Arrays.asList("parsedQuery", "filter", "indexBounds"));
+
+	static final String REDACTED = "?";
+
+	private static final int MAX_STATEMENT_LENGTH = 2048;
+	private static final Duration EXPLAIN_TIMEOUT = Duration.ofSeconds(10);
+
+	private final ConcurrentHashMap<Integer, BsonDocument> startedCommands = new ConcurrentHashMap<>();
+	private final AtomicInteger explainsInFlight = new AtomicInteger();
+
+	private final Set<String> collections;
+	private final long thresholdNanos;
+	private final int maxConcurrentExplains;
+	private final Function<Document, Mono<Document>> explainer;
+	private final SlowQueryStore store;
+
+	/**
+	 * @param collections
+	 *            The watched collections
+	 * @param threshold
+	 *            The duration from which a command is slow
+	 * @param maxConcurrentExplains
+	 *            The maximum number of explain commands running at the same time
+	 * @param explainer
+	 *            Runs an explain command
+	 * @param store
+	 *            The store of the slow queries
+	 */
+	public SlowQueryListener(Set<String> collections, Duration threshold, int maxConcurrentExplains,
+			Function<Document, Mono<Document>> explainer, SlowQueryStore store) {
+		this.collections = collections;
+		this.thresholdNanos = threshold.toNanos();
+		this.maxConcurrentExplains = maxConcurrentExplains;
+		this.explainer = explainer;
+		this.store = store;
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+
+		if (!EXPLAINABLE.contains(event.getCommandName())) {
+			return;
+		}
+		final BsonValue collection = event.getCommand().get(event.getCommandName());
+		if (collection != null && collection.isString() && collections.contains(collection.asString().getValue())) {
+			startedCommands.put(event.getRequestId(), event.getCommand().clone());
+		}
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+	}
+
+	private void completed(int requestId, String commandName, long elapsedNanos) {
+
+		final BsonDocument command = startedCommands.remove(requestId);
+		if (command == null || elapsedNanos < thresholdNanos) {
+			return;
+		}
+
+		DRIVER_FIELDS.forEach(command::remove);
+		final String statement = ((Document) shape(toDocument(command))).toJson();
+		final SlowQuery query = new SlowQuery(Instant.now(), commandName,
+				command.getString(commandName, new BsonString("")).getValue(),
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				statement.length() > MAX_STATEMENT_LENGTH ? statement.substring(0, MAX_STATEMENT_LENGTH) + "..." : statement);
+		store.add(query);
+
+		explain(query, command);
+	}
+
+	private void explain(SlowQuery query, BsonDocument command) {
+
+		if (explainsInFlight.incrementAndGet() > maxConcurrentExplains) {
+			explainsInFlight.decrementAndGet();
+			query.setPlan("skipped, too many explains running");
+			return;
+		}
+
+		final Document explain = new Document("explain", toDocument(command)).append("verbosity", "queryPlanner");
+		explainer.apply(explain)
+			.timeout(EXPLAIN_TIMEOUT)
+			.doFinally(signal -> explainsInFlight.decrementAndGet())
+			.subscribe(result -> query.setPlan(redactPlan(result.get("queryPlanner", result))), e -> {
+				LOGGER.debug("Explain of a slow {} failed: {}", query.getCommand(), e.getMessage());
+				query.setPlan("explain failed: " + e.getMessage());
+			});
+	}
+
+	private static Document toDocument(BsonDocument bson) {
+		return new DocumentCodec().decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+	}
+
+	/* Field names and operators only */
+	static Object shape(Object value) {
+
+		if (value instanceof Map) {
+			final Document shape = new Document();
+			((Map<?, ?>) value).forEach((name, field) -> shape.put(name.toString(), shape(field)));
+			return shape;
+		}
+		if (value instanceof List) {
+			final List<?> list = (List<?>) value;
+			return list.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(shape(list.get(0))));
+		}
+		return REDACTED;
+	}
+
+	/* Stages, indexes and statistics are kept, the values of the query are not */
+	static Object redactPlan(Object plan) {
+
+		if (plan instanceof Map) {
+			final Document redacted = new Document();
+			((Map<?, ?>) plan).forEach((name, field) -> redacted.put(name.toString(),
+					PLAN_VALUES.contains(name) ? shape(field) : redactPlan(field)));
+			return redacted;
+		}
+		if (plan instanceof List) {
+			final List<Object> redacted = new ArrayList<>();
+			((List<?>) plan).forEach(element -> redacted.add(redactPlan(element)));
+			return redacted;
+		}
+		return plan;
+	}
+}
@@ -0,0 +1,37 @@
+package customerservice.slowquery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The last {@code maxEntries} slow queries, the oldest are evicted.
+ */
+public class SlowQueryStore {
+
+	private final ArrayDeque<SlowQuery> queries;
+	private final int maxEntries;
+
+	public SlowQueryStore(int maxEntries) {
+		this.maxEntries = maxEntries;
+		this.queries = new ArrayDeque<>(maxEntries);
+	}
+
+	public synchronized void add(SlowQuery query) {
+
+		if (queries.size() == maxEntries) {
+			queries.removeFirst();
+		}
+		queries.addLast(query);
+	}
+
+	/**
+	 * @return The slow queries, the most recent first
+	 */
+	public synchronized List<SlowQuery> getQueries() {
+
+		final List<SlowQuery> mostRecentFirst = new ArrayList<>(queries.size());
+		queries.descendingIterator().forEachRemaining(mostRecentFirst::add);
+		return mostRecentFirst;
+	}
+}
@@ -0,0 +1,170 @@
+package customerservice.tls;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Key manager serving the keys of a keystore file and reloading them when the file changes.
+ * <p>
+ * Handshakes started after a reload use the new certificate, open connections and cached sessions
+ * are not affected. A keystore that fails to load is ignored and the current keys are kept. Only
+ * keystores on the file system are watched, a keystore inside a jar is loaded once and a warning
+ * says so at startup.
+ */
+public class ReloadingKeyManager extends X509ExtendedKeyManager implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReloadingKeyManager.class);
+
+	private final Resource keyStore;
+	private final String keyStoreType;
+	private final char[] keyStorePassword;
+	private final char[] keyPassword;
+
+	private volatile X509ExtendedKeyManager delegate;
+	private volatile long lastModified;
+
+	private Disposable watcher;
+
+	public ReloadingKeyManager(Resource keyStore, String keyStoreType, String keyStorePassword, String keyPassword)
+			throws IOException, GeneralSecurityException {
+		this.keyStore = keyStore;
+		this.keyStoreType = keyStoreType;
+		this.keyStorePassword = keyStorePassword.toCharArray();
+		this.keyPassword = (keyPassword == null ? keyStorePassword : keyPassword).toCharArray();
+		this.lastModified = lastModified();
+		this.delegate = load();
+	}
+
+	/**
+	 * Check the keystore file for changes periodically.
+	 *
+	 * @param period
+	 *            The period of the checks
+	 * @return This
+	 */
+	public ReloadingKeyManager watch(Duration period) {
+
+		if (lastModified > 0) {
+			LOGGER.info("Keystore {} checked for changes every {}", keyStore, period);
+			watcher = Flux.interval(period).subscribe(tick -> reloadIfModified());
+		} else {
+			LOGGER.warn("Keystore {} is not a file, it will not be reloaded: use a file: location to reload it", keyStore);
+		}
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if (watcher != null) {
+			watcher.dispose();
+		}
+	}
+
+	/**
+	 * Reload the keystore if the file changed since it was loaded.
+	 *
+	 * @return true if the keys were reloaded
+	 */
+	public boolean reloadIfModified() {
+
+		final long modified = lastModified();
+		if (modified == lastModified) {
+			return false;
+		}
+
+		try {
+			delegate = load();
+			lastModified = modified;
+			LOGGER.info("Keystore {} reloaded", keyStore);
+			return true;
+		} catch (IOException | GeneralSecurityException e) {
+			LOGGER.warn("Keystore {} not reloaded, keeping the current keys: {}", keyStore, e.getMessage());
+			return false;
+		}
+	}
+
+	private X509ExtendedKeyManager load() throws IOException, GeneralSecurityException {
+
+		final KeyStore store = KeyStore.getInstance(keyStoreType);
+		try (InputStream in = keyStore.getInputStream()) {
+			store.load(in, keyStorePassword);
+		}
+
+		final KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		factory.init(store, keyPassword);
+
+		for (KeyManager keyManager : factory.getKeyManagers()) {
+			if (keyManager instanceof X509ExtendedKeyManager) {
+				return (X509ExtendedKeyManager) keyManager;
+			}
+		}
+		throw new GeneralSecurityException("No X509 key manager for keystore " + keyStore);
+	}
+
+	private long lastModified() {
+		try {
+			return keyStore.isFile() ? keyStore.lastModified() : 0;
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	@Override
+	public String[] getClientAliases(String keyType, Principal[] issuers) {
+		return delegate.getClientAliases(keyType, issuers);
+	}
+
+	@Override
+	public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+		return delegate.chooseClientAlias(keyType, issuers, socket);
+	}
+
+	@Override
+	public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+		return delegate.chooseEngineClientAlias(keyType, issuers, engine);
+	}
+
+	@Override
+	public String[] getServerAliases(String keyType, Principal[] issuers) {
+		return delegate.getServerAliases(keyType, issuers);
+	}
+
+	@Override
+	public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+		return delegate.chooseServerAlias(keyType, issuers, socket);
+	}
+
+	@Override
+	public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+		return delegate.chooseEngineServerAlias(keyType, issuers, engine);
+	}
+
+	@Override
+	public X509Certificate[] getCertificateChain(String alias) {
+		return delegate.getCertificateChain(alias);
+	}
+
+	@Override
+	public PrivateKey getPrivateKey(String alias) {
+		return delegate.getPrivateKey(alias);
+	}
+}
@@ -0,0 +1,83 @@
+package customerservice.tls;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.undertow.UndertowReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.server.ConfigurableReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import io.undertow.UndertowOptions;
+
+/**
+ * The {@code tls} profile: HTTP/2 on the embedded Undertow server.
+ * <p>
+ * An HTTPS listener on {@code tls.port} negotiates h2 with ALPN and falls back to HTTP/1.1, the
+ * plain listener on {@code server.port} accepts h2c (prior knowledge or upgrade). Clients
+ * multiplex their requests over a single connection instead of opening one per concurrent request.
+ * <p>
+ * Handshakes are kept to a minimum: sessions are cached ({@code tls.session-cache-size},
+ * {@code tls.session-timeout-seconds}) so returning clients resume them with an abbreviated
+ * handshake. Stateless ticket resumption (JDK 13+) can only be set by the JVM option
+ * {@code -Djdk.tls.server.enableSessionTicketExtension}, see {@code application-tls.properties}. The
+ * keystore is reloaded when its file changes, see {@link ReloadingKeyManager}.
+ * <p>
+ * The profile needs the Undertow runtime, the service does not start with {@code webserver.runtime=netty}.
+ */
+@Configuration
+@Profile("tls")
+@EnableConfigurationProperties(TlsProperties.class)
+public class TlsConfiguration {
+
+	private static final String SESSION_TICKETS_PROPERTY = "jdk.tls.server.enableSessionTicketExtension";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TlsConfiguration.class);
+
+	@Bean
+	public ReloadingKeyManager reloadingKeyManager(TlsProperties tls) throws IOException, GeneralSecurityException {
+		return new ReloadingKeyManager(tls.getKeyStore(), tls.getKeyStoreType(), tls.getKeyStorePassword(),
+				tls.getKeyPassword()).watch(Duration.ofSeconds(tls.getReloadSeconds()));
+	}
+
+	@Bean
+	public SSLContext serverSslContext(TlsProperties tls, ReloadingKeyManager keyManager)
+			throws GeneralSecurityException {
+
+		final SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(new KeyManager[] { keyManager }, null, null);
+
+		final SSLSessionContext sessions = sslContext.getServerSessionContext();
+		sessions.setSessionCacheSize(tls.getSessionCacheSize());
+		sessions.setSessionTimeout(tls.getSessionTimeoutSeconds());
+		return sslContext;
+	}
+
+	@Bean
+	public WebServerFactoryCustomizer<ConfigurableReactiveWebServerFactory> http2Customizer(TlsProperties tls,
+			SSLContext serverSslContext) {
+
+		return factory -> {
+			if (!(factory instanceof UndertowReactiveWebServerFactory)) {
+				throw new IllegalStateException(String.format(
+						"The tls profile serves HTTP/2 on Undertow only, not on %s (webserver.runtime)",
+						factory.getClass().getSimpleName()));
+			}
+			LOGGER.info("TLS session tickets: -D{}={}", SESSION_TICKETS_PROPERTY,
+					System.getProperty(SESSION_TICKETS_PROPERTY, "<JDK default>"));
+			((UndertowReactiveWebServerFactory) factory).addBuilderCustomizers(builder -> builder
+					.setServerOption(UndertowOptions.ENABLE_HTTP2, true)
+					.addHttpsListener(tls.getPort(), tls.getHost(), serverSslContext));
+		};
+	}
+}
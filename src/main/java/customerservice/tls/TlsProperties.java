@@ -0,0 +1,96 @@
+package customerservice.tls;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+/**
+ * HTTPS listener of the {@code tls} profile, configured with the {@code tls.*} properties.
+ */
+@ConfigurationProperties(prefix = "tls")
+public class TlsProperties {
+
+	private int port = 8443;
+	private String host = "0.0.0.0";
+
+	private Resource keyStore;
+	private String keyStoreType = "JKS";
+	private String keyStorePassword;
+	private String keyPassword;
+
+	private int sessionCacheSize = 20_000;
+	private int sessionTimeoutSeconds = 86_400;
+
+	private int reloadSeconds = 30;
+
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	public Resource getKeyStore() {
+		return keyStore;
+	}
+
+	public void setKeyStore(Resource keyStore) {
+		this.keyStore = keyStore;
+	}
+
+	public String getKeyStoreType() {
+		return keyStoreType;
+	}
+
+	public void setKeyStoreType(String keyStoreType) {
+		this.keyStoreType = keyStoreType;
+	}
+
+	public String getKeyStorePassword() {
+		return keyStorePassword;
+	}
+
+	public void setKeyStorePassword(String keyStorePassword) {
+		this.keyStorePassword = keyStorePassword;
+	}
+
+	public String getKeyPassword() {
+		return keyPassword;
+	}
+
+	public void setKeyPassword(String keyPassword) {
+		this.keyPassword = keyPassword;
+	}
+
+	public int getSessionCacheSize() {
+		return sessionCacheSize;
+	}
+
+	public void setSessionCacheSize(int sessionCacheSize) {
+		this.sessionCacheSize = sessionCacheSize;
+	}
+
+	public int getSessionTimeoutSeconds() {
+		return sessionTimeoutSeconds;
+	}
+
+	public void setSessionTimeoutSeconds(int sessionTimeoutSeconds) {
+		this.sessionTimeoutSeconds = sessionTimeoutSeconds;
+	}
+
+	public int getReloadSeconds() {
+		return reloadSeconds;
+	}
+
+	public void setReloadSeconds(int reloadSeconds) {
+		this.reloadSeconds = reloadSeconds;
+	}
+}
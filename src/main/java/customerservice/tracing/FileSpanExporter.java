@@ -0,0 +1,100 @@
+package customerservice.tracing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Appends the spans to a file, one JSON object per line.
+ * <p>
+ * Spans are queued and written by a background thread, when the queue is full they are dropped.
+ */
+public class FileSpanExporter implements SpanExporter, AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileSpanExporter.class);
+
+	private final BlockingQueue<Span> queue;
+	private final Writer writer;
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	public FileSpanExporter(Path file, int queueSize) throws IOException {
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+		this.thread = new Thread(this::writeLoop, "span-file-exporter");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void export(Span span) {
+		queue.offer(span);
+	}
+
+	@Override
+	public void close() throws InterruptedException, IOException {
+		running = false;
+		thread.join(TimeUnit.SECONDS.toMillis(5));
+		writer.close();
+	}
+
+	private void writeLoop() {
+
+		while (running || !queue.isEmpty()) {
+			try {
+				final Span span = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (span != null) {
+					writer.write(toJson(span));
+					writer.write('\n');
+				}
+				if (queue.isEmpty()) {
+					writer.flush();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (IOException e) {
+				LOGGER.warn("Span not written: {}", e.getMessage());
+			}
+		}
+	}
+
+	static String toJson(Span span) {
+
+		final StringBuilder json = new StringBuilder(256)
+				.append("{\"traceId\":\"").append(span.getTraceId())
+				.append("\",\"id\":\"").append(span.getSpanId()).append('"');
+		if (span.getParentId() != null) {
+			json.append(",\"parentId\":\"").append(span.getParentId()).append('"');
+		}
+		json.append(",\"name\":\"").append(JsonStringEncoder.getInstance().quoteAsString(span.getName()))
+			.append("\",\"timestamp\":").append(span.getStartEpochMicros())
+			.append(",\"duration\":").append(span.getDurationMicros())
+			.append(",\"tags\":{");
+
+		boolean first = true;
+		for (Map.Entry<String, String> tag : span.getTags().entrySet()) {
+			if (!first) {
+				json.append(',');
+			}
+			first = false;
+			json.append('"').append(JsonStringEncoder.getInstance().quoteAsString(tag.getKey())).append("\":\"")
+				.append(JsonStringEncoder.getInstance().quoteAsString(String.valueOf(tag.getValue()))).append('"');
+		}
+		return json.append("}}").toString();
+	}
+}
@@ -0,0 +1,38 @@
+package customerservice.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last {@code maxSpans} ended spans in memory.
+ */
+public class InMemorySpanCollector implements SpanExporter {
+
+	private final ArrayDeque<Span> spans;
+	private final int maxSpans;
+
+	public InMemorySpanCollector(int maxSpans) {
+		this.maxSpans = maxSpans;
+		this.spans = new ArrayDeque<>(maxSpans);
+	}
+
+	@Override
+	public synchronized void export(Span span) {
+
+		if (spans.size() == maxSpans) {
+			spans.removeFirst();
+		}
+		spans.addLast(span);
+	}
+
+	/**
+	 * @return The spans, the most recently ended first
+	 */
+	public synchronized List<Span> getSpans() {
+
+		final List<Span> mostRecentFirst = new ArrayList<>(spans.size());
+		spans.descendingIterator().forEachRemaining(mostRecentFirst::add);
+		return mostRecentFirst;
+	}
+}
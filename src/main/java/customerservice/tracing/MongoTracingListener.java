@@ -0,0 +1,173 @@
+package customerservice.tracing;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.reactivestreams.Subscription;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
+import reactor.util.context.Context;
+
+/**
+ * Spans of the MongoDB driver commands, children of the repository span that issued them.
+ * <p>
+ * The driver knows nothing of the Reactor {@code Context}: while an operation is requested its span
+ * is handed over to the requesting thread, where the driver starts the command right away, and
+ * picked up by {@code commandStarted}. The handover is consumed by the first command and cleared
+ * once the request returns, it never outlives the request. Commands started asynchronously, e.g. waiting for a pooled connection,
+ * get no span, their time is still covered by the repository span.
+ */
+public class MongoTracingListener implements CommandListener {
+
+	private static final ThreadLocal<Span> HANDOVER = new ThreadLocal<>();
+
+	private final ConcurrentHashMap<Integer, Span> commands = new ConcurrentHashMap<>();
+
+	/**
+	 * @param mono
+	 *            A repository operation
+	 * @return The operation, handing the current span over to the driver when requested
+	 */
+	public static <T> Mono<T> handOver(Mono<T> mono) {
+		return Mono.subscriberContext().flatMap(context -> {
+			final Span span = Tracing.currentSpan(context);
+			return span == null ? mono : new HandOverMono<>(mono, span);
+		});
+	}
+
+	/**
+	 * @param flux
+	 *            A repository operation
+	 * @return The operation, see {@link #handOver(Mono)}
+	 */
+	public static <T> Flux<T> handOver(Flux<T> flux) {
+		return Mono.subscriberContext().flatMapMany(context -> {
+			final Span span = Tracing.currentSpan(context);
+			return span == null ? flux : new HandOverFlux<>(flux, span);
+		});
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+
+		final Span parent = HANDOVER.get();
+		if (parent == null) {
+			return;
+		}
+		HANDOVER.remove();
+		if (!parent.isEnded()) {
+			commands.put(event.getRequestId(), parent.child("mongodb." + event.getCommandName())
+				.tag("db", event.getDatabaseName()));
+		}
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		end(event.getRequestId(), "success");
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		end(event.getRequestId(), "failure");
+	}
+
+	private void end(int requestId, String status) {
+
+		final Span span = commands.remove(requestId);
+		if (span != null) {
+			span.tag("status", status).end();
+		}
+	}
+
+	private static final class HandOverMono<T> extends MonoOperator<T, T> {
+
+		private final Span span;
+
+		private HandOverMono(Mono<T> source, Span span) {
+			super(source);
+			this.span = span;
+		}
+
+		@Override
+		public void subscribe(CoreSubscriber<? super T> actual) {
+			source.subscribe(new HandOverSubscriber<>(actual, span));
+		}
+	}
+
+	private static final class HandOverFlux<T> extends FluxOperator<T, T> {
+
+		private final Span span;
+
+		private HandOverFlux(Flux<T> source, Span span) {
+			super(source);
+			this.span = span;
+		}
+
+		@Override
+		public void subscribe(CoreSubscriber<? super T> actual) {
+			source.subscribe(new HandOverSubscriber<>(actual, span));
+		}
+	}
+
+	/* Sets the handover around each request, the commands are started inside */
+	private static final class HandOverSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+		private final CoreSubscriber<? super T> actual;
+		private final Span span;
+		private Subscription subscription;
+
+		private HandOverSubscriber(CoreSubscriber<? super T> actual, Span span) {
+			this.actual = actual;
+			this.span = span;
+		}
+
+		@Override
+		public Context currentContext() {
+			return actual.currentContext();
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			actual.onSubscribe(this);
+		}
+
+		@Override
+		public void onNext(T t) {
+			actual.onNext(t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			HANDOVER.set(span);
+			try {
+				subscription.request(n);
+			} finally {
+				HANDOVER.remove();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			subscription.cancel();
+		}
+	}
+}
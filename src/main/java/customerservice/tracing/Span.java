@@ -0,0 +1,107 @@
+package customerservice.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A timed operation of a sampled trace. Only sampled requests create spans, a span is exported
+ * when it ends.
+ */
+public final class Span {
+
+	private static final AtomicLongFieldUpdater<Span> DURATION = AtomicLongFieldUpdater.newUpdater(Span.class,
+			"durationNanos");
+
+	private final SpanExporter exporter;
+
+	private final long traceId;
+	private final long spanId;
+	private final long parentId;
+	private final String name;
+
+	private final long startEpochMicros;
+	private final long startNanos;
+	private volatile long durationNanos = -1;
+
+	private final Map<String, String> tags = new LinkedHashMap<>(4);
+
+	private Span(SpanExporter exporter, long traceId, long parentId, String name) {
+		this.exporter = exporter;
+		this.traceId = traceId;
+		this.spanId = ThreadLocalRandom.current().nextLong();
+		this.parentId = parentId;
+		this.name = name;
+		this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+		this.startNanos = System.nanoTime();
+	}
+
+	static Span root(SpanExporter exporter, String name) {
+		return new Span(exporter, ThreadLocalRandom.current().nextLong(), 0, name);
+	}
+
+	/**
+	 * @param name
+	 *            The name of the operation
+	 * @return A new span of the same trace, child of this one
+	 */
+	public Span child(String name) {
+		return new Span(exporter, traceId, spanId, name);
+	}
+
+	public Span tag(String key, String value) {
+		synchronized (tags) {
+			tags.put(key, value);
+		}
+		return this;
+	}
+
+	/**
+	 * End the span and export it, only the first call counts even when racing (cancel and
+	 * completion).
+	 */
+	public void end() {
+		if (durationNanos < 0 && DURATION.compareAndSet(this, -1, System.nanoTime() - startNanos)) {
+			exporter.export(this);
+		}
+	}
+
+	public boolean isEnded() {
+		return durationNanos >= 0;
+	}
+
+	public String getTraceId() {
+		return String.format("%016x", traceId);
+	}
+
+	public String getSpanId() {
+		return String.format("%016x", spanId);
+	}
+
+	/**
+	 * @return The id of the parent span, null for the root span
+	 */
+	public String getParentId() {
+		return parentId == 0 ? null : String.format("%016x", parentId);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getStartEpochMicros() {
+		return startEpochMicros;
+	}
+
+	public long getDurationMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(durationNanos);
+	}
+
+	public Map<String, String> getTags() {
+		synchronized (tags) {
+			return new LinkedHashMap<>(tags);
+		}
+	}
+}
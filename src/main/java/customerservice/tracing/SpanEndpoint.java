@@ -0,0 +1,24 @@
+package customerservice.tracing;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint listing the spans of the in-memory collector: {@code /application/spans}.
+ */
+@Endpoint(id = "spans")
+public class SpanEndpoint {
+
+	private final InMemorySpanCollector collector;
+
+	public SpanEndpoint(InMemorySpanCollector collector) {
+		this.collector = collector;
+	}
+
+	@ReadOperation
+	public List<Span> spans() {
+		return collector.getSpans();
+	}
+}
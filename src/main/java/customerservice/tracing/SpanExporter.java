@@ -0,0 +1,11 @@
+package customerservice.tracing;
+
+/**
+ * Receives the spans as they end, called on the thread ending the span: implementations must not
+ * block.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+
+	void export(Span span);
+}
@@ -0,0 +1,39 @@
+package customerservice.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the traces of the sampled requests.
+ * <p>
+ * Sampling is decided once at the head of the request: an unsampled request creates no span at all
+ * and nothing is put in its Reactor {@code Context}.
+ */
+public class Tracer {
+
+	private final double sampleRate;
+	private final SpanExporter exporter;
+
+	/**
+	 * @param sampleRate
+	 *            The share of the requests traced, from 0 (off) to 1 (all)
+	 * @param exporter
+	 *            Receives the ended spans
+	 */
+	public Tracer(double sampleRate, SpanExporter exporter) {
+		this.sampleRate = sampleRate;
+		this.exporter = exporter;
+	}
+
+	/**
+	 * @param name
+	 *            The name of the root span
+	 * @return The root span of a new trace, null if the request is not sampled
+	 */
+	public Span startTrace(String name) {
+
+		if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return null;
+		}
+		return Span.root(exporter, name);
+	}
+}
@@ -0,0 +1,66 @@
+package customerservice.tracing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Spans of reactive operations, the current span travels in the Reactor {@code Context} under the
+ * key {@code Span.class} instead of a ThreadLocal, so it follows the chain across thread hops.
+ * <p>
+ * Example:<br>
+ * {@code Tracing.span("repository.save", repo.save(customer))}
+ * <p>
+ * When the request is not sampled there is no span in the context and the operation is returned
+ * as is after a context lookup.
+ */
+public final class Tracing {
+
+	private Tracing() {
+	}
+
+	/**
+	 * @param name
+	 *            The name of the span
+	 * @param mono
+	 *            The operation
+	 * @return The operation, timed by a child span of the current one if the request is sampled
+	 */
+	public static <T> Mono<T> span(String name, Mono<T> mono) {
+
+		return Mono.subscriberContext().flatMap(context -> {
+			final Span parent = currentSpan(context);
+			if (parent == null) {
+				return mono;
+			}
+			final Span span = parent.child(name);
+			return mono.doFinally(signal -> span.end()).subscriberContext(c -> c.put(Span.class, span));
+		});
+	}
+
+	/**
+	 * @param name
+	 *            The name of the span
+	 * @param flux
+	 *            The operation
+	 * @return The operation, see {@link #span(String, Mono)}
+	 */
+	public static <T> Flux<T> span(String name, Flux<T> flux) {
+
+		return Mono.subscriberContext().flatMapMany(context -> {
+			final Span parent = currentSpan(context);
+			if (parent == null) {
+				return flux;
+			}
+			final Span span = parent.child(name);
+			return flux.doFinally(signal -> span.end()).subscriberContext(c -> c.put(Span.class, span));
+		});
+	}
+
+	/**
+	 * @return The current span, null if the request is not sampled
+	 */
+	public static Span currentSpan(Context context) {
+		return context.getOrDefault(Span.class, null);
+	}
+}
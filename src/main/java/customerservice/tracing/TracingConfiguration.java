@@ -0,0 +1,68 @@
+package customerservice.tracing;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request tracing: HTTP ({@link TracingWebFilter}), security (token verification), repository and
+ * MongoDB driver spans. {@code tracing.sample-rate} is the share of the requests traced, 0 turns
+ * tracing off. Spans are kept in memory ({@code /application/spans}) or appended to
+ * {@code tracing.file} with {@code tracing.exporter=file}.
+ */
+@Configuration
+public class TracingConfiguration {
+
+	@Value("${tracing.sample-rate:0}")
+	private double sampleRate;
+
+	@Value("${tracing.max-spans:1000}")
+	private int maxSpans;
+
+	@Value("${tracing.file:spans.jsonl}")
+	private String file;
+
+	@Bean
+	@ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory", matchIfMissing = true)
+	public InMemorySpanCollector inMemorySpanCollector() {
+		return new InMemorySpanCollector(maxSpans);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory", matchIfMissing = true)
+	public SpanEndpoint spanEndpoint(InMemorySpanCollector collector) {
+		return new SpanEndpoint(collector);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+	public FileSpanExporter fileSpanExporter() throws IOException {
+		return new FileSpanExporter(Paths.get(file), maxSpans);
+	}
+
+	@Bean
+	public Tracer tracer(SpanExporter exporter) {
+		return new Tracer(sampleRate, exporter);
+	}
+
+	@Bean
+	public TracingWebFilter tracingWebFilter(Tracer tracer) {
+		return new TracingWebFilter(tracer);
+	}
+
+	@Bean
+	public static TracingRepositoryPostProcessor tracingRepositoryPostProcessor() {
+		return new TracingRepositoryPostProcessor();
+	}
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoTracingCustomizer() {
+		final MongoTracingListener listener = new MongoTracingListener();
+		return settings -> settings.addCommandListener(listener);
+	}
+}
@@ -0,0 +1,37 @@
+package customerservice.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Traces the reactive repository operations as {@code repository.<method>} spans.
+ */
+public class TracingRepositoryPostProcessor implements BeanPostProcessor {
+
+	private static final MethodInterceptor TRACING = invocation -> {
+
+		final Object result = invocation.proceed();
+		final String name = "repository." + invocation.getMethod().getName();
+		if (result instanceof Mono) {
+			return Tracing.span(name, MongoTracingListener.handOver((Mono<?>) result));
+		}
+		if (result instanceof Flux) {
+			return Tracing.span(name, MongoTracingListener.handOver((Flux<?>) result));
+		}
+		return result;
+	};
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+		if (bean instanceof ReactiveCrudRepository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+			((Advised) bean).addAdvice(TRACING);
+		}
+		return bean;
+	}
+}
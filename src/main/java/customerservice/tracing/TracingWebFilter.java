@@ -0,0 +1,59 @@
+package customerservice.tracing;
+
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import customerservice.accesslog.AccessLogWebFilter;
+import customerservice.metrics.HandlerMetricsWebFilter;
+import customerservice.oauth2.BearerTokenAuthenticationWebFilter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Starts the trace of the sampled requests, the root span covers the rest of the chain and is
+ * tagged with the method, route, status and OAuth2 client.
+ */
+public class TracingWebFilter implements WebFilter, Ordered {
+
+	public static final int ORDER = HandlerMetricsWebFilter.ORDER + 1;
+
+	private final Tracer tracer;
+
+	public TracingWebFilter(Tracer tracer) {
+		this.tracer = tracer;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+		final Span span = tracer.startTrace("http.request");
+		if (span == null) {
+			return chain.filter(exchange);
+		}
+
+		span.tag("method", exchange.getRequest().getMethod().name());
+		return chain.filter(exchange)
+			.doFinally(signal -> {
+
+				final Object route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+				final OAuth2Authentication authentication = exchange
+						.getAttribute(BearerTokenAuthenticationWebFilter.AUTHENTICATION_ATTRIBUTE);
+
+				span.tag("route", route == null ? exchange.getRequest().getPath().value() : route.toString())
+					.tag("status", String.valueOf(AccessLogWebFilter.status(exchange, signal)));
+				if (authentication != null) {
+					span.tag("client", authentication.getOAuth2Request().getClientId());
+				}
+				span.end();
+			})
+			.subscriberContext(context -> context.put(Span.class, span));
+	}
+}
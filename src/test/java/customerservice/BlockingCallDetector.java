@@ -0,0 +1,41 @@
+package customerservice;
+
+import java.util.UUID;
+
+import customerservice.blocking.EventLoopThreads;
+import reactor.blockhound.BlockHound;
+
+/**
+ * Installs the BlockHound agent: a blocking call (sleep, lock, park, blocking I/O...) made from an
+ * event loop thread or a Reactor parallel thread throws a {@code BlockingOperationError} which fails
+ * the test.
+ * <p>
+ * Call {@code BlockingCallDetector.install()} before the tests, the agent stays installed for the
+ * life of the JVM. On JDK 13+ the JVM needs {@code -XX:+AllowRedefinitionToAddDeleteMethods}, set
+ * by the surefire and failsafe {@code argLine} of the pom.
+ */
+public final class BlockingCallDetector {
+
+	private static final EventLoopThreads EVENT_LOOPS = new EventLoopThreads(
+			EventLoopThreads.DEFAULT_PATTERN + "|parallel-\\d+");
+
+	private static boolean installed;
+
+	private BlockingCallDetector() {
+	}
+
+	public static synchronized void install() {
+
+		if (installed) {
+			return;
+		}
+
+		BlockHound.builder()
+			.nonBlockingThreadPredicate(current -> current.or(EVENT_LOOPS))
+			/* Class loading reads jars, the JDK seeds UUIDs (token ids) from /dev/urandom */
+			.allowBlockingCallsInside(ClassLoader.class.getName(), "loadClass")
+			.allowBlockingCallsInside(UUID.class.getName(), "randomUUID")
+			.install();
+		installed = true;
+	}
+}
@@ -10,6 +10,7 @@ import java.time.LocalDate;
 import java.time.Month;
 
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -38,6 +39,11 @@ public class CustomerServiceIT {
 	@LocalServerPort
 	private int port;
 
+	@BeforeClass
+	public static void installBlockingCallDetector() {
+		BlockingCallDetector.install();
+	}
+
 	@Before
 	public void init() {
 		RestAssured.baseURI = "https://localhost";
@@ -144,6 +144,34 @@ public class CustomerServiceTest {
 		assertThat(resp.statusCode()).isEqualTo(NOT_FOUND);
 	}
 
+	@Test
+	public void testActuatorEndpointsExposed() throws IOException {
+
+		final WebClient webClient = createSSLWebClient();
+		final String authorization = String.format("Bearer %s", requestToken(webClient));
+
+		ClientResponse resp = webClient.get().uri("/application/health").exchange().block();
+		resp.close();
+		assertThat(resp.statusCode()).isEqualTo(OK);
+
+		for (String endpoint : new String[] { "metrics", "metrics/http.server.handler", "slowqueries", "spans" }) {
+			resp = webClient.get().uri("/application/" + endpoint)
+					.header(AUTHORIZATION, authorization)
+					.exchange()
+					.block();
+			resp.close();
+			assertThat(resp.statusCode()).as(endpoint).isEqualTo(OK);
+		}
+
+		/* Not enabled over HTTP */
+		resp = webClient.get().uri("/application/env")
+				.header(AUTHORIZATION, authorization)
+				.exchange()
+				.block();
+		resp.close();
+		assertThat(resp.statusCode()).isEqualTo(NOT_FOUND);
+	}
+
 	/**
 	 * Request an OAuth2 token from the Authentication Server
 	 * 
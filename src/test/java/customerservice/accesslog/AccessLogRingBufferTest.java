@@ -0,0 +1,52 @@
+package customerservice.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AccessLogRingBufferTest {
+
+	@Test
+	public void shouldDrainRecordsInOrder() {
+
+		// Given
+		final AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+		buffer.offer(1, "GET", "/customers", "clientId", 200, 10, 5);
+		buffer.offer(2, "POST", "/customers", "clientId", 201, 20, 15);
+
+		// When
+		final List<String> drained = new ArrayList<>();
+		final int count = buffer.drain(record -> drained.add(record.method + " " + record.status), 10);
+
+		// Then
+		assertThat(count).isEqualTo(2);
+		assertThat(drained).containsExactly("GET 200", "POST 201");
+		assertThat(buffer.drain(record -> drained.add("unexpected"), 10)).isZero();
+	}
+
+	@Test
+	public void shouldDropRecordsWhenFull() {
+
+		// Given
+		final AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i, "GET", "/customers", null, 200, 1, 0)).isTrue();
+		}
+
+		// When
+		final boolean accepted = buffer.offer(5, "GET", "/customers", null, 200, 1, 0);
+
+		// Then
+		assertThat(accepted).isFalse();
+		assertThat(buffer.drain(record -> { }, 1)).isEqualTo(1);
+		assertThat(buffer.offer(6, "GET", "/customers", null, 200, 1, 0)).isTrue();
+	}
+
+	@Test
+	public void shouldRoundTheCapacityUpToAPowerOfTwo() {
+		assertThat(new AccessLogRingBuffer(1000).capacity()).isEqualTo(1024);
+	}
+}
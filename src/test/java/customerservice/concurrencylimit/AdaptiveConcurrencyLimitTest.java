@@ -0,0 +1,77 @@
+package customerservice.concurrencylimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+	@Test
+	public void shouldRejectOverTheLimit() {
+
+		// Given
+		final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 10);
+
+		// When
+		final boolean first = limit.tryAcquire();
+		final boolean second = limit.tryAcquire();
+		final boolean third = limit.tryAcquire();
+		limit.releaseWithoutSample();
+		final boolean afterRelease = limit.tryAcquire();
+
+		// Then
+		assertThat(first).isTrue();
+		assertThat(second).isTrue();
+		assertThat(third).isFalse();
+		assertThat(afterRelease).isTrue();
+		assertThat(limit.getInFlight()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldShrinkWhenLatencyIncreases() {
+
+		// Given
+		final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 4, 1000, 10);
+		sample(limit, 20, TimeUnit.MILLISECONDS.toNanos(1));
+		final int before = limit.getLimit();
+
+		// When
+		sample(limit, 20, TimeUnit.MILLISECONDS.toNanos(10));
+
+		// Then
+		assertThat(before).isEqualTo(100);
+		assertThat(limit.getLimit()).isLessThan(before).isGreaterThanOrEqualTo(4);
+	}
+
+	@Test
+	public void shouldGrowWhenSaturatedAndLatencyIsStable() {
+
+		// Given
+		final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 1000, 10);
+
+		// When
+		for (int window = 0; window < 20; window++) {
+			while (limit.tryAcquire()) {
+			}
+			for (int i = 0; i < 10; i++) {
+				limit.release(TimeUnit.MILLISECONDS.toNanos(1));
+			}
+			while (limit.getInFlight() > 0) {
+				limit.releaseWithoutSample();
+			}
+		}
+
+		// Then
+		assertThat(limit.getLimit()).isGreaterThan(10);
+	}
+
+	private static void sample(AdaptiveConcurrencyLimit limit, int windows, long rttNanos) {
+
+		for (int i = 0; i < windows * 10; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(rttNanos);
+		}
+	}
+}
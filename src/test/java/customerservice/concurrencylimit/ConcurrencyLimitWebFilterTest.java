@@ -0,0 +1,74 @@
+package customerservice.concurrencylimit;
+
+import static org.mockito.Mockito.mock;
+
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import customerservice.repository.mongodb.CustomerReads;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import customerservice.restapi.CustomerController;
+import customerservice.restapi.CustomerResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConcurrencyLimitWebFilterTest {
+
+	private AdaptiveConcurrencyLimit readLimit;
+	private WebTestClient webClient;
+
+	@Before
+	public void init() {
+
+		final CustomerRepository repo = mock(CustomerRepository.class);
+		readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 10);
+
+		webClient = WebTestClient
+			.bindToController(new CustomerController(repo,
+				new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30),
+				CustomerReads.primaryOnly(repo), CustomerWrites.repositoryOnly(repo)))
+			.webFilter(new ConcurrencyLimitWebFilter(readLimit, new AdaptiveConcurrencyLimit(1, 1, 1, 10),
+				new SimpleMeterRegistry()))
+			.build();
+	}
+
+	@Test
+	public void shouldShedTheRequestsOverTheLimit() {
+
+		// Given
+		readLimit.tryAcquire();
+
+		// When
+		webClient.get().uri("/customers").exchange()
+			.expectStatus().isEqualTo(503)	// HTTP 503
+			.expectHeader().valueEquals("Retry-After", "1");
+	}
+
+	@Test
+	public void shouldShedTheRequestsTheHandlerMappingNormalizes() {
+
+		// Given
+		readLimit.tryAcquire();
+
+		// When
+		for (String path : new String[] { "//customers", "/customers;x=y", "/%63ustomers", "/customers//" }) {
+			webClient.get().uri(URI.create("http://localhost" + path)).exchange()
+				.expectStatus().isEqualTo(503);	// HTTP 503
+		}
+	}
+
+	@Test
+	public void shouldNotLimitTheOtherPaths() {
+
+		// Given
+		readLimit.tryAcquire();
+
+		// When
+		webClient.get().uri("/customersearch").exchange()
+			.expectStatus().isNotFound();	// HTTP 404
+	}
+}
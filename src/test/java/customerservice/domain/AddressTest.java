@@ -56,6 +56,23 @@ public class AddressTest {
 		assertThat(address.getZipcode()).isEqualTo("123456");
 	}
 
+	@Test
+	public void shouldShareRepeatedStrings() {
+
+		// Given
+		final Address address1 = Address.ofCountry(new String("Shadaloo")).withStateOrProvince(new String("Bison"))
+				.withCity(new String("Shadaloo City")).build();
+
+		// When
+		final Address address2 = Address.ofCountry(new String("Shadaloo")).withStateOrProvince(new String("Bison"))
+				.withCity(new String("Shadaloo City")).build();
+
+		// Then
+		assertThat(address2.getCountry()).isSameAs(address1.getCountry());
+		assertThat(address2.getStateOrProvince()).isSameAs(address1.getStateOrProvince());
+		assertThat(address2.getCity()).isNotSameAs(address1.getCity());
+	}
+
 	@Test
 	public void shouldFailIfCountryIsNull() {
 
@@ -140,6 +140,37 @@ public class CustomerTest {
 		assertThat(customer.getEmail()).isEqualTo("kmasters@streetf.com");
 	}
 
+	@Test
+	public void shouldNotCopyPhonesOnEachCall() {
+
+		// Given
+		final Customer customer = Customer.ofType(CustomerType.PERSON)
+				.withPhone(PhoneType.HOME, "111111111")
+				.build();
+
+		// When
+		// Then
+		assertThat(customer.getPhones()).isSameAs(customer.getPhones());
+		assertThatThrownBy(() -> customer.getPhones().put(PhoneType.FAX, "444444444"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void shouldNotShareThePhonesOfAnUpdatedCustomer() {
+
+		// Given
+		final Customer customer = Customer.ofType(CustomerType.PERSON)
+				.withPhone(PhoneType.HOME, "111111111")
+				.build();
+
+		// When
+		final Customer updated = Customer.from(customer).withPhone(PhoneType.FAX, "444444444").build();
+
+		// Then
+		assertThat(customer.getPhones()).containsOnlyKeys(PhoneType.HOME);
+		assertThat(updated.getPhones()).containsOnlyKeys(PhoneType.HOME, PhoneType.FAX);
+	}
+
 	@Test
 	public void shouldFailIfCustomerTypeIsNull() {
 		assertThatThrownBy(() -> Customer.ofType(null).build()).hasMessage("Customer type can not be null.");
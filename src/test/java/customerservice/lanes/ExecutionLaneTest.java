@@ -0,0 +1,80 @@
+package customerservice.lanes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import customerservice.CustomerServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class ExecutionLaneTest {
+
+	private SimpleMeterRegistry registry;
+	private ExecutionLane lane;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		lane = new ExecutionLane("write", 1, 1, registry);
+	}
+
+	@Test
+	public void shouldQueueOperationsOverTheQuota() {
+
+		// Given
+		final MonoProcessor<String> first = MonoProcessor.create();
+		final MonoProcessor<String> firstResult = lane.execute(first).subscribeWith(MonoProcessor.create());
+
+		// When
+		final MonoProcessor<String> secondResult = lane.execute(Mono.just("second")).subscribeWith(MonoProcessor.create());
+
+		// Then
+		assertThat(lane.getInUse()).isEqualTo(1);
+		assertThat(lane.getQueued()).isEqualTo(1);
+		assertThat(secondResult.isTerminated()).isFalse();
+
+		first.onNext("first");
+		assertThat(firstResult.block()).isEqualTo("first");
+		assertThat(secondResult.block()).isEqualTo("second");
+		assertThat(lane.getInUse()).isZero();
+		assertThat(lane.getQueued()).isZero();
+	}
+
+	@Test
+	public void shouldRejectOperationsWhenTheQueueIsFull() {
+
+		// Given
+		lane.execute(MonoProcessor.<String>create()).subscribe();
+		lane.execute(MonoProcessor.<String>create()).subscribe();
+
+		// When
+		final Throwable rejected = catchThrowable(() -> lane.execute(Mono.just("third")).block());
+
+		// Then
+		assertThat(rejected).isInstanceOf(CustomerServiceException.class);
+		assertThat(((CustomerServiceException) rejected).getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(registry.get("mongodb.lane.rejected").tags("lane", "write").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void shouldForgetCancelledWaiters() {
+
+		// Given
+		final MonoProcessor<String> first = MonoProcessor.create();
+		lane.execute(first).subscribe();
+		lane.execute(Mono.just("cancelled")).subscribe().dispose();
+
+		// When
+		first.onNext("first");
+
+		// Then
+		assertThat(lane.getInUse()).isZero();
+		assertThat(lane.getQueued()).isZero();
+		assertThat(lane.execute(Mono.just("next")).block()).isEqualTo("next");
+	}
+}
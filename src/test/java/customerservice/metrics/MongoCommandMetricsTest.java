@@ -0,0 +1,88 @@
+package customerservice.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MongoCommandMetricsTest {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(
+			new ServerId(new ClusterId(), new ServerAddress()));
+
+	private SimpleMeterRegistry registry;
+	private MongoCommandMetrics metrics;
+
+	@Before
+	public void init() {
+		registry = new SimpleMeterRegistry();
+		metrics = new MongoCommandMetrics(registry);
+	}
+
+	@Test
+	public void shouldRecordLatencyDocumentsAndBytesOfAQuery() {
+
+		// Given
+		final BsonArray batch = new BsonArray();
+		batch.add(new BsonDocument("_id", new BsonInt32(1)));
+		batch.add(new BsonDocument("_id", new BsonInt32(2)));
+		final RawBsonDocument response = new RawBsonDocument(
+				new BsonDocument("cursor", new BsonDocument("firstBatch", batch)), new BsonDocumentCodec());
+
+		// When
+		metrics.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", response,
+				TimeUnit.MILLISECONDS.toNanos(3)));
+
+		// Then
+		assertThat(registry.get("mongodb.command").tags("command", "find", "status", "success").timer().count())
+			.isEqualTo(1);
+		assertThat(registry.get("mongodb.command.documents").tags("command", "find").summary().totalAmount())
+			.isEqualTo(2);
+		assertThat(registry.get("mongodb.command.bytes").tags("command", "find").summary().totalAmount())
+			.isEqualTo(response.getByteBuffer().remaining());
+	}
+
+	@Test
+	public void shouldCountTheDocumentsAffectedByAWrite() {
+		assertThat(MongoCommandMetrics.documents(new BsonDocument("n", new BsonInt32(3)))).isEqualTo(3);
+		assertThat(MongoCommandMetrics.documents(raw(new BsonDocument("ok", new BsonInt32(1))
+				.append("n", new BsonInt32(3))))).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldCountTheDocumentsOfARawNextBatch() {
+
+		// Given
+		final BsonArray batch = new BsonArray();
+		batch.add(new BsonDocument("_id", new BsonInt32(1)).append("tags", new BsonArray()));
+		batch.add(new BsonDocument("_id", new BsonInt32(2)));
+		batch.add(new BsonDocument("_id", new BsonInt32(3)));
+		final BsonDocument cursor = new BsonDocument("id", new BsonInt32(0)).append("nextBatch", batch);
+
+		// When
+		final int documents = MongoCommandMetrics.documents(raw(new BsonDocument("cursor", cursor)
+				.append("ok", new BsonInt32(1))));
+
+		// Then
+		assertThat(documents).isEqualTo(3);
+	}
+
+	private static RawBsonDocument raw(BsonDocument document) {
+		return new RawBsonDocument(document, new BsonDocumentCodec());
+	}
+}
@@ -0,0 +1,154 @@
+package customerservice.oauth2;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerReads;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import customerservice.restapi.CustomerController;
+import customerservice.restapi.CustomerResponseCache;
+import reactor.core.publisher.Mono;
+
+public class BearerTokenAuthenticationWebFilterTest {
+
+	private static final Scopes SCOPES = new Scopes("read", "write", "read-write");
+
+	private CustomerRepository repo;
+	private CachingTokenServices tokenServices;
+	private WebTestClient webClient;
+
+	@Before
+	public void init() {
+
+		repo = mock(CustomerRepository.class);
+		tokenServices = mock(CachingTokenServices.class);
+
+		final CustomerController controller = new CustomerController(repo,
+				new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30), CustomerReads.primaryOnly(repo),
+				CustomerWrites.repositoryOnly(repo));
+
+		webClient = WebTestClient
+			.bindToController(controller)
+			.webFilter(new BearerTokenAuthenticationWebFilter(tokenServices,
+				ScopeRules.fromHandlers(SCOPES, CustomerController.class)))
+			.build();
+	}
+
+	@Test
+	public void shouldAllowATokenWithTheRequiredScope() {
+
+		given(tokenServices.verify("valid")).willReturn(verified("read"));
+		given(repo.findById(any(ObjectId.class))).willReturn(Mono.just(Customer.ofType(PERSON).build()));
+
+		webClient.get().uri(String.format("/customers/%s", ObjectId.get())).accept(APPLICATION_JSON_UTF8)
+			.header("Authorization", "Bearer valid").exchange()
+			.expectStatus().isOk();	// HTTP 200
+	}
+
+	@Test
+	public void shouldRejectARequestWithoutToken() {
+
+		webClient.get().uri(String.format("/customers/%s", ObjectId.get())).accept(APPLICATION_JSON_UTF8).exchange()
+			.expectStatus().isUnauthorized();	// HTTP 401
+	}
+
+	@Test
+	public void shouldRejectAnInvalidToken() {
+
+		given(tokenServices.verify("invalid")).willThrow(new InvalidTokenException("Invalid access token"));
+
+		webClient.get().uri(String.format("/customers/%s", ObjectId.get())).accept(APPLICATION_JSON_UTF8)
+			.header("Authorization", "Bearer invalid").exchange()
+			.expectStatus().isUnauthorized()	// HTTP 401
+			.expectHeader().valueEquals("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+	}
+
+	@Test
+	public void shouldRejectATokenWithoutTheRequiredScope() {
+
+		given(tokenServices.verify("read-only")).willReturn(verified("read"));
+
+		webClient.delete().uri(String.format("/customers/%s", ObjectId.get()))
+			.header("Authorization", "Bearer read-only").exchange()
+			.expectStatus().isForbidden();	// HTTP 403
+	}
+
+	@Test
+	public void shouldProtectPathsWithATrailingSlash() {
+
+		given(tokenServices.verify("read-only")).willReturn(verified("read"));
+
+		webClient.post().uri("/customers/").contentType(APPLICATION_JSON_UTF8)
+			.syncBody(Customer.ofType(PERSON).build()).exchange()
+			.expectStatus().isUnauthorized();	// HTTP 401
+
+		webClient.post().uri("/customers/").contentType(APPLICATION_JSON_UTF8)
+			.header("Authorization", "Bearer read-only")
+			.syncBody(Customer.ofType(PERSON).build()).exchange()
+			.expectStatus().isForbidden();	// HTTP 403
+
+		webClient.delete().uri(String.format("/customers/%s/", ObjectId.get()))
+			.header("Authorization", "Bearer read-only").exchange()
+			.expectStatus().isForbidden();	// HTTP 403
+	}
+
+	@Test
+	public void shouldProtectPathsWithMatrixParameters() {
+
+		given(tokenServices.verify("read-only")).willReturn(verified("read"));
+
+		webClient.delete().uri(String.format("/customers/%s;x=y", ObjectId.get())).exchange()
+			.expectStatus().isUnauthorized();	// HTTP 401
+
+		webClient.delete().uri(String.format("/customers/%s;x=y", ObjectId.get()))
+			.header("Authorization", "Bearer read-only").exchange()
+			.expectStatus().isForbidden();	// HTTP 403
+	}
+
+	@Test
+	public void shouldProtectHeadLikeGet() {
+
+		given(tokenServices.verify("no-scope")).willReturn(verified());
+
+		webClient.head().uri(String.format("/customers/%s", ObjectId.get())).exchange()
+			.expectStatus().isUnauthorized();	// HTTP 401
+
+		webClient.head().uri(String.format("/customers/%s", ObjectId.get()))
+			.header("Authorization", "Bearer no-scope").exchange()
+			.expectStatus().isForbidden();	// HTTP 403
+	}
+
+	@Test
+	public void shouldRequireATokenForPathsWithoutRule() {
+
+		webClient.get().uri("/application/metrics").exchange()
+			.expectStatus().isUnauthorized();	// HTTP 401
+	}
+
+	private static VerifiedToken verified(String... scopes) {
+
+		final OAuth2Request request = new OAuth2Request(emptyMap(), "clientId", emptyList(), true,
+				new HashSet<>(Arrays.asList(scopes)), emptySet(), null, emptySet(), emptyMap());
+		return new VerifiedToken(new OAuth2Authentication(request, null), SCOPES.required(scopes), Long.MAX_VALUE);
+	}
+}
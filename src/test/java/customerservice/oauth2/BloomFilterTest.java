@@ -0,0 +1,49 @@
+package customerservice.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	public void shouldContainEveryAddedString() {
+
+		// Given
+		final BloomFilter filter = new BloomFilter(1000, 0.01);
+		final String[] values = new String[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = UUID.randomUUID().toString();
+			filter.add(values[i]);
+		}
+
+		// When
+		// Then
+		for (String value : values) {
+			assertThat(filter.mightContain(value)).isTrue();
+		}
+	}
+
+	@Test
+	public void shouldKeepFalsePositivesNearTheExpectedRate() {
+
+		// Given
+		final BloomFilter filter = new BloomFilter(1000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			filter.add(UUID.randomUUID().toString());
+		}
+
+		// When
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString())) {
+				falsePositives++;
+			}
+		}
+
+		// Then
+		assertThat(falsePositives).isLessThan(2000);
+	}
+}
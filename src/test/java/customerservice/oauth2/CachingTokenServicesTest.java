@@ -0,0 +1,128 @@
+package customerservice.oauth2;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingTokenServicesTest {
+
+	private static final String TOKEN = "header.claims.signature";
+
+	private TokenStore tokenStore;
+	private Set<String> revokedTokenIds;
+	private CachingTokenServices tokenServices;
+
+	@Before
+	public void init() {
+		tokenStore = mock(TokenStore.class);
+		revokedTokenIds = new HashSet<>();
+		tokenServices = new CachingTokenServices(tokenStore, new Scopes("read", "write"), revokedTokenIds::contains,
+				100, 60_000, new SimpleMeterRegistry());
+	}
+
+	@Test
+	public void shouldVerifyATokenOnlyOnce() {
+
+		// Given
+		final OAuth2Authentication authentication = authentication("read");
+		final DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(TOKEN);
+		accessToken.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+		when(tokenStore.readAccessToken(TOKEN)).thenReturn(accessToken);
+		when(tokenStore.readAuthentication(any(OAuth2AccessToken.class))).thenReturn(authentication);
+
+		// When
+		final OAuth2Authentication first = tokenServices.loadAuthentication(TOKEN);
+		final OAuth2Authentication second = tokenServices.loadAuthentication(TOKEN);
+
+		// Then
+		verify(tokenStore, times(1)).readAccessToken(TOKEN);
+		assertThat(first).isSameAs(authentication);
+		assertThat(second).isSameAs(authentication);
+		assertThat(tokenServices.hitRatio()).isEqualTo(0.5);
+		assertThat(tokenServices.verify(TOKEN).getScopeMask()).isEqualTo(0b01);
+	}
+
+	@Test
+	public void shouldNotCacheBeyondTokenExpiry() throws Exception {
+
+		// Given
+		final DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(TOKEN);
+		accessToken.setExpiration(new Date(System.currentTimeMillis() + 50));
+		when(tokenStore.readAccessToken(TOKEN)).thenReturn(accessToken);
+		when(tokenStore.readAuthentication(any(OAuth2AccessToken.class))).thenReturn(authentication("read"));
+		tokenServices.loadAuthentication(TOKEN);
+
+		// When
+		Thread.sleep(100);
+
+		// Then
+		assertThatThrownBy(() -> tokenServices.loadAuthentication(TOKEN))
+			.isInstanceOf(InvalidTokenException.class)
+			.hasMessageContaining("expired");
+	}
+
+	@Test
+	public void shouldRejectARevokedTokenEvenWhenCached() {
+
+		// Given
+		final DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(TOKEN);
+		accessToken.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+		accessToken.setAdditionalInformation(Collections.singletonMap("jti", "tokenId"));
+		when(tokenStore.readAccessToken(TOKEN)).thenReturn(accessToken);
+		when(tokenStore.readAuthentication(any(OAuth2AccessToken.class))).thenReturn(authentication("read"));
+		tokenServices.loadAuthentication(TOKEN);
+
+		// When
+		revokedTokenIds.add("tokenId");
+
+		// Then
+		assertThatThrownBy(() -> tokenServices.loadAuthentication(TOKEN))
+			.isInstanceOf(InvalidTokenException.class)
+			.hasMessageContaining("revoked")
+			.satisfies(e -> assertThat(e.getMessage()).doesNotContain(TOKEN));
+	}
+
+	@Test
+	public void shouldRejectAnInvalidToken() {
+
+		// Given
+		when(tokenStore.readAccessToken(TOKEN)).thenReturn(null);
+
+		// When
+		// Then
+		assertThatThrownBy(() -> tokenServices.loadAuthentication(TOKEN))
+			.isInstanceOf(InvalidTokenException.class)
+			.satisfies(e -> assertThat(e.getMessage()).doesNotContain(TOKEN));
+	}
+
+	private static OAuth2Authentication authentication(String... scopes) {
+
+		final OAuth2Request request = new OAuth2Request(emptyMap(), "clientId", emptyList(), true,
+				new HashSet<>(Arrays.asList(scopes)), emptySet(), null, emptySet(), emptyMap());
+		return new OAuth2Authentication(request, null);
+	}
+}
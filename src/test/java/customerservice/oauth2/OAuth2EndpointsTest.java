@@ -0,0 +1,152 @@
+package customerservice.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.web.reactive.function.BodyInserters.fromObject;
+import static org.springframework.web.reactive.function.client.ExchangeFilterFunctions.basicAuthentication;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.RequestHeadersSpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import customerservice.CustomerService;
+
+/**
+ * The OAuth2 authorization and resource servers of the deployed service: the WebFilters are invoked
+ * and /oauth/token is served by the reactive application. Runs on the log storage engine, without
+ * MongoDB.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CustomerService.class, webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = "customer-log.directory=target/oauth2-endpoints-test")
+@ActiveProfiles("log")
+public class OAuth2EndpointsTest {
+
+	@LocalServerPort
+	private int port;
+
+	private WebClient webClient;
+
+	@Before
+	public void setUp() {
+		webClient = WebClient.create(String.format("http://127.0.0.1:%d", port));
+	}
+
+	@Test
+	public void shouldRejectARequestWithoutToken() {
+
+		// Given no token
+
+		// When
+		final HttpStatus status = status(webClient.get().uri("/customers"));
+
+		// Then HTTP 401
+		assertThat(status).isEqualTo(UNAUTHORIZED);
+	}
+
+	@Test
+	public void shouldServeARequestWithAnIssuedToken() {
+
+		// Given
+		final String token = requestToken("clientId", "clientSecret");
+
+		// When
+		final HttpStatus status = status(webClient.get().uri("/customers").header(AUTHORIZATION, "Bearer " + token));
+
+		// Then HTTP 204, no customer yet
+		assertThat(status).isEqualTo(NO_CONTENT);
+	}
+
+	@Test
+	public void shouldNotIssueATokenToAnUnknownClient() {
+
+		// Given
+		final WebClient webClientAuth = webClient.mutate().filter(basicAuthentication("clientId", "wrong")).build();
+
+		// When
+		final HttpStatus status = status(webClientAuth.post().uri("/oauth/token")
+			.contentType(APPLICATION_FORM_URLENCODED)
+			.body(fromObject("grant_type=client_credentials")));
+
+		// Then HTTP 401
+		assertThat(status).isEqualTo(UNAUTHORIZED);
+	}
+
+	@Test
+	public void shouldIssueAJwtSignedWithTheKeyStoreKey() {
+
+		// Given
+		final KeyPair keyPair = new KeyStoreKeyFactory(new ClassPathResource("servicestore.jks"),
+				"qwerty".toCharArray()).getKeyPair("clientservice");
+
+		// When
+		final String token = requestToken("clientId", "clientSecret");
+
+		// Then
+		final Jwt jwt = JwtHelper.decodeAndVerify(token, new RsaVerifier((RSAPublicKey) keyPair.getPublic()));
+		assertThat(jwt.getClaims()).contains("\"client_id\":\"clientId\"");
+	}
+
+	@Test
+	public void shouldRejectATokenSignedWithAnotherKey() throws NoSuchAlgorithmException {
+
+		// Given the claims of an issued token signed with a key of our own
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		final KeyPair otherKeyPair = generator.generateKeyPair();
+		final String claims = JwtHelper.decode(requestToken("clientId", "clientSecret")).getClaims();
+		final String forged = JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) otherKeyPair.getPrivate()))
+			.getEncoded();
+
+		// When
+		final HttpStatus status = status(webClient.get().uri("/customers").header(AUTHORIZATION, "Bearer " + forged));
+
+		// Then HTTP 401
+		assertThat(status).isEqualTo(UNAUTHORIZED);
+	}
+
+	private String requestToken(String clientId, String secret) {
+
+		return webClient.mutate().filter(basicAuthentication(clientId, secret)).build()
+			.post().uri("/oauth/token")
+			.contentType(APPLICATION_FORM_URLENCODED)
+			.accept(APPLICATION_JSON_UTF8)
+			.body(fromObject("grant_type=client_credentials"))
+			.retrieve()
+			.bodyToMono(JsonNode.class)
+			.map(node -> node.get("access_token").asText())
+			.block();
+	}
+
+	private static HttpStatus status(RequestHeadersSpec<?> request) {
+		return request.exchange()
+			.flatMap(response -> response.bodyToMono(String.class).then().thenReturn(response.statusCode()))
+			.block();
+	}
+}
@@ -0,0 +1,124 @@
+package customerservice.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.HEAD;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpMethod.PUT;
+
+import org.junit.Test;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import customerservice.restapi.CustomerController;
+
+public class ScopeRulesTest {
+
+	private static final Scopes SCOPES = new Scopes("read", "write", "read-write");
+
+	@Test
+	public void shouldCompileTheScopesOfTheCustomerController() {
+
+		// Given
+		final long read = SCOPES.required("read");
+		final long write = SCOPES.required("write");
+		final long readWrite = SCOPES.required("read-write");
+
+		// When
+		final ScopeRules rules = ScopeRules.fromHandlers(SCOPES, CustomerController.class);
+
+		// Then
+		assertThat(rules.requiredScopes(GET, "/customers")).isEqualTo(read | write | readWrite);
+		assertThat(rules.requiredScopes(GET, "/customers/59cb82a0e4b0b5e5bcfa0e61")).isEqualTo(read | write | readWrite);
+		assertThat(rules.requiredScopes(POST, "/customers")).isEqualTo(write | readWrite);
+		assertThat(rules.requiredScopes(DELETE, "/customers/59cb82a0e4b0b5e5bcfa0e61")).isEqualTo(write | readWrite);
+		assertThat(rules.requiredScopes(GET, "/application/health")).isEqualTo(ScopeRules.ANY_SCOPE);
+	}
+
+	@Test
+	public void shouldOnlyLeaveThePublicPathsUnprotected() {
+
+		// When
+		final ScopeRules rules = ScopeRules.fromHandlers(SCOPES, CustomerController.class)
+			.withPublicPaths("/oauth/token", "/application/health");
+
+		// Then
+		assertThat(rules.requiredScopes(POST, "/oauth/token")).isEqualTo(ScopeRules.UNPROTECTED);
+		assertThat(rules.requiredScopes(GET, "/application/health")).isEqualTo(ScopeRules.UNPROTECTED);
+		assertThat(rules.requiredScopes(GET, "/application/metrics")).isEqualTo(ScopeRules.ANY_SCOPE);
+		assertThat(rules.requiredScopes(GET, "/application/spans")).isEqualTo(ScopeRules.ANY_SCOPE);
+	}
+
+	@Test
+	public void shouldMatchThePathsTheHandlerMappingMatches() {
+
+		// Given
+		final long write = SCOPES.required("write", "read-write");
+		final String id = "59cb82a0e4b0b5e5bcfa0e61";
+
+		// When
+		final ScopeRules rules = ScopeRules.fromHandlers(SCOPES, CustomerController.class);
+
+		// Then
+		assertThat(rules.requiredScopes(POST, "/customers/")).isEqualTo(write);
+		assertThat(rules.requiredScopes(PUT, "/customers/" + id + "/")).isEqualTo(write);
+		assertThat(rules.requiredScopes(DELETE, "/customers/" + id + ";x=y")).isEqualTo(write);
+		assertThat(rules.requiredScopes(DELETE, "//customers/" + id)).isEqualTo(write);
+		assertThat(rules.requiredScopes(POST, "/%63ustomers")).isEqualTo(write);
+		assertThat(rules.requiredScopes(HEAD, "/customers/" + id)).isEqualTo(rules.requiredScopes(GET, "/customers/" + id));
+	}
+
+	@Test
+	public void shouldSupportComposedMappings() {
+
+		// When
+		final ScopeRules rules = ScopeRules.fromHandlers(SCOPES, ReportController.class);
+
+		// Then
+		assertThat(rules.requiredScopes(GET, "/reports/daily")).isEqualTo(SCOPES.required("read"));
+	}
+
+	@Test
+	public void shouldFailOnUndeclaredScope() {
+
+		assertThatThrownBy(() -> ScopeRules.fromHandlers(SCOPES, UndeclaredScopeController.class))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Unknown scope 'admin'.");
+	}
+
+	@Test
+	public void shouldFailOnEmptyScopes() {
+
+		assertThatThrownBy(() -> ScopeRules.fromHandlers(SCOPES, EmptyScopesController.class))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("EmptyScopesController.deleteEverything");
+	}
+
+	@RequestMapping("/reports")
+	static class ReportController {
+
+		@RequiredScopes("read")
+		@GetMapping("/daily")
+		public void daily() {
+		}
+	}
+
+	static class UndeclaredScopeController {
+
+		@RequiredScopes("admin")
+		@RequestMapping(method = RequestMethod.DELETE, value = "/everything")
+		public void deleteEverything() {
+		}
+	}
+
+	static class EmptyScopesController {
+
+		@RequiredScopes({})
+		@RequestMapping(method = RequestMethod.DELETE, value = "/everything")
+		public void deleteEverything() {
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package customerservice.oauth2.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class InMemoryRevokedTokensTest {
+
+	private final InMemoryRevokedTokens revokedTokens = new InMemoryRevokedTokens();
+
+	@Test
+	public void shouldRevokeATokenUntilItsExpiry() {
+
+		// When
+		revokedTokens.revoke("jti-1", new Date(System.currentTimeMillis() + 60_000));
+		revokedTokens.revoke("jti-2", new Date(System.currentTimeMillis() - 1));
+
+		// Then
+		assertThat(revokedTokens.isRevoked("jti-1")).isTrue();
+		assertThat(revokedTokens.isRevoked("jti-2")).isFalse();
+		assertThat(revokedTokens.isRevoked("jti-3")).isFalse();
+	}
+}
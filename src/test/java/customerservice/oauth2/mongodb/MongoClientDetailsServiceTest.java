@@ -0,0 +1,113 @@
+package customerservice.oauth2.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class MongoClientDetailsServiceTest {
+
+	private ReactiveMongoTemplate template;
+	private MongoClientDetailsService clientDetailsService;
+
+	@Before
+	public void init() {
+		template = mock(ReactiveMongoTemplate.class);
+		clientDetailsService = new MongoClientDetailsService(template);
+	}
+
+	@Test
+	public void shouldServeTheClientsFromMemory() {
+
+		// Given
+		when(template.find(any(Query.class), eq(Document.class), eq(MongoClientDetailsService.COLLECTION)))
+			.thenReturn(Flux.just(client("clientId", "read", "write")));
+		clientDetailsService.refresh().block();
+
+		// When
+		final ClientDetails first = clientDetailsService.loadClientByClientId("clientId");
+		final ClientDetails second = clientDetailsService.loadClientByClientId("clientId");
+
+		// Then
+		verify(template, times(1)).find(any(Query.class), eq(Document.class), eq(MongoClientDetailsService.COLLECTION));
+		assertThat(second).isSameAs(first);
+		assertThat(first.getClientSecret()).isEqualTo("clientSecret");
+		assertThat(first.getScope()).containsExactly("read", "write");
+		assertThat(first.getAuthorizedGrantTypes()).containsExactly("client_credentials");
+	}
+
+	@Test
+	public void shouldForgetTheRemovedClients() {
+
+		// Given
+		when(template.find(any(Query.class), eq(Document.class), eq(MongoClientDetailsService.COLLECTION)))
+			.thenReturn(Flux.just(client("clientId", "read")), Flux.empty());
+		clientDetailsService.refresh().block();
+
+		// When
+		clientDetailsService.refresh().block();
+
+		// Then
+		assertThatThrownBy(() -> clientDetailsService.loadClientByClientId("clientId"))
+			.isInstanceOf(NoSuchClientException.class);
+	}
+
+	@Test
+	public void shouldRejectAnUnknownClient() {
+
+		// When / Then
+		assertThatThrownBy(() -> clientDetailsService.loadClientByClientId("unknown"))
+			.isInstanceOf(NoSuchClientException.class);
+	}
+
+	@Test
+	public void shouldUpsertTheRegisteredClient() {
+
+		// Given
+		final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		when(template.upsert(any(Query.class), update.capture(), eq(MongoClientDetailsService.COLLECTION)))
+			.thenReturn(Mono.error(new DuplicateKeyException("E11000")), Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+		when(template.findOne(any(Query.class), eq(Document.class), eq(MongoClientDetailsService.COLLECTION)))
+			.thenReturn(Mono.just(client("clientId", "read", "bulk")));
+
+		// When
+		clientDetailsService.register("clientId", "clientSecret", Arrays.asList("read", "bulk"),
+				Collections.singletonList("client_credentials")).block();
+
+		// Then
+		final Document operations = update.getValue().getUpdateObject();
+		assertThat(operations.get("$setOnInsert", Document.class)).containsOnlyKeys("secret");
+		assertThat(operations.get("$addToSet", Document.class)).containsOnlyKeys("scopes", "grantTypes");
+		assertThat(clientDetailsService.loadClientByClientId("clientId").getScope()).contains("bulk");
+	}
+
+	private static Document client(String clientId, String... scopes) {
+		return new Document("_id", clientId)
+				.append("secret", "clientSecret")
+				.append("scopes", Arrays.asList(scopes))
+				.append("grantTypes", Arrays.asList("client_credentials"));
+	}
+}
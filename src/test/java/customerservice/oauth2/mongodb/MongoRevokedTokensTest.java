@@ -0,0 +1,115 @@
+package customerservice.oauth2.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class MongoRevokedTokensTest {
+
+	private ReactiveMongoTemplate template;
+	private MongoRevokedTokens revokedTokens;
+
+	@Before
+	public void init() {
+		template = mock(ReactiveMongoTemplate.class);
+		when(template.save(any(Document.class), eq(MongoRevokedTokens.COLLECTION)))
+			.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		when(template.find(any(Query.class), eq(Document.class), eq(MongoRevokedTokens.COLLECTION)))
+			.thenReturn(Flux.empty());
+		revokedTokens = new MongoRevokedTokens(template, 100, 0.01);
+	}
+
+	@Test
+	public void shouldRevokeATokenImmediately() {
+
+		// When
+		revokedTokens.revoke("tokenId", inOneMinute()).block();
+
+		// Then
+		assertThat(revokedTokens.isRevoked("tokenId")).isTrue();
+		assertThat(revokedTokens.isRevoked("otherTokenId")).isFalse();
+	}
+
+	@Test
+	public void shouldMirrorTheRevocationsOfOtherInstances() {
+
+		// Given
+		when(template.find(any(Query.class), eq(Document.class), eq(MongoRevokedTokens.COLLECTION)))
+			.thenReturn(Flux.just(new Document("_id", "tokenId").append("revokedAt", new Date())
+				.append("expiresAt", inOneMinute())));
+
+		// When
+		revokedTokens.refresh().block();
+
+		// Then
+		assertThat(revokedTokens.isRevoked("tokenId")).isTrue();
+	}
+
+	@Test
+	public void shouldForgetAnExpiredRevocation() throws InterruptedException {
+
+		// Given
+		revokedTokens.revoke("tokenId", new Date(System.currentTimeMillis() + 50)).block();
+		revokedTokens.revoke("otherTokenId", inOneMinute()).block();
+
+		// When
+		Thread.sleep(100);
+		revokedTokens.refresh().block();
+
+		// Then
+		assertThat(revokedTokens.isRevoked("tokenId")).isFalse();
+		assertThat(revokedTokens.isRevoked("otherTokenId")).isTrue();
+	}
+
+	@Test
+	public void shouldKeepTheRevocationsAddedDuringAPurge() throws InterruptedException {
+
+		// Given
+		final int revocations = 2000;
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch done = new CountDownLatch(1);
+		for (int i = 0; i < revocations; i++) {
+			revokedTokens.revoke("expired" + i, new Date(System.currentTimeMillis() - 1)).block();
+		}
+
+		// When
+		executor.execute(() -> {
+			for (int i = 0; i < revocations; i++) {
+				revokedTokens.revoke("token" + i, inOneMinute()).block();
+			}
+			done.countDown();
+		});
+		while (done.getCount() > 0) {
+			revokedTokens.refresh().block();
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		// Then
+		for (int i = 0; i < revocations; i++) {
+			assertThat(revokedTokens.isRevoked("token" + i)).isTrue();
+			assertThat(revokedTokens.isRevoked("expired" + i)).isFalse();
+		}
+	}
+
+	private static Date inOneMinute() {
+		return new Date(System.currentTimeMillis() + 60_000);
+	}
+}
@@ -0,0 +1,122 @@
+package customerservice.ratelimit;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import customerservice.oauth2.BearerTokenAuthenticationWebFilter;
+import customerservice.oauth2.CachingTokenServices;
+import customerservice.oauth2.ScopeRules;
+import customerservice.oauth2.Scopes;
+import customerservice.oauth2.VerifiedToken;
+import customerservice.repository.mongodb.CustomerReads;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import customerservice.restapi.CustomerController;
+import customerservice.restapi.CustomerResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class ClientRateLimitWebFilterTest {
+
+	private static final Scopes SCOPES = new Scopes("read", "write", "read-write");
+
+	private WebTestClient webClient;
+
+	@Before
+	public void init() {
+
+		final CustomerRepository repo = mock(CustomerRepository.class);
+		given(repo.findById(any(ObjectId.class))).willReturn(Mono.empty());
+		given(repo.existsById(any(ObjectId.class))).willReturn(Mono.just(false));
+
+		final CachingTokenServices tokenServices = mock(CachingTokenServices.class);
+		given(tokenServices.verify("client1")).willReturn(verified("client1"));
+		given(tokenServices.verify("client2")).willReturn(verified("client2"));
+
+		/* One request per budget, refilled after 100 seconds */
+		final RateLimitProperties properties = new RateLimitProperties();
+		properties.setReadPerSecond(0.01);
+		properties.setReadBurst(1);
+		properties.setWritePerSecond(0.01);
+		properties.setWriteBurst(1);
+
+		webClient = WebTestClient
+			.bindToController(new CustomerController(repo,
+				new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30),
+				CustomerReads.primaryOnly(repo), CustomerWrites.repositoryOnly(repo)))
+			.webFilter(new BearerTokenAuthenticationWebFilter(tokenServices,
+				ScopeRules.fromHandlers(SCOPES, CustomerController.class)))
+			.webFilter(new ClientRateLimitWebFilter(new ClientRateLimiter(properties, new SimpleMeterRegistry())))
+			.build();
+	}
+
+	@Test
+	public void shouldRejectTheRequestsOverBudget() {
+
+		// Given
+		read("client1").expectStatus().isNotFound();	// HTTP 404
+
+		// When
+		read("client1")
+			.expectStatus().isEqualTo(429)	// HTTP 429
+			.expectHeader().valueEquals("Retry-After", "100");
+	}
+
+	@Test
+	public void shouldKeepSeparateReadAndWriteBudgets() {
+
+		// Given the read budget spent
+		read("client1").expectStatus().isNotFound();	// HTTP 404
+		read("client1").expectStatus().isEqualTo(429);	// HTTP 429
+
+		// When
+		// Then the write budget is left
+		write("client1").expectStatus().isNoContent();	// HTTP 204
+		write("client1").expectStatus().isEqualTo(429);	// HTTP 429
+	}
+
+	@Test
+	public void shouldKeepSeparateBudgetsPerClient() {
+
+		// Given
+		read("client1").expectStatus().isNotFound();	// HTTP 404
+		read("client1").expectStatus().isEqualTo(429);	// HTTP 429
+
+		// When
+		// Then
+		read("client2").expectStatus().isNotFound();	// HTTP 404
+	}
+
+	private WebTestClient.ResponseSpec read(String token) {
+		return webClient.get().uri(String.format("/customers/%s", ObjectId.get()))
+			.header("Authorization", "Bearer " + token).exchange();
+	}
+
+	private WebTestClient.ResponseSpec write(String token) {
+		return webClient.delete().uri(String.format("/customers/%s", ObjectId.get()))
+			.header("Authorization", "Bearer " + token).exchange();
+	}
+
+	private static VerifiedToken verified(String clientId) {
+
+		final OAuth2Request request = new OAuth2Request(emptyMap(), clientId, emptyList(), true,
+				new HashSet<>(Arrays.asList("read-write")), emptySet(), null, emptySet(), emptyMap());
+		return new VerifiedToken(new OAuth2Authentication(request, null), SCOPES.required("read-write"),
+				Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,54 @@
+package customerservice.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+	@Test
+	public void shouldAllowABurstThenTheSustainedRate() {
+
+		// Given
+		final TokenBucket bucket = new TokenBucket(10, 3, 1);	// One permit every 100ms
+		final long now = System.nanoTime();
+
+		// When
+		// Then
+		assertThat(bucket.tryAcquire(now, 0)).isZero();
+		assertThat(bucket.tryAcquire(now, 0)).isZero();
+		assertThat(bucket.tryAcquire(now, 0)).isZero();
+		assertThat(bucket.tryAcquire(now, 0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+		assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100), 0)).isZero();
+	}
+
+	@Test
+	public void shouldNotAccumulateMoreThanTheBurst() {
+
+		// Given
+		final TokenBucket bucket = new TokenBucket(10, 2, 1);
+		final long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+		// When
+		// Then
+		assertThat(bucket.tryAcquire(later, 0)).isZero();
+		assertThat(bucket.tryAcquire(later, 0)).isZero();
+		assertThat(bucket.tryAcquire(later, 0)).isPositive();
+	}
+
+	@Test
+	public void shouldSplitTheRateOverStripes() {
+
+		// Given
+		final TokenBucket bucket = new TokenBucket(10, 2, 2);	// Each stripe: one permit every 200ms
+		final long now = System.nanoTime();
+
+		// When
+		// Then
+		assertThat(bucket.tryAcquire(now, 0)).isZero();
+		assertThat(bucket.tryAcquire(now, 0)).isPositive();
+		assertThat(bucket.tryAcquire(now, 1)).isZero();
+	}
+}
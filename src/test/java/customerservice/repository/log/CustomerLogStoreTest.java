@@ -0,0 +1,188 @@
+package customerservice.repository.log;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import customerservice.domain.Address;
+import customerservice.domain.Customer;
+
+public class CustomerLogStoreTest {
+
+	private static final int SEGMENT_SIZE = 64 * 1024;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+	private CustomerLogStore store;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.getRoot().toPath();
+		store = open();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		store.close();
+	}
+
+	@Test
+	public void shouldReadTheLastVersionOfACustomer() {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+
+		// When
+		store.put(Customer.from(ken).withLastName("Masters Jr").build());
+
+		// Then
+		assertThat(store.get(ken.getId()).getLastName()).isEqualTo("Masters Jr");
+		assertThat(store.get(ken.getId()).getAddress().getCountry()).isEqualTo("Shadaloo");
+		assertThat(store.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRemoveACustomer() {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+
+		// When
+		final boolean removed = store.remove(ken.getId());
+
+		// Then
+		assertThat(removed).isTrue();
+		assertThat(store.get(ken.getId())).isNull();
+		assertThat(store.contains(ken.getId())).isFalse();
+		assertThat(store.remove(ken.getId())).isFalse();
+		assertThat(store.liveBytes()).isZero();
+	}
+
+	@Test
+	public void shouldSpanSegmentsAndGrowTheIndex() {
+
+		// When
+		for (int i = 0; i < 5000; i++) {
+			store.put(customer("Ken", "Masters" + i));
+		}
+
+		// Then
+		assertThat(store.logBytes()).isGreaterThan(SEGMENT_SIZE);
+		assertThat(store.getAll()).hasSize(5000);
+	}
+
+	@Test
+	public void shouldCompactTheGarbage() throws IOException {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+		final Customer ryu = store.put(customer("Ryu", "Hoshi"));
+		for (int i = 0; i < 100; i++) {
+			store.put(Customer.from(ken).withLastName("Masters" + i).build());
+		}
+		store.remove(ryu.getId());
+		final long before = store.logBytes();
+
+		// When
+		store.compact();
+
+		// Then
+		assertThat(store.logBytes()).isLessThan(before).isEqualTo(store.liveBytes());
+		assertThat(store.get(ken.getId()).getLastName()).isEqualTo("Masters99");
+		assertThat(store.get(ryu.getId())).isNull();
+		assertThat(store.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldReopenAfterAClose() throws IOException {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+		final Customer ryu = store.put(customer("Ryu", "Hoshi"));
+		store.remove(ryu.getId());
+
+		// When
+		store.close();
+		store = open();
+
+		// Then
+		assertThat(store.get(ken.getId()).getFirstName()).isEqualTo("Ken");
+		assertThat(store.get(ryu.getId())).isNull();
+		assertThat(store.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRebuildTheIndexFromTheLog() throws IOException {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+		store.close();
+		Files.write(directory.resolve(CustomerLogStore.INDEX), new byte[] { 0 }, StandardOpenOption.TRUNCATE_EXISTING);
+
+		// When
+		store = open();
+
+		// Then
+		assertThat(store.get(ken.getId()).getLastName()).isEqualTo("Masters");
+		assertThat(store.contains(ObjectId.get())).isFalse();
+	}
+
+	@Test
+	public void shouldKeepTheDeletesOfACompactionAfterACrash() throws IOException {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+		final Customer ryu = store.put(customer("Ryu", "Hoshi"));
+		store.put(Customer.from(ryu).withFirstName("Ryu").build());
+		store.afterCopy = () -> store.remove(ken.getId());
+		store.compact();
+
+		// When
+		store = open();
+
+		// Then
+		assertThat(store.get(ken.getId())).isNull();
+		assertThat(store.get(ryu.getId()).getLastName()).isEqualTo("Hoshi");
+		assertThat(store.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRemoveAllTheCustomers() {
+
+		// Given
+		final Customer ken = store.put(customer("Ken", "Masters"));
+
+		// When
+		store.clear();
+
+		// Then
+		assertThat(store.get(ken.getId())).isNull();
+		assertThat(store.count()).isZero();
+		assertThat(store.logBytes()).isZero();
+	}
+
+	private CustomerLogStore open() throws IOException {
+		return CustomerLogStore.open(directory, SEGMENT_SIZE, false, 0.5, 0, 0);
+	}
+
+	private static Customer customer(String firstName, String lastName) {
+		return Customer.ofType(PERSON)
+				.withFirstName(firstName)
+				.withLastName(lastName)
+				.withAddress(Address.ofCountry("Shadaloo").withCity("Shadaloo City").build())
+				.build();
+	}
+}
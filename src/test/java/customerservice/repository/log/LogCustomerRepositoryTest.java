@@ -0,0 +1,53 @@
+package customerservice.repository.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import customerservice.CustomerService;
+import customerservice.repository.mongodb.CustomerRepositoryTest;
+
+/**
+ * The repository tests against the embedded log engine, without MongoDB. Each run gets a new log
+ * directory, deleted with the context.
+ */
+@ActiveProfiles("log")
+@Import(CustomerService.class)
+@TestPropertySource(locations = "classpath:application-log.properties")
+@ContextConfiguration(initializers = LogCustomerRepositoryTest.TemporaryLogDirectory.class)
+public class LogCustomerRepositoryTest extends CustomerRepositoryTest {
+
+	static class TemporaryLogDirectory implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+		@Override
+		public void initialize(ConfigurableApplicationContext context) {
+
+			final Path directory;
+			try {
+				Files.createDirectories(Paths.get("target"));
+				directory = Files.createTempDirectory(Paths.get("target"), "customer-log-test");
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("customerLogTest",
+					Collections.singletonMap("customer-log.directory", directory.toString())));
+			/* Registered first, destroyed last: once the store is closed */
+			context.getBeanFactory().registerSingleton("customerLogTestDirectory",
+					(DisposableBean) () -> FileSystemUtils.deleteRecursively(directory.toFile()));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package customerservice.repository.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import customerservice.domain.Address;
+import customerservice.domain.Customer;
+import customerservice.domain.enums.CustomerType;
+import customerservice.domain.enums.Gender;
+import customerservice.domain.enums.MaritalStatus;
+import customerservice.domain.enums.PhoneType;
+import customerservice.repository.mongodb.CustomerConverters.CustomerToDocumentConverter;
+import customerservice.repository.mongodb.CustomerConverters.DocumentToCustomerConverter;
+
+public class CustomerConvertersTest {
+
+	@Test
+	public void shouldWriteAndReadACustomer() {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		final Customer customer = Customer.ofType(CustomerType.PERSON)
+				.withId(id)
+				.withFirstName("Ken")
+				.withLastName("Masters")
+				.withGender(Gender.MALE)
+				.withBirthDate(LocalDate.of(1990, Month.MARCH, 16))
+				.withMaritalStatus(MaritalStatus.SINGLE)
+				.withAddress(Address.ofCountry("Shadaloo")
+						.withStreetNumber(110)
+						.withStreetName("Bison street")
+						.withCity("Shadaloo City")
+						.withZipcode("123456")
+						.build())
+				.withPhone(PhoneType.HOME, "111111111")
+				.withPhone(PhoneType.FAX, "444444444")
+				.withEmail("kmasters@streetf.com")
+				.build();
+
+		// When
+		final Document document = CustomerToDocumentConverter.INSTANCE.convert(customer);
+		final Customer read = DocumentToCustomerConverter.INSTANCE.convert(document);
+
+		// Then
+		assertThat(document.getObjectId("_id")).isEqualTo(id);
+		assertThat(document.getString("customerType")).isEqualTo("PERSON");
+		assertThat(document.get("address", Document.class).getString("country")).isEqualTo("Shadaloo");
+		assertThat(read.getId()).isEqualTo(id);
+		assertThat(read.getCustomerType()).isEqualTo(CustomerType.PERSON);
+		assertThat(read.getFirstName()).isEqualTo("Ken");
+		assertThat(read.getLastName()).isEqualTo("Masters");
+		assertThat(read.getGender()).isEqualTo(Gender.MALE);
+		assertThat(read.getBirthDate()).isEqualTo(LocalDate.of(1990, Month.MARCH, 16));
+		assertThat(read.getMaritalStatus()).isEqualTo(MaritalStatus.SINGLE);
+		assertThat(read.getAddress().getStreetNumber()).isEqualTo(110);
+		assertThat(read.getAddress().getStateOrProvince()).isNull();
+		assertThat(read.getPhones()).containsOnly(
+				entry(PhoneType.HOME, "111111111"),
+				entry(PhoneType.FAX, "444444444"));
+		assertThat(read.getEmail()).isEqualTo("kmasters@streetf.com");
+	}
+
+	@Test
+	public void shouldNotWriteMissingFields() {
+
+		// Given
+		final Customer customer = Customer.ofType(CustomerType.COMPANY).withLastName("Acme Corp.").build();
+
+		// When
+		final Document document = CustomerToDocumentConverter.INSTANCE.convert(customer);
+
+		// Then
+		assertThat(document).containsOnlyKeys("lastName", "customerType");
+	}
+}
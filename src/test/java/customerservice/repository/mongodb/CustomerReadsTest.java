@@ -0,0 +1,98 @@
+package customerservice.repository.mongodb;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+
+import customerservice.domain.Customer;
+import customerservice.ratelimit.TokenBucket;
+import customerservice.repository.mongodb.ReadRoutingProperties.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class CustomerReadsTest {
+
+	private static final long DELAY = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final Customer customer = Customer.ofType(PERSON).build();
+
+	private CustomerRepository primary;
+	private CustomerRepository secondary;
+	private CustomerRepository backup;
+	private CustomerReads reads;
+
+	@Before
+	public void setUp() {
+
+		primary = mock(CustomerRepository.class);
+		secondary = mock(CustomerRepository.class);
+		backup = mock(CustomerRepository.class);
+		when(backup.findById(any(ObjectId.class))).thenReturn(Mono.just(customer));
+
+		final HedgedReads hedging = new HedgedReads(new LatencyPercentile(100, 0.95, DELAY), DELAY,
+				new TokenBucket(1000, 100, 1), new SimpleMeterRegistry());
+		reads = new CustomerReads(primary, Collections.singletonMap("oneCustomer", secondary), hedging,
+				Collections.singletonMap("oneCustomer", backup));
+	}
+
+	@Test
+	public void shouldHedgeTheReadsOfARouteAcceptingSecondaries() {
+
+		// Given
+		when(secondary.findById(any(ObjectId.class))).thenReturn(Mono.never());
+
+		// When
+		final Customer found = reads.findById("oneCustomer", ObjectId.get(), false).block(Duration.ofSeconds(5));
+
+		// Then
+		assertThat(found).isSameAs(customer);
+	}
+
+	@Test
+	public void shouldNeverHedgeTheReadsFromThePrimary() {
+
+		// Given
+		when(primary.findById(any(ObjectId.class))).thenReturn(Mono.just(customer).delayElement(Duration.ofMillis(100)));
+
+		// When
+		reads.findById("oneCustomer", ObjectId.get(), true).block(Duration.ofSeconds(5));
+		reads.findById("allCustomers", ObjectId.get(), false).block(Duration.ofSeconds(5));
+
+		// Then
+		verify(backup, never()).findById(any(ObjectId.class));
+	}
+
+	@Test
+	public void shouldKeepTheStalenessOfTheRouteForTheBackup() {
+
+		// Given
+		final Route route = new Route();
+		route.setReadPreference("secondary");
+		route.setMaxStalenessSeconds(90L);
+
+		// When
+		final ReadPreference backup = route.toReadPreference("secondaryPreferred");
+
+		// Then
+		assertThat(route.toleratesSecondaries()).isTrue();
+		assertThat(backup.getName()).isEqualTo("secondaryPreferred");
+		assertThat(((TaggableReadPreference) backup).getMaxStaleness(TimeUnit.SECONDS)).isEqualTo(90);
+		assertThat(route.toReadPreference("primary")).isEqualTo(ReadPreference.primary());
+		assertThat(new Route().toleratesSecondaries()).isFalse();
+	}
+}
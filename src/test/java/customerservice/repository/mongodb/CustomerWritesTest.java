@@ -0,0 +1,116 @@
+package customerservice.repository.mongodb;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import customerservice.CustomerServiceException;
+import customerservice.domain.Customer;
+import reactor.core.publisher.Mono;
+
+public class CustomerWritesTest {
+
+	private CustomerRepository repo;
+	private CustomerRepository bulk;
+	private CustomerWrites writes;
+
+	@Before
+	public void setUp() {
+
+		repo = mock(CustomerRepository.class);
+		bulk = mock(CustomerRepository.class);
+		final Map<String, CustomerRepository> profiles = new HashMap<>();
+		profiles.put("interactive", mock(CustomerRepository.class));
+		profiles.put("bulk", bulk);
+
+		writes = new CustomerWrites(repo, profiles, singletonMap("bulk", "bulk"),
+				singletonMap("addCustomer", "interactive"), singleton("unacknowledged"));
+	}
+
+	@Test
+	public void shouldUseTheProfileOfTheEndpoint() {
+		assertThat(writes.profile("addCustomer", null).block()).isEqualTo("interactive");
+		assertThat(writes.profile("deleteCustomer", null).block()).isEqualTo(CustomerWrites.DEFAULT_PROFILE);
+	}
+
+	@Test
+	public void shouldKnowTheUnacknowledgedProfiles() {
+		assertThat(writes.isAcknowledged("interactive")).isTrue();
+		assertThat(writes.isAcknowledged("unacknowledged")).isFalse();
+	}
+
+	@Test
+	public void shouldAcceptARequestedProfileGrantedByTheScopes() {
+
+		// When
+		final String profile = writes.profile("addCustomer", "bulk")
+			.subscriberContext(context -> context.put(OAuth2Authentication.class, authentication("write", "bulk")))
+			.block();
+
+		// Then
+		assertThat(profile).isEqualTo("bulk");
+	}
+
+	@Test
+	public void shouldRejectARequestedProfileWithoutTheScope() {
+
+		// When
+		final Mono<String> profile = writes.profile("addCustomer", "bulk")
+			.subscriberContext(context -> context.put(OAuth2Authentication.class, authentication("write")));
+
+		// Then
+		assertThatThrownBy(profile::block)
+			.isInstanceOf(CustomerServiceException.class)
+			.matches(e -> ((CustomerServiceException) e).getHttpStatus() == HttpStatus.FORBIDDEN);
+	}
+
+	@Test
+	public void shouldRejectAnUnknownProfile() {
+		assertThatThrownBy(() -> writes.profile("addCustomer", "eventually").block())
+			.isInstanceOf(CustomerServiceException.class)
+			.matches(e -> ((CustomerServiceException) e).getHttpStatus() == HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	public void shouldWriteThroughTheRepositoryOfTheProfile() {
+
+		// Given
+		final Customer customer = Customer.ofType(PERSON).build();
+		when(bulk.save(customer)).thenReturn(Mono.just(customer));
+		when(repo.deleteById(any(ObjectId.class))).thenReturn(Mono.empty());
+
+		// When
+		writes.save(customer, "bulk").block();
+		writes.deleteById(ObjectId.get(), CustomerWrites.DEFAULT_PROFILE).block();
+
+		// Then
+		verify(bulk).save(customer);
+		verify(repo).deleteById(any(ObjectId.class));
+	}
+
+	private static OAuth2Authentication authentication(String... scopes) {
+		return new OAuth2Authentication(new OAuth2Request(emptyMap(), "clientId", emptyList(), true,
+				new HashSet<>(Arrays.asList(scopes)), emptySet(), null, emptySet(), emptyMap()), null);
+	}
+}
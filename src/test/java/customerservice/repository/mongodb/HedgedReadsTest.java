@@ -0,0 +1,108 @@
+package customerservice.repository.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import customerservice.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class HedgedReadsTest {
+
+	private static final long DELAY = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private SimpleMeterRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	public void shouldAnswerWithTheBackupWhenTheReadIsSlow() {
+
+		// Given
+		final HedgedReads hedging = hedging(10);
+		final AtomicBoolean cancelled = new AtomicBoolean();
+
+		// When
+		final String result = hedging.hedge(Mono.<String>never().doOnCancel(() -> cancelled.set(true)),
+				() -> Mono.just("backup")).block(Duration.ofSeconds(5));
+
+		// Then
+		assertThat(result).isEqualTo("backup");
+		assertThat(cancelled).isTrue();
+		assertThat(registry.get("mongodb.hedge").tags("result", "won").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void shouldNotHedgeFastReads() {
+
+		// Given
+		final HedgedReads hedging = hedging(10);
+
+		// When
+		final String result = hedging.hedge(Mono.just("read"), () -> Mono.just("backup")).block();
+
+		// Then
+		assertThat(result).isEqualTo("read");
+		assertThat(registry.get("mongodb.hedge").tags("result", "sent").counter().count()).isZero();
+	}
+
+	@Test
+	public void shouldIgnoreAnEmptyBackup() {
+
+		// Given
+		final HedgedReads hedging = hedging(10);
+
+		// When
+		final String result = hedging.hedge(Mono.just("read").delayElement(Duration.ofMillis(100)),
+				() -> Mono.<String>empty()).block(Duration.ofSeconds(5));
+
+		// Then
+		assertThat(result).isEqualTo("read");
+	}
+
+	@Test
+	public void shouldCapTheBackupReads() {
+
+		// Given
+		final HedgedReads hedging = hedging(1);
+		hedging.hedge(Mono.<String>never(), () -> Mono.just("backup")).block(Duration.ofSeconds(5));
+
+		// When
+		final String result = hedging.hedge(Mono.just("read").delayElement(Duration.ofMillis(100)),
+				() -> Mono.just("backup")).block(Duration.ofSeconds(5));
+
+		// Then
+		assertThat(result).isEqualTo("read");
+		assertThat(registry.get("mongodb.hedge").tags("result", "capped").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void shouldNotSampleTheCancelledReads() {
+
+		// Given
+		final LatencyPercentile latency = new LatencyPercentile(10, 0.95, DELAY);
+		final HedgedReads hedging = new HedgedReads(latency, DELAY, new TokenBucket(0.001, 10, 1), registry);
+
+		// When
+		for (int i = 0; i < 10; i++) {
+			hedging.hedge(Mono.<String>never(), () -> Mono.just("backup")).block(Duration.ofSeconds(5));
+		}
+
+		// Then
+		assertThat(latency.getValue()).isEqualTo(DELAY);
+	}
+
+	private HedgedReads hedging(int burst) {
+		return new HedgedReads(new LatencyPercentile(100, 0.95, DELAY), DELAY,
+				new TokenBucket(0.001, burst, 1), registry);
+	}
+}
@@ -0,0 +1,49 @@
+package customerservice.repository.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+public class LatencyPercentileTest {
+
+	@Test
+	public void shouldTrackThePercentileOfTheRecentLatencies() {
+
+		// Given
+		final LatencyPercentile percentile = new LatencyPercentile(100, 0.95, 42);
+		assertThat(percentile.getValue()).isEqualTo(42);
+
+		// When
+		for (int i = 1; i <= 100; i++) {
+			percentile.record(i);
+		}
+
+		// Then
+		assertThat(percentile.getValue()).isEqualTo(95);
+	}
+
+	@Test
+	public void shouldForgetTheOldestLatencies() {
+
+		// Given
+		final LatencyPercentile percentile = new LatencyPercentile(100, 0.95, 42);
+		for (int i = 1; i <= 100; i++) {
+			percentile.record(1000);
+		}
+
+		// When
+		for (int i = 1; i <= 100; i++) {
+			percentile.record(i);
+		}
+
+		// Then
+		assertThat(percentile.getValue()).isEqualTo(95);
+	}
+
+	@Test
+	public void shouldRejectTooFewSamples() {
+		assertThatThrownBy(() -> new LatencyPercentile(5, 0.95, 42)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new LatencyPercentile(100, 1, 42)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,214 @@
+package customerservice.repository.mongodb;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.ServerAddress;
+import com.mongodb.async.client.MongoClientSettings;
+import com.mongodb.connection.ClusterSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import customerservice.domain.Customer;
+import customerservice.repository.mongodb.ReadRoutingProperties.Route;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read routing against a local 3 members replica set started with embedded MongoDB.
+ */
+public class ReadRoutingIT {
+
+	private static final String REPLICA_SET = "rs0";
+	private static final String DATABASE = "test";
+
+	private static final List<MongodExecutable> MEMBERS = new ArrayList<>();
+	private static final List<Integer> PORTS = new ArrayList<>();
+
+	private static final List<ServerAddress> FIND_ADDRESSES = new CopyOnWriteArrayList<>();
+
+	private static MongoClient client;
+	private static CustomerRepository repo;
+	private static CustomerReads reads;
+
+	@BeforeClass
+	public static void startReplicaSet() throws Exception {
+
+		final MongodStarter starter = MongodStarter.getDefaultInstance();
+		for (int i = 0; i < 3; i++) {
+			final int port = Network.getFreeServerPort();
+			final MongodExecutable member = starter.prepare(new MongodConfigBuilder()
+				.version(Version.Main.PRODUCTION)
+				.net(new Net("localhost", port, Network.localhostIsIPv6()))
+				.replication(new Storage(null, REPLICA_SET, 0))
+				.build());
+			member.start();
+			MEMBERS.add(member);
+			PORTS.add(port);
+		}
+
+		initiate();
+
+		client = MongoClients.create(MongoClientSettings.builder()
+			.clusterSettings(ClusterSettings.builder()
+				.applyConnectionString(new ConnectionString(String.format("mongodb://localhost:%d,localhost:%d,localhost:%d/?replicaSet=%s",
+						PORTS.get(0), PORTS.get(1), PORTS.get(2), REPLICA_SET)))
+				.build())
+			.addCommandListener(new FindAddressListener())
+			.build());
+
+		final MongoMappingContext mappingContext = new MongoMappingContext();
+		final MongoCustomConversions conversions = new MongoCustomConversions(CustomerConverters.getConvertersToRegister());
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+
+		final ReactiveMongoTemplate template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, DATABASE), converter);
+		repo = new ReactiveMongoRepositoryFactory(template).getRepository(CustomerRepository.class);
+
+		final Route secondary = new Route();
+		secondary.setReadPreference("secondary");
+		secondary.setMaxStalenessSeconds(90L);
+		secondary.setReadConcern("local");
+
+		final ReactiveMongoOperations routed = new ReactiveMongoTemplate(new RoutedReactiveMongoDatabaseFactory(client,
+				DATABASE, secondary.toReadPreference(), secondary.toReadConcern()), converter);
+		reads = new CustomerReads(repo, Collections.singletonMap("allCustomers",
+				new ReactiveMongoRepositoryFactory(routed).getRepository(CustomerRepository.class)));
+	}
+
+	@AfterClass
+	public static void stopReplicaSet() {
+
+		if (client != null) {
+			client.close();
+		}
+		MEMBERS.forEach(MongodExecutable::stop);
+	}
+
+	@Before
+	public void cleanDB() {
+		repo.deleteAll().block();
+		FIND_ADDRESSES.clear();
+	}
+
+	@Test
+	public void shouldReadYourWritesFromThePrimary() {
+
+		// Given
+		final Customer saved = repo.save(Customer.ofType(PERSON).withFirstName("Ken").withLastName("Masters").build()).block();
+
+		// When
+		final List<Customer> customers = reads.findAll("allCustomers", true).collectList().block();
+
+		// Then
+		assertThat(customers).extracting(Customer::getId).containsExactly(saved.getId());
+		assertThat(FIND_ADDRESSES).containsOnly(primary());
+	}
+
+	@Test
+	public void shouldReadAllCustomersFromASecondary() throws InterruptedException {
+
+		// Given
+		final Customer saved = repo.save(Customer.ofType(PERSON).withFirstName("Ryu").withLastName("Hoshi").build()).block();
+
+		// When, replication is asynchronous
+		List<Customer> customers = Collections.emptyList();
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (customers.isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(100);
+			customers = reads.findAll("allCustomers", false).collectList().block();
+		}
+
+		// Then
+		assertThat(customers).extracting(Customer::getId).containsExactly(saved.getId());
+		assertThat(FIND_ADDRESSES).isNotEmpty().doesNotContain(primary());
+	}
+
+	private static void initiate() throws InterruptedException {
+
+		final List<Document> members = new ArrayList<>();
+		for (int i = 0; i < PORTS.size(); i++) {
+			members.add(new Document("_id", i).append("host", "localhost:" + PORTS.get(i)));
+		}
+
+		final MongoClient first = MongoClients.create("mongodb://localhost:" + PORTS.get(0));
+		try {
+			Mono.from(first.getDatabase("admin").runCommand(new Document("replSetInitiate",
+					new Document("_id", REPLICA_SET).append("members", members)))).block();
+
+			// Wait until there is a primary and all the others are secondaries
+			final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+			while (System.nanoTime() < deadline) {
+				final Document status = Mono.from(first.getDatabase("admin").runCommand(new Document("replSetGetStatus", 1))).block();
+				@SuppressWarnings("unchecked")
+				final List<Document> states = (List<Document>) status.get("members");
+				if (states.stream().filter(member -> member.getInteger("state") == 1).count() == 1
+						&& states.stream().filter(member -> member.getInteger("state") == 2).count() == PORTS.size() - 1) {
+					return;
+				}
+				Thread.sleep(500);
+			}
+			throw new IllegalStateException("Replica set not ready");
+		} finally {
+			first.close();
+		}
+	}
+
+	private static ServerAddress primary() {
+
+		final Document isMaster = Mono.from(client.getDatabase("admin").runCommand(new Document("isMaster", 1))).block();
+		final String[] hostAndPort = isMaster.getString("primary").split(":");
+		return new ServerAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+	}
+
+	private static final class FindAddressListener implements CommandListener {
+
+		@Override
+		public void commandStarted(CommandStartedEvent event) {
+			if ("find".equals(event.getCommandName())) {
+				FIND_ADDRESSES.add(event.getConnectionDescription().getServerAddress());
+			}
+		}
+
+		@Override
+		public void commandSucceeded(CommandSucceededEvent event) {
+		}
+
+		@Override
+		public void commandFailed(CommandFailedEvent event) {
+		}
+	}
+}
@@ -7,6 +7,9 @@ import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.CREATED;
@@ -14,21 +17,27 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.bson.types.ObjectId;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import customerservice.CustomerServiceException;
 import customerservice.domain.Customer;
 import customerservice.domain.enums.CustomerType;
+import customerservice.repository.mongodb.CustomerReads;
 import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
 import customerservice.restapi.CustomerController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -39,9 +48,18 @@ public class CustomerControllerTest {
 	@Mock
 	private CustomerRepository repo;
 
+	@Spy
+	private CustomerResponseCache responseCache = new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30);
+
 	@InjectMocks
 	private CustomerController controller;
 
+	@Before
+	public void useTheRepository() {
+		ReflectionTestUtils.setField(controller, "reads", CustomerReads.primaryOnly(repo));
+		ReflectionTestUtils.setField(controller, "writes", CustomerWrites.repositoryOnly(repo));
+	}
+
 	@Test
 	public void shouldReturnAllCustomers() {
 
@@ -52,7 +70,7 @@ public class CustomerControllerTest {
 		when(repo.findAll()).thenReturn(Flux.fromIterable(customers));
 
 		// When
-		final ResponseEntity<List<Customer>> response = controller.allCustomers().block();
+		final ResponseEntity<List<Customer>> response = controller.allCustomers(false).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(OK);
@@ -66,7 +84,7 @@ public class CustomerControllerTest {
 		when(repo.findAll()).thenReturn(Flux.empty());
 
 		// When
-		final ResponseEntity<List<Customer>> response = controller.allCustomers().block();
+		final ResponseEntity<List<Customer>> response = controller.allCustomers(false).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(NO_CONTENT);
@@ -80,7 +98,7 @@ public class CustomerControllerTest {
 		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.just(customer));
 
 		// When
-		final ResponseEntity<Customer> response = controller.oneCustomer(ObjectId.get()).block();
+		final ResponseEntity<Customer> response = controller.oneCustomer(ObjectId.get(), false).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(OK);
@@ -94,13 +112,113 @@ public class CustomerControllerTest {
 		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.empty());
 
 		// When
-		final ResponseEntity<Customer> response = controller.oneCustomer(ObjectId.get()).block();
+		final ResponseEntity<Customer> response = controller.oneCustomer(ObjectId.get(), false).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(NOT_FOUND);
 		assertThat(response.getBody()).isNull();
 	}
 
+	@Test
+	public void shouldReturnOneCompressedCustomerFromCache() {
+
+		// Given
+		final Customer customer = Customer.ofType(PERSON).build();
+		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.just(customer));
+		final ObjectId id = ObjectId.get();
+
+		// When
+		final ResponseEntity<byte[]> response1 = controller.oneCustomerEncoded(id, "gzip, deflate", false).block();
+		final ResponseEntity<byte[]> response2 = controller.oneCustomerEncoded(id, "gzip, deflate", false).block();
+
+		// Then
+		verify(repo).findById(id); // Second response must come from the cache
+		assertThat(response1.getStatusCode()).isEqualTo(OK);
+		assertThat(response1.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+		assertThat(response2.getBody()).isEqualTo(response1.getBody());
+	}
+
+	@Test
+	public void shouldNotCacheTheCustomersReadFromASecondary() {
+
+		// Given
+		final CustomerRepository secondary = mock(CustomerRepository.class);
+		when(secondary.findById(any(ObjectId.class))).thenReturn(Mono.just(Customer.ofType(PERSON).build()));
+		ReflectionTestUtils.setField(controller, "reads",
+				new CustomerReads(repo, Collections.singletonMap("oneCustomer", secondary)));
+		final ObjectId id = ObjectId.get();
+
+		// When
+		controller.oneCustomerEncoded(id, "gzip", false).block();
+		controller.oneCustomerEncoded(id, "gzip", false).block();
+
+		// Then
+		verify(secondary, times(2)).findById(id);
+		verify(repo, never()).findById(any(ObjectId.class));
+	}
+
+	@Test
+	public void shouldReadYourWritesFromThePrimary() {
+
+		// Given
+		final CustomerRepository secondary = mock(CustomerRepository.class);
+		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.just(Customer.ofType(PERSON).build()));
+		ReflectionTestUtils.setField(controller, "reads",
+				new CustomerReads(repo, Collections.singletonMap("oneCustomer", secondary)));
+		final ObjectId id = ObjectId.get();
+
+		// When
+		final ResponseEntity<byte[]> response = controller.oneCustomerEncoded(id, "gzip", true).block();
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(OK);
+		verify(repo).findById(id);
+		verify(secondary, never()).findById(any(ObjectId.class));
+	}
+
+	@Test
+	public void shouldReturnOneUncompressedCustomerIfGzipIsNotAccepted() {
+
+		// Given
+		final Customer customer = Customer.ofType(PERSON).build();
+		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.just(customer));
+
+		// When
+		final ResponseEntity<byte[]> response = controller.oneCustomerEncoded(ObjectId.get(), "identity", false).block();
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(OK);
+		assertThat(response.getHeaders().containsKey("Content-Encoding")).isFalse();
+		assertThat(new String(response.getBody())).contains("\"customer_type\":\"PERSON\"");
+	}
+
+	@Test
+	public void shouldReturnOneUncompressedCustomerIfGzipHasAZeroQuality() {
+
+		// Given
+		final Customer customer = Customer.ofType(PERSON).build();
+		when(repo.findById(any(ObjectId.class))).thenReturn(Mono.just(customer));
+
+		// When
+		final ResponseEntity<byte[]> response = controller.oneCustomerEncoded(ObjectId.get(), "gzip;q=0, identity", false).block();
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(OK);
+		assertThat(response.getHeaders().containsKey("Content-Encoding")).isFalse();
+	}
+
+	@Test
+	public void shouldParseTheQualityOfTheEncodings() {
+		assertThat(CustomerController.acceptsGzip("gzip")).isTrue();
+		assertThat(CustomerController.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+		assertThat(CustomerController.acceptsGzip("*")).isTrue();
+		assertThat(CustomerController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(CustomerController.acceptsGzip("gzip; q=0.0, *")).isFalse();
+		assertThat(CustomerController.acceptsGzip("*;q=0")).isFalse();
+		assertThat(CustomerController.acceptsGzip("identity")).isFalse();
+		assertThat(CustomerController.acceptsGzip("br, deflate")).isFalse();
+	}
+
 	@Test
 	public void shouldAddANewCustomer() {
 
@@ -114,7 +232,7 @@ public class CustomerControllerTest {
 		when(repo.save(any(Customer.class))).thenReturn(Mono.just(newCustomer));
 
 		// When
-		final ResponseEntity<?> response = controller.addCustomer(newCustomer).block();
+		final ResponseEntity<?> response = controller.addCustomer(newCustomer, null).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(CREATED);
@@ -132,7 +250,7 @@ public class CustomerControllerTest {
 
 		// When
 		// Then
-		assertThatThrownBy(() -> controller.addCustomer(customer).block())
+		assertThatThrownBy(() -> controller.addCustomer(customer, null).block())
 			.isInstanceOf(CustomerServiceException.class)
 			.hasMessageContaining("Customer already exists");
 	}
@@ -148,7 +266,7 @@ public class CustomerControllerTest {
 		ReflectionTestUtils.setField(existingCustomer, "id", id);
 
 		// When
-		final ResponseEntity<?> response = controller.updateCustomer(id, existingCustomer).block();
+		final ResponseEntity<?> response = controller.updateCustomer(id, existingCustomer, null).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(NO_CONTENT);
@@ -165,7 +283,7 @@ public class CustomerControllerTest {
 
 		// When
 		// Then
-		assertThatThrownBy(() -> controller.updateCustomer(newCustomer.getId(), newCustomer).block())
+		assertThatThrownBy(() -> controller.updateCustomer(newCustomer.getId(), newCustomer, null).block())
 				.isInstanceOf(CustomerServiceException.class)
 				.hasMessageContaining("Customer does not exist");
 	}
@@ -179,7 +297,7 @@ public class CustomerControllerTest {
 		final ObjectId id = ObjectId.get();
 
 		// When
-		final ResponseEntity<?> response = controller.deleteCustomer(id).block();
+		final ResponseEntity<?> response = controller.deleteCustomer(id, null).block();
 
 		// Then
 		assertThat(response.getStatusCode()).isEqualTo(NO_CONTENT);
@@ -194,9 +312,9 @@ public class CustomerControllerTest {
 		final ObjectId id = ObjectId.get();
 
 		// When
-		final ResponseEntity<?> response1 = controller.deleteCustomer(id).block();
-		final ResponseEntity<?> response2 = controller.deleteCustomer(id).block();
-		final ResponseEntity<?> response3 = controller.deleteCustomer(id).block();
+		final ResponseEntity<?> response1 = controller.deleteCustomer(id, null).block();
+		final ResponseEntity<?> response2 = controller.deleteCustomer(id, null).block();
+		final ResponseEntity<?> response3 = controller.deleteCustomer(id, null).block();
 
 		// Then
 		verify(repo).deleteById(any(ObjectId.class)); // Must be called only once
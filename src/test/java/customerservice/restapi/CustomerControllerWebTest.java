@@ -18,20 +18,26 @@ import java.util.List;
 
 import org.bson.types.ObjectId;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import static org.springframework.web.reactive.function.BodyInserters.*;
 
+import customerservice.BlockingCallDetector;
 import customerservice.CustomerServiceExceptionHandler;
 import customerservice.domain.Customer;
+import customerservice.repository.mongodb.CustomerReads;
 import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
 import customerservice.restapi.CustomerController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @RunWith(SpringRunner.class)
 public class CustomerControllerWebTest {
@@ -40,12 +46,21 @@ public class CustomerControllerWebTest {
 	private CustomerRepository repo;
 
 	private WebTestClient webClient;
+
+	@BeforeClass
+	public static void installBlockingCallDetector() {
+		BlockingCallDetector.install();
+	}
 	
 	@Before
 	public void init() {
 		webClient = WebTestClient
-			.bindToController(new CustomerController(repo))
+			.bindToController(new CustomerController(repo,
+				new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30), CustomerReads.primaryOnly(repo),
+				CustomerWrites.repositoryOnly(repo)))
 			.controllerAdvice(CustomerServiceExceptionHandler.class)  // Doesn't seem to work hence the HTTP 500 instead of HTTP 400 in some tests
+			// Handle the requests on a non-blocking thread like the server does, blocking calls fail the tests
+			.webFilter((exchange, chain) -> chain.filter(exchange).subscribeOn(Schedulers.parallel()))
 			.build();
 	}
 
@@ -94,6 +109,20 @@ public class CustomerControllerWebTest {
 			});
 	}
 
+	@Test
+	public void shouldReturnOneGzippedCustomerById() throws Exception {
+
+		final Customer mockCustomer = Customer.ofType(PERSON).build();
+		final ObjectId id = ObjectId.get();
+
+		given(repo.findById(any(ObjectId.class))).willReturn(Mono.just(mockCustomer));
+
+		webClient.get().uri(String.format("/customers/%s", id)).accept(APPLICATION_JSON_UTF8)
+			.header("Accept-Encoding", "gzip").exchange()
+			.expectStatus().isOk()	// HTTP 200
+			.expectHeader().valueEquals("Content-Encoding", "gzip");
+	}
+
 	@Test
 	public void shouldReturn404IfCustomerNotFound() throws Exception {
 
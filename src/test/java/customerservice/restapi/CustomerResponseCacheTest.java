@@ -0,0 +1,133 @@
+package customerservice.restapi;
+
+import static customerservice.domain.enums.CustomerType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import customerservice.domain.Customer;
+import customerservice.restapi.CustomerResponseCache.CachedResponse;
+
+public class CustomerResponseCacheTest {
+
+	private final AtomicLong nanoTime = new AtomicLong();
+	private final CustomerResponseCache cache = new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 2,
+			30, nanoTime::get);
+
+	@Test
+	public void shouldCacheJsonAndGzippedJson() throws IOException {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		final Customer customer = Customer.ofType(PERSON).withId(id).withFirstName("Ken").build();
+
+		// When
+		cache.put(id, cache.currentVersion(id), customer);
+		final CachedResponse cached = cache.get(id);
+
+		// Then
+		assertThat(cached).isNotNull();
+		assertThat(new String(cached.getJson(), "UTF-8")).contains("\"first_name\":\"Ken\"");
+		assertThat(gunzip(cached.getGzippedJson())).isEqualTo(cached.getJson());
+	}
+
+	@Test
+	public void shouldNotCacheACustomerReadBeforeAnInvalidation() {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		final long version = cache.currentVersion(id);
+
+		// When
+		cache.invalidate(id);
+		final CachedResponse response = cache.put(id, version, Customer.ofType(PERSON).withId(id).build());
+
+		// Then
+		assertThat(response).isNotNull();
+		assertThat(cache.get(id)).isNull();
+	}
+
+	@Test
+	public void shouldCacheACustomerReadBeforeTheInvalidationOfAnother() {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		final long version = cache.currentVersion(id);
+
+		// When
+		cache.invalidate(ObjectId.get());
+		cache.put(id, version, Customer.ofType(PERSON).withId(id).build());
+
+		// Then
+		assertThat(cache.get(id)).isNotNull();
+	}
+
+	@Test
+	public void shouldNotCacheACustomerAfterAnUnacknowledgedWrite() {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		cache.invalidateUnacknowledged(id);
+
+		// When
+		cache.put(id, cache.currentVersion(id), Customer.ofType(PERSON).withId(id).build());
+		final CachedResponse beforeTtl = cache.get(id);
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+		cache.put(id, cache.currentVersion(id), Customer.ofType(PERSON).withId(id).build());
+
+		// Then
+		assertThat(beforeTtl).isNull();
+		assertThat(cache.get(id)).isNotNull();
+	}
+
+	@Test
+	public void shouldExpireTheEntries() {
+
+		// Given
+		final ObjectId id = ObjectId.get();
+		cache.put(id, cache.currentVersion(id), Customer.ofType(PERSON).withId(id).build());
+
+		// When
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+		// Then
+		assertThat(cache.get(id)).isNull();
+	}
+
+	@Test
+	public void shouldEvictWhenFull() {
+
+		// Given
+		final ObjectId id1 = ObjectId.get();
+		final ObjectId id2 = ObjectId.get();
+		final ObjectId id3 = ObjectId.get();
+
+		// When
+		cache.put(id1, cache.currentVersion(id1), Customer.ofType(PERSON).withId(id1).build());
+		cache.put(id2, cache.currentVersion(id2), Customer.ofType(PERSON).withId(id2).build());
+		cache.put(id3, cache.currentVersion(id3), Customer.ofType(PERSON).withId(id3).build());
+
+		// Then
+		assertThat(cache.get(id3)).isNotNull();
+		assertThat(cache.get(id1) == null || cache.get(id2) == null).isTrue();
+	}
+
+	private static byte[] gunzip(byte[] gzipped) throws IOException {
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+			StreamUtils.copy(in, out);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,141 @@
+package customerservice.slowquery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import reactor.core.publisher.Mono;
+
+public class SlowQueryListenerTest {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(
+			new ServerId(new ClusterId(), new ServerAddress()));
+
+	private static final Document PLAN = new Document("winningPlan", new Document("stage", "COLLSCAN"));
+
+	private SlowQueryStore store;
+	private SlowQueryListener listener;
+
+	@Before
+	public void init() {
+		store = new SlowQueryStore(2);
+		listener = new SlowQueryListener(Collections.singleton("customer"), Duration.ofMillis(100), 1,
+				explain -> Mono.just(new Document("queryPlanner", PLAN)), store);
+	}
+
+	@Test
+	public void shouldKeepSlowQueriesWithTheirPlan() {
+
+		// Given
+		final BsonDocument find = new BsonDocument("find", new BsonString("customer"))
+				.append("filter", new BsonDocument("lastName", new BsonString("Masters")))
+				.append("$db", new BsonString("test"));
+
+		// When
+		listener.commandStarted(new CommandStartedEvent(1, CONNECTION, "test", "find", find));
+		listener.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", new BsonDocument(),
+				TimeUnit.MILLISECONDS.toNanos(250)));
+
+		// Then
+		final List<SlowQuery> queries = store.getQueries();
+		assertThat(queries).hasSize(1);
+		assertThat(queries.get(0).getCollection()).isEqualTo("customer");
+		assertThat(queries.get(0).getDurationMillis()).isEqualTo(250);
+		assertThat(queries.get(0).getStatement()).contains("lastName").doesNotContain("Masters").doesNotContain("$db");
+		assertThat(queries.get(0).getPlan()).isEqualTo(PLAN);
+	}
+
+	@Test
+	public void shouldKeepOnlyTheShapeOfTheStatement() {
+
+		// Given
+		final BsonArray names = new BsonArray();
+		names.add(new BsonString("Masters"));
+		names.add(new BsonString("Johnson"));
+		final BsonArray updates = new BsonArray();
+		updates.add(new BsonDocument("q", new BsonDocument("lastName", new BsonDocument("$in", names)))
+				.append("u", new BsonDocument("$set", new BsonDocument("email", new BsonString("v@masters.com")))));
+		final BsonDocument update = new BsonDocument("update", new BsonString("customer"))
+				.append("updates", updates);
+
+		// When
+		listener.commandStarted(new CommandStartedEvent(1, CONNECTION, "test", "update", update));
+		listener.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "update", new BsonDocument(),
+				TimeUnit.MILLISECONDS.toNanos(250)));
+
+		// Then
+		assertThat(Document.parse(store.getQueries().get(0).getStatement())).isEqualTo(Document.parse(
+				"{update: '?', updates: [{q: {lastName: {$in: ['?']}}, u: {$set: {email: '?'}}}]}"));
+	}
+
+	@Test
+	public void shouldRedactTheValuesOfThePlan() {
+
+		// Given
+		final Document plan = Document.parse("{parsedQuery: {lastName: {$eq: 'Masters'}}, "
+				+ "winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'lastName_1', "
+				+ "indexBounds: {lastName: ['[\"Masters\", \"Masters\"]']}}}}");
+
+		// When
+		final Object redacted = SlowQueryListener.redactPlan(plan);
+
+		// Then
+		assertThat(redacted).isEqualTo(Document.parse("{parsedQuery: {lastName: {$eq: '?'}}, "
+				+ "winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'lastName_1', "
+				+ "indexBounds: {lastName: ['?']}}}}"));
+	}
+
+	@Test
+	public void shouldIgnoreFastQueriesAndOtherCollections() {
+
+		// Given
+		final BsonDocument customers = new BsonDocument("find", new BsonString("customer"));
+		final BsonDocument tokens = new BsonDocument("find", new BsonString("oauth2_access_tokens"));
+
+		// When
+		listener.commandStarted(new CommandStartedEvent(1, CONNECTION, "test", "find", customers));
+		listener.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", new BsonDocument(),
+				TimeUnit.MILLISECONDS.toNanos(5)));
+		listener.commandStarted(new CommandStartedEvent(2, CONNECTION, "test", "find", tokens));
+		listener.commandSucceeded(new CommandSucceededEvent(2, CONNECTION, "find", new BsonDocument(),
+				TimeUnit.MILLISECONDS.toNanos(500)));
+
+		// Then
+		assertThat(store.getQueries()).isEmpty();
+	}
+
+	@Test
+	public void shouldEvictTheOldestQueries() {
+
+		// Given
+		for (int i = 1; i <= 3; i++) {
+			listener.commandStarted(new CommandStartedEvent(i, CONNECTION, "test", "count",
+					new BsonDocument("count", new BsonString("customer"))));
+			listener.commandSucceeded(new CommandSucceededEvent(i, CONNECTION, "count", new BsonDocument(),
+					TimeUnit.MILLISECONDS.toNanos(100 * i)));
+		}
+
+		// When
+		final List<SlowQuery> queries = store.getQueries();
+
+		// Then
+		assertThat(queries).extracting(SlowQuery::getDurationMillis).containsExactly(300L, 200L);
+	}
+}
@@ -0,0 +1,44 @@
+package customerservice.tls;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.net.ssl.SSLContext;
+
+import org.junit.Test;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.server.ConfigurableReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+
+public class TlsConfigurationTest {
+
+	private final WebServerFactoryCustomizer<ConfigurableReactiveWebServerFactory> customizer = new TlsConfiguration()
+		.http2Customizer(new TlsProperties(), null);
+
+	@Test
+	public void shouldFailOnAnotherRuntimeThanUndertow() {
+
+		// Given
+		final NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+
+		// When
+		// Then
+		assertThatThrownBy(() -> customizer.customize(factory))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("NettyReactiveWebServerFactory");
+	}
+
+	@Test
+	public void shouldCustomizeUndertow() throws Exception {
+
+		// Given
+		final UndertowReactiveWebServerFactory factory = new UndertowReactiveWebServerFactory();
+
+		// When
+		new TlsConfiguration().http2Customizer(new TlsProperties(), SSLContext.getDefault()).customize(factory);
+
+		// Then
+		assertThat(factory.getBuilderCustomizers()).hasSize(1);
+	}
+}
@@ -0,0 +1,82 @@
+package customerservice.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.bson.BsonDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import reactor.core.publisher.Mono;
+
+public class MongoTracingListenerTest {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(
+			new ServerId(new ClusterId(), new ServerAddress()));
+
+	private InMemorySpanCollector collector;
+	private MongoTracingListener listener;
+	private Span root;
+
+	@Before
+	public void init() {
+		collector = new InMemorySpanCollector(10);
+		listener = new MongoTracingListener();
+		root = new Tracer(1, collector).startTrace("http.request");
+	}
+
+	@Test
+	public void shouldTraceTheCommandsStartedByARequest() {
+
+		// Given
+		final Mono<String> operation = Mono.from(subscriber -> subscriber.onSubscribe(new Subscription() {
+
+			@Override
+			public void request(long n) {
+				command(1);
+				subscriber.onNext("customer");
+				subscriber.onComplete();
+			}
+
+			@Override
+			public void cancel() {
+			}
+		}));
+
+		// When
+		MongoTracingListener.handOver(operation)
+			.subscriberContext(context -> context.put(Span.class, root))
+			.block();
+
+		// Then
+		assertThat(collector.getSpans()).extracting(Span::getName).containsExactly("mongodb.find");
+		assertThat(collector.getSpans().get(0).getParentId()).isEqualTo(root.getSpanId());
+	}
+
+	@Test
+	public void shouldNotHandTheSpanOverToLaterCommands() {
+
+		// Given
+		MongoTracingListener.handOver(Mono.just("customer"))
+			.subscriberContext(context -> context.put(Span.class, root))
+			.block();
+
+		// When
+		command(2);
+
+		// Then
+		assertThat(collector.getSpans()).isEmpty();
+	}
+
+	private void command(int requestId) {
+		listener.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "test", "find", new BsonDocument()));
+		listener.commandSucceeded(new CommandSucceededEvent(requestId, CONNECTION, "find", new BsonDocument(), 1000));
+	}
+}
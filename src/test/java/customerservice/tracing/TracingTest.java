@@ -0,0 +1,117 @@
+package customerservice.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import customerservice.repository.mongodb.CustomerReads;
+import customerservice.repository.mongodb.CustomerRepository;
+import customerservice.repository.mongodb.CustomerWrites;
+import customerservice.restapi.CustomerController;
+import customerservice.restapi.CustomerResponseCache;
+import reactor.core.publisher.Mono;
+
+public class TracingTest {
+
+	@Test
+	public void shouldRecordChildSpansOfSampledRequests() {
+
+		// Given
+		final InMemorySpanCollector collector = new InMemorySpanCollector(10);
+		final Span root = new Tracer(1, collector).startTrace("http.request");
+
+		// When
+		Tracing.span("repository.findById", Mono.just("customer"))
+			.flatMap(customer -> Tracing.span("repository.save", Mono.just(customer)))
+			.doFinally(signal -> root.end())
+			.subscriberContext(context -> context.put(Span.class, root))
+			.block();
+
+		// Then
+		final List<Span> spans = collector.getSpans();
+		assertThat(spans).extracting(Span::getName)
+			.containsExactlyInAnyOrder("http.request", "repository.findById", "repository.save");
+		assertThat(spans).extracting(Span::getTraceId).containsOnly(root.getTraceId());
+		assertThat(spans).filteredOn(span -> span != root).extracting(Span::getParentId)
+			.containsOnly(root.getSpanId());
+		assertThat(root.getParentId()).isNull();
+	}
+
+	@Test
+	public void shouldNotTraceUnsampledRequests() {
+
+		// Given
+		final InMemorySpanCollector collector = new InMemorySpanCollector(10);
+
+		// When
+		final Span root = new Tracer(0, collector).startTrace("http.request");
+		final String result = Tracing.span("repository.findById", Mono.just("customer")).block();
+
+		// Then
+		assertThat(root).isNull();
+		assertThat(result).isEqualTo("customer");
+		assertThat(collector.getSpans()).isEmpty();
+	}
+
+	@Test
+	public void shouldKeepTheMostRecentSpans() {
+
+		// Given
+		final InMemorySpanCollector collector = new InMemorySpanCollector(2);
+		final Tracer tracer = new Tracer(1, collector);
+
+		// When
+		for (int i = 0; i < 3; i++) {
+			tracer.startTrace("request" + i).end();
+		}
+
+		// Then
+		assertThat(collector.getSpans()).extracting(Span::getName).containsExactly("request2", "request1");
+	}
+
+	@Test
+	public void shouldExportASpanOnce() {
+
+		// Given
+		final InMemorySpanCollector collector = new InMemorySpanCollector(10);
+		final Span span = new Tracer(1, collector).startTrace("http.request");
+
+		// When
+		span.end();
+		span.end();
+
+		// Then
+		assertThat(collector.getSpans()).hasSize(1);
+	}
+
+	@Test
+	public void shouldTagAFailedRequestWithAServerError() {
+
+		// Given
+		final InMemorySpanCollector collector = new InMemorySpanCollector(10);
+		final CustomerRepository repo = mock(CustomerRepository.class);
+		given(repo.findById(any(ObjectId.class))).willReturn(Mono.error(new IllegalStateException("timeout")));
+		final WebTestClient webClient = WebTestClient
+			.bindToController(new CustomerController(repo,
+				new CustomerResponseCache(Jackson2ObjectMapperBuilder.json().build(), 100, 30),
+				CustomerReads.primaryOnly(repo), CustomerWrites.repositoryOnly(repo)))
+			.webFilter(new TracingWebFilter(new Tracer(1, collector)))
+			.build();
+
+		// When
+		webClient.get().uri(String.format("/customers/%s", ObjectId.get())).exchange()
+			.expectStatus().is5xxServerError();
+
+		// Then
+		assertThat(collector.getSpans()).extracting(span -> span.getTags().get("status")).containsExactly("500");
+	}
+}